@@ -0,0 +1,73 @@
+package benchmark;
+
+import exporter.CsvChatExporter;
+import exporter.JsonChatExporter;
+import loader.BlockPartitioner;
+import loader.CsvLoader;
+import loader.MappedLineLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.ChatParser;
+import parser.ParallelChatParser;
+import pipeline.StagedPipeline;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full load, parse and export pipeline as wired by the CLI, for each engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    private static final int WORKERS = Runtime.getRuntime().availableProcessors();
+
+    @Benchmark
+    public void sequentialToCsv(EvidenceState state) throws IOException {
+        try (var lines = new CsvLoader().load(state.evidenceFile)) {
+            new CsvChatExporter().export(new ChatParser().parse(lines), state.output("e2e.csv"));
+        }
+    }
+
+    @Benchmark
+    public void sequentialToJson(EvidenceState state) throws IOException {
+        try (var lines = new CsvLoader().load(state.evidenceFile)) {
+            new JsonChatExporter().export(new ChatParser().parse(lines), state.output("e2e.json"));
+        }
+    }
+
+    @Benchmark
+    public void mappedToCsv(EvidenceState state) throws IOException {
+        try (var lines = new MappedLineLoader().load(state.evidenceFile)) {
+            new CsvChatExporter().export(new ChatParser().parse(lines), state.output("e2e-mapped.csv"));
+        }
+    }
+
+    @Benchmark
+    public void parallelToCsv(EvidenceState state) throws IOException {
+        var parser = new ParallelChatParser(new ChatParser(), new MappedLineLoader(), WORKERS,
+                BlockPartitioner.DEFAULT_PARTITION_SIZE / 16);
+
+        try (var messages = parser.parse(state.evidenceFile)) {
+            new CsvChatExporter().export(messages, state.output("e2e-parallel.csv"));
+        }
+    }
+
+    @Benchmark
+    public void pipelinedToCsv(EvidenceState state) throws IOException {
+        var pipeline = new StagedPipeline(new CsvLoader(), new ChatParser());
+
+        try (var messages = pipeline.parse(state.evidenceFile)) {
+            new CsvChatExporter().export(messages, state.output("e2e-pipelined.csv"));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package benchmark;
+
+import model.ChatMessage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates synthetic collection dumps in the vendor layout parsed by {@link parser.ChatParser}, or the
+ * messages parsed from them for tests that start after the parser.
+ * Output is deterministic for a given seed so that runs can be compared.
+ */
+public class EvidenceGenerator {
+
+    private static final String WORDS = "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod tempor "
+            + "incididunt ut labore et dolore magna aliqua enim ad minim veniam quis nostrud exercitation";
+    private static final String[] VOCABULARY = WORDS.split(" ");
+
+    private final int blocks;
+    private final int messagesPerBlock;
+    private final int messageLength;
+    private final double quotedRatio;
+    private final int senders;
+    private final int conversations;
+    private final long seed;
+
+    /**
+     * @param blocks           The number of APD blocks.
+     * @param messagesPerBlock The number of message lines in each block.
+     * @param messageLength    The approximate length in characters of each message.
+     * @param quotedRatio      The share of messages (0..1) written as quoted CSV fields with commas and escaped quotes.
+     */
+    public EvidenceGenerator(int blocks, int messagesPerBlock, int messageLength, double quotedRatio) {
+        this(blocks, messagesPerBlock, messageLength, quotedRatio, 200, 42L);
+    }
+
+    public EvidenceGenerator(int blocks, int messagesPerBlock, int messageLength, double quotedRatio, int senders, long seed) {
+        this(blocks, messagesPerBlock, messageLength, quotedRatio, senders, blocks, seed);
+    }
+
+    /**
+     * @param senders       The number of distinct senders.
+     * @param conversations The number of distinct conversations; block {@code n} continues conversation
+     *                      {@code n % conversations}, so that a conversation spans several blocks.
+     * @param seed          The seed of the generated content.
+     */
+    public EvidenceGenerator(int blocks, int messagesPerBlock, int messageLength, double quotedRatio, int senders,
+                             int conversations, long seed) {
+        if (conversations <= 0) throw new IllegalArgumentException("Conversations must be positive: " + conversations);
+
+        this.blocks = blocks;
+        this.messagesPerBlock = messagesPerBlock;
+        this.messageLength = messageLength;
+        this.quotedRatio = quotedRatio;
+        this.senders = senders;
+        this.conversations = conversations;
+        this.seed = seed;
+    }
+
+    /**
+     * Writes a dump for a training or manual run: {@code EvidenceGenerator <target> [blocks]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) throw new IllegalArgumentException("Usage: EvidenceGenerator <target> [blocks]");
+
+        Path target = Path.of(args[0]);
+        if (target.getParent() != null) Files.createDirectories(target.getParent());
+        int blocks = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        new EvidenceGenerator(blocks, 20, 80, 0.2).write(target);
+    }
+
+    /**
+     * Writes the dump to the given file, replacing any existing content.
+     *
+     * @param target The file to create.
+     * @return The size of the generated file in bytes.
+     * @throws IOException If the file cannot be written.
+     */
+    public long write(Path target) throws IOException {
+        var random = new Random(seed);
+        List<String> conversationIds = new ArrayList<>();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (int block = 0; block < blocks; block++) {
+                Block header = nextBlock(random, block, conversationIds);
+                writer.write(header.id() + ",\n");
+                writer.write("Conversation Identifier:," + header.conversationId() + "\n");
+                writer.write("Platform Call ID:," + header.platformId() + "\n");
+                writer.write("Date and time:," + header.timestamp() + "\n");
+
+                for (int message = 0; message < messagesPerBlock; message++) {
+                    writer.write(nextSender(random) + ",");
+                    writer.write(random.nextDouble() < quotedRatio ? quoted(plain(random)) : plain(random));
+                    writer.write('\n');
+                }
+                writer.write('\n');
+            }
+        }
+        return Files.size(target);
+    }
+
+    /**
+     * @return The messages {@link parser.ChatParser} reads from the dump {@link #write(Path)} produces.
+     */
+    public List<ChatMessage> messages() {
+        var random = new Random(seed);
+        List<String> conversationIds = new ArrayList<>();
+        List<ChatMessage> messages = new ArrayList<>(blocks * messagesPerBlock);
+
+        for (int block = 0; block < blocks; block++) {
+            Block header = nextBlock(random, block, conversationIds);
+            for (int message = 0; message < messagesPerBlock; message++) {
+                String sender = nextSender(random);
+                String text = random.nextDouble() < quotedRatio ? unquoted(plain(random)) : plain(random);
+                messages.add(new ChatMessage(header.id(), header.conversationId(), header.platformId(), header.timestamp(), sender, text));
+            }
+        }
+        return messages;
+    }
+
+    private record Block(String id, String conversationId, String platformId, String timestamp) {}
+
+    private Block nextBlock(Random random, int block, List<String> conversationIds) {
+        String conversationId = new UUID(random.nextLong(), random.nextLong()).toString();
+        if (block < conversations) {
+            conversationIds.add(conversationId);
+        } else {
+            conversationId = conversationIds.get(block % conversations);
+        }
+        String platformId = "AdV/" + Long.toHexString(random.nextLong()) + "==";
+        return new Block("APD" + (10_000 + block), conversationId, platformId, timestamp(random));
+    }
+
+    private String nextSender(Random random) {
+        return "user" + random.nextInt(senders) + "@evidence.com";
+    }
+
+    private String plain(Random random) {
+        var text = new StringBuilder(messageLength + 16);
+        while (text.length() < messageLength) {
+            if (!text.isEmpty()) text.append(' ');
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String quoted(String text) {
+        return "\"" + unquoted(text).replace("\"", "\"\"") + "\"";
+    }
+
+    private static String unquoted(String text) {
+        int middle = text.length() / 2;
+        return text.substring(0, middle) + ", \"quoted\"" + text.substring(middle);
+    }
+
+    private static String timestamp(Random random) {
+        int hour = 1 + random.nextInt(12);
+        return String.format("%d/%d/%02d %d:%02d:%02d %s",
+                1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(25),
+                hour, random.nextInt(60), random.nextInt(60), random.nextBoolean() ? "AM" : "PM");
+    }
+}
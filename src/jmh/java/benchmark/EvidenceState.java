@@ -0,0 +1,73 @@
+package benchmark;
+
+import loader.CsvLoader;
+import model.ChatMessage;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import parser.ChatParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Shared benchmark state: a synthetic evidence file plus its pre-loaded lines and parsed messages,
+ * so that each stage can be measured in isolation. Override the shape with {@code -p name=value}.
+ */
+@State(Scope.Benchmark)
+public class EvidenceState {
+
+    @Param({"2000"})
+    public int blocks;
+
+    @Param({"20"})
+    public int messagesPerBlock;
+
+    @Param({"80"})
+    public int messageLength;
+
+    @Param({"0.2"})
+    public double quotedRatio;
+
+    public Path workDir;
+    public Path evidenceFile;
+    public long evidenceSize;
+    public List<String> lines;
+    public List<ChatMessage> messages;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        workDir = Files.createTempDirectory("fdt-bench");
+        evidenceFile = workDir.resolve("evidence.csv");
+        evidenceSize = new EvidenceGenerator(blocks, messagesPerBlock, messageLength, quotedRatio).write(evidenceFile);
+
+        try (Stream<String> stream = new CsvLoader().load(evidenceFile)) {
+            lines = stream.toList();
+        }
+        messages = new ChatParser().parse(lines.stream()).toList();
+    }
+
+    /**
+     * @param name The file name, resolved in the benchmark working directory.
+     * @return A path for benchmark outputs, deleted with the working directory.
+     */
+    public Path output(String name) {
+        return workDir.resolve(name);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
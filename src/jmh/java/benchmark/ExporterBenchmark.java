@@ -0,0 +1,41 @@
+package benchmark;
+
+import exporter.ColumnarChatExporter;
+import exporter.CsvChatExporter;
+import exporter.JsonChatExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serialization of pre-parsed messages to each output format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExporterBenchmark {
+
+    @Benchmark
+    public void csvExporter(EvidenceState state) throws IOException {
+        new CsvChatExporter().export(state.messages.stream(), state.output("report.csv"));
+    }
+
+    @Benchmark
+    public void columnarExporter(EvidenceState state) throws IOException {
+        new ColumnarChatExporter().export(state.messages.stream(), state.output("report.fdtc"));
+    }
+
+    @Benchmark
+    public void jsonExporter(EvidenceState state) throws IOException {
+        new JsonChatExporter().export(state.messages.stream(), state.output("report.json"));
+    }
+}
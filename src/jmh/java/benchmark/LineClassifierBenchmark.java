@@ -0,0 +1,65 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.LineClassifier;
+import parser.LineType;
+import parser.RegexLineClassifier;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written classifier with the ChatPatterns cascade, per line type.
+ * Message lines are where the gain matters: they dominate dumps and are tried last by the cascade.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineClassifierBenchmark {
+
+    @Param({"BLOCK_START", "CONVERSATION", "PLATFORM", "DATE", "MESSAGE", "UNRECOGNIZED"})
+    private LineType lineType;
+
+    private String line;
+    private LineClassifier classifier;
+    private LineClassifier regex;
+
+    @Setup
+    public void setUp() {
+        line = switch (lineType) {
+            case BLOCK_START -> "APD93823,";
+            case CONVERSATION -> "Conversation Identifier:,8755-4f1c-9a3e-1d2c3b4a5f6e";
+            case PLATFORM -> "Platform Call ID:,AdV/cBMk2l9QvQ==";
+            case DATE -> "Date and time:,10/10/19 4:10:12 PM";
+            case MESSAGE -> "anonym.user@anonym.fr,\"Good luck with the exercise, see you tomorrow!\"";
+            case UNRECOGNIZED -> "Participants:,anonym.user@anonym.fr;other@test.com";
+        };
+        classifier = new LineClassifier();
+        regex = new RegexLineClassifier();
+    }
+
+    @Benchmark
+    public void classifier(Blackhole blackhole) {
+        blackhole.consume(classifier.classify(line));
+        blackhole.consume(classifier.end(1));
+    }
+
+    @Benchmark
+    public void regexCascade(Blackhole blackhole) {
+        blackhole.consume(regex.classify(line));
+        blackhole.consume(regex.end(1));
+    }
+}
@@ -0,0 +1,40 @@
+package benchmark;
+
+import loader.CsvLoader;
+import loader.MappedLineLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures raw line loading: decoded Strings versus memory-mapped line views.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark {
+
+    @Benchmark
+    public void csvLoader(EvidenceState state, Blackhole blackhole) throws IOException {
+        try (var lines = new CsvLoader().load(state.evidenceFile)) {
+            lines.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void mappedLineLoader(EvidenceState state, Blackhole blackhole) throws IOException {
+        try (var lines = new MappedLineLoader().load(state.evidenceFile)) {
+            lines.forEach(blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.ChatParser;
+import parser.RegexLineClassifier;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of pre-loaded lines, isolated from disk I/O.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Benchmark
+    public void chatParser(EvidenceState state, Blackhole blackhole) {
+        new ChatParser().parse(state.lines.stream()).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void chatParserRegex(EvidenceState state, Blackhole blackhole) {
+        new ChatParser(RegexLineClassifier::new).parse(state.lines.stream()).forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,111 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures a whole CLI invocation on a small evidence file, as run once per file by an orchestrator:
+ * JVM startup, class loading and the transformation itself. Each launch mode runs the packaged jar
+ * in a fresh process; build it first, with {@code -Pappcds} for the {@code appcds} mode and with
+ * {@code -Pnative} for the {@code native} mode.
+ * <p>
+ * The jar is looked up in {@code target}, or in the directory given by {@code -Dfdt.target=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"jar", "appcds"})
+    public String launch;
+
+    /**
+     * About 5 MB of evidence.
+     */
+    @Param({"2500"})
+    public int blocks;
+
+    private List<String> command;
+    private Path workDir;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        Path target = Path.of(System.getProperty("fdt.target", "target"));
+        workDir = Files.createTempDirectory("fdt-startup");
+        Path evidence = workDir.resolve("evidence.csv");
+        new EvidenceGenerator(blocks, 20, 80, 0.2).write(evidence);
+
+        command = new ArrayList<>();
+        if (launch.equals("native")) {
+            command.add(require(target.resolve("forensic-transformer"), "-Pnative").toString());
+        } else {
+            Path jar = findJar(target);
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            if (launch.equals("appcds")) {
+                Path archive = jar.resolveSibling(jar.getFileName().toString().replaceFirst("\\.jar$", ".jsa"));
+                command.add("-XX:SharedArchiveFile=" + require(archive, "-Pappcds"));
+            }
+            command.add("-jar");
+            command.add(jar.toString());
+        }
+        command.add(evidence.toString());
+        command.add(workDir.resolve("report.csv").toString());
+    }
+
+    @Benchmark
+    public int transformSmallFile() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) throw new IllegalStateException("Exit code " + exitCode + " for " + command);
+        return exitCode;
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static Path findJar(Path target) throws IOException {
+        try (Stream<Path> files = Files.list(target)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("forensic-data-transformer-"))
+                    .filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No packaged jar in " + target + ", run mvn package first"));
+        }
+    }
+
+    private static Path require(Path file, String profile) {
+        if (!Files.exists(file)) throw new IllegalStateException(file + " not found, build it with mvn " + profile + " package");
+        return file;
+    }
+}
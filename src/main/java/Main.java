@@ -1,10 +1,16 @@
 import cli.ForensicDataTransformerCommand;
+import cli.ServeCommand;
 import picocli.CommandLine;
 
+import java.util.Arrays;
+
 public class Main {
 
     public static void main(String[] args) {
-        int exitCode = new CommandLine(new ForensicDataTransformerCommand()).execute(args);
+        // "serve" starts the daemon; the transformation command takes the evidence path as first parameter.
+        int exitCode = args.length > 0 && args[0].equals("serve")
+                ? new CommandLine(new ServeCommand()).execute(Arrays.copyOfRange(args, 1, args.length))
+                : new CommandLine(new ForensicDataTransformerCommand()).execute(args);
         System.exit(exitCode);
     }
-}
\ No newline at end of file
+}
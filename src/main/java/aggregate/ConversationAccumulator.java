@@ -0,0 +1,126 @@
+package aggregate;
+
+import model.ConversationSummary;
+import sort.ExternalSorter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running totals of one conversation: primitive counters, the time range and one tally per sender.
+ * <p>
+ * Messages of a block share their timestamp, so a timestamp is only parsed when it differs from the
+ * previous one. Unreadable timestamps are left out of the time range.
+ */
+final class ConversationAccumulator {
+
+    private static final Comparator<ConversationSummary.Sender> LARGEST_FIRST = Comparator
+            .comparingLong(ConversationSummary.Sender::bytes).reversed()
+            .thenComparing(ConversationSummary.Sender::sender, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * Mutable counterpart of {@link ConversationSummary.Sender}.
+     */
+    private static final class SenderTally {
+        long messages;
+        long bytes;
+    }
+
+    private final String conversationId;
+    private final Map<String, SenderTally> senders = new HashMap<>();
+    private long messages;
+    private long bytes;
+    private long firstTime = Long.MAX_VALUE;
+    private String firstTimestamp;
+    private long lastTime = Long.MIN_VALUE;
+    private String lastTimestamp;
+    private String previousTimestamp;
+
+    ConversationAccumulator(String conversationId) {
+        this.conversationId = conversationId;
+    }
+
+    void add(String timestamp, String sender, String message) {
+        long size = utf8Length(message);
+        messages++;
+        bytes += size;
+
+        var tally = senders.computeIfAbsent(sender, ignored -> new SenderTally());
+        tally.messages++;
+        tally.bytes += size;
+
+        if (timestamp != null && !timestamp.equals(previousTimestamp)) {
+            previousTimestamp = timestamp;
+            observe(ExternalSorter.timeKey(timestamp), timestamp);
+        }
+    }
+
+    /**
+     * Adds the totals of the same conversation found in another part of the evidence.
+     */
+    void merge(ConversationAccumulator other) {
+        messages += other.messages;
+        bytes += other.bytes;
+        other.senders.forEach((sender, theirs) -> {
+            var tally = senders.computeIfAbsent(sender, ignored -> new SenderTally());
+            tally.messages += theirs.messages;
+            tally.bytes += theirs.bytes;
+        });
+        if (other.firstTimestamp != null) observe(other.firstTime, other.firstTimestamp);
+        if (other.lastTimestamp != null) observe(other.lastTime, other.lastTimestamp);
+    }
+
+    ConversationSummary summary() {
+        List<ConversationSummary.Sender> volumes = new ArrayList<>(senders.size());
+        senders.forEach((sender, tally) -> volumes.add(new ConversationSummary.Sender(sender, tally.messages, tally.bytes)));
+        volumes.sort(LARGEST_FIRST);
+
+        return new ConversationSummary(conversationId, messages, senders.size(), firstTimestamp, lastTimestamp, bytes,
+                List.copyOf(volumes));
+    }
+
+    /**
+     * Widens the time range; ties keep the value seen first.
+     */
+    private void observe(long time, String timestamp) {
+        if (time == Long.MIN_VALUE || time == Long.MAX_VALUE) return;
+
+        if (time < firstTime) {
+            firstTime = time;
+            firstTimestamp = timestamp;
+        }
+        if (time > lastTime) {
+            lastTime = time;
+            lastTimestamp = timestamp;
+        }
+    }
+
+    /**
+     * The UTF-8 size of the text, without encoding it.
+     */
+    static long utf8Length(String text) {
+        if (text == null) return 0;
+
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // A lone surrogate is encoded as '?'.
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
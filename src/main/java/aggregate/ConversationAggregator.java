@@ -0,0 +1,80 @@
+package aggregate;
+
+import model.ChatMessage;
+import model.ConversationSummary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collector;
+
+/**
+ * Computes per-conversation summaries from a message stream in a single pass, without keeping the messages.
+ * <p>
+ * Each conversation is reduced to a small accumulator: message and byte counters, its time range and
+ * the volume of each sender. Aggregators filled from different parts of the evidence, e.g. by the
+ * workers of a partitioned parse, are combined with {@link #merge(ConversationAggregator)}; merging
+ * them in file order lists conversations in order of first appearance, as a sequential pass does.
+ * <p>
+ * Instances are not thread-safe: use one per worker and merge them.
+ */
+public class ConversationAggregator {
+
+    private final Map<String, ConversationAccumulator> conversations = new LinkedHashMap<>();
+    private String currentId;
+    private ConversationAccumulator current;
+
+    /**
+     * @return A collector folding messages into an aggregator, whose combiner merges partial aggregators.
+     */
+    public static Collector<ChatMessage, ConversationAggregator, ConversationAggregator> collector() {
+        return Collector.of(ConversationAggregator::new, ConversationAggregator::add, ConversationAggregator::merge,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Counts one message.
+     *
+     * @param message The message.
+     */
+    public void add(ChatMessage message) {
+        // Messages of a conversation come in runs of a whole block.
+        if (current == null || !Objects.equals(currentId, message.conversationId())) {
+            currentId = message.conversationId();
+            current = conversations.computeIfAbsent(currentId, ConversationAccumulator::new);
+        }
+        current.add(message.timestamp(), message.sender(), message.message());
+    }
+
+    /**
+     * Adds the totals of another aggregator, which must cover evidence following this one's.
+     *
+     * @param other The aggregator to absorb. It must not be used afterwards.
+     * @return This aggregator.
+     */
+    public ConversationAggregator merge(ConversationAggregator other) {
+        other.conversations.forEach((conversationId, theirs) -> {
+            var mine = conversations.putIfAbsent(conversationId, theirs);
+            if (mine != null) mine.merge(theirs);
+        });
+        return this;
+    }
+
+    /**
+     * @return The number of conversations seen.
+     */
+    public int size() {
+        return conversations.size();
+    }
+
+    /**
+     * @return The summary of each conversation, in order of first appearance.
+     */
+    public List<ConversationSummary> summaries() {
+        List<ConversationSummary> summaries = new ArrayList<>(conversations.size());
+        for (ConversationAccumulator accumulator : conversations.values()) summaries.add(accumulator.summary());
+        return summaries;
+    }
+}
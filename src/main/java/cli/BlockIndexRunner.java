@@ -0,0 +1,160 @@
+package cli;
+
+import index.BlockIndex;
+import index.BlockIndexer;
+import model.BlockIndexEntry;
+import model.ThroughputReport;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The block index modes of the command: {@code --build-index}, and the selection of the blocks of the
+ * conversations or platform calls requested with {@code --conversation} and {@code --platform}.
+ * <p>
+ * Evidence is often on read-only media, so a filtered export never writes an index next to it on its own:
+ * an index is only used when it already exists or {@code --index} names one, and the export falls back
+ * to scanning the whole file when the index cannot be written.
+ */
+final class BlockIndexRunner {
+
+    /**
+     * The blocks to parse.
+     *
+     * @param blocks The matching blocks, in index order.
+     * @param total  The number of blocks in the evidence file.
+     */
+    record Selection(List<BlockIndexEntry> blocks, int total) {
+
+        /**
+         * @return The bytes of evidence covered by the blocks.
+         */
+        long bytes() {
+            return blocks.stream().mapToLong(BlockIndexEntry::length).sum();
+        }
+    }
+
+    private final Path indexFile;
+    private final List<String> conversations;
+    private final List<String> platforms;
+    private final PrintStream stdout;
+    private final PrintStream stderr;
+
+    /**
+     * @param indexFile     The location given with {@code --index}, or null for {@code <evidence>.fdti}.
+     * @param conversations The requested conversations, or null.
+     * @param platforms     The requested platform calls, or null.
+     * @param stdout        The destination of the run summary.
+     * @param stderr        The destination of errors.
+     */
+    BlockIndexRunner(Path indexFile, List<String> conversations, List<String> platforms, PrintStream stdout, PrintStream stderr) {
+        this.indexFile = indexFile;
+        this.conversations = conversations;
+        this.platforms = platforms;
+        this.stdout = stdout;
+        this.stderr = stderr;
+    }
+
+    /**
+     * Builds the index of a single evidence file.
+     *
+     * @return The exit code of the command.
+     */
+    int build(List<Path> files) {
+        if (files.size() != 1) {
+            stderr.println("Error: --build-index requires a single evidence file.");
+            return 1;
+        }
+
+        Path evidence = files.getFirst();
+        Path target = indexPathFor(evidence);
+        stdout.println("=== Deloitte Forensic | Data Transformation Tool ===");
+        stdout.println("Indexing evidence: " + evidence.getFileName());
+
+        long start = System.nanoTime();
+        try {
+            int blocks = new BlockIndexer().build(evidence, target);
+            var throughput = ThroughputReport.since(1, Files.size(evidence), start);
+
+            stdout.println("Indexed " + blocks + " blocks in " + throughput.elapsedMillis() + "ms.");
+            stdout.println("Throughput: " + throughput);
+            stdout.println("Block index generated at: " + target.toAbsolutePath());
+            return 0;
+        } catch (IOException e) {
+            stderr.println("CRITICAL FAILURE: Unable to index evidence file.");
+            stderr.println("Reason: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Selects the requested blocks through the index of the evidence file. An out-of-date index is
+     * rebuilt; a missing one is built only at the location given with {@code --index}.
+     *
+     * @param evidence The evidence file.
+     * @return The blocks to parse, or null if the whole file must be scanned instead.
+     * @throws IOException If an existing index cannot be read.
+     */
+    Selection select(Path evidence) throws IOException {
+        Path path = indexPathFor(evidence);
+        if (!Files.exists(path) && indexFile == null) {
+            stdout.println("No block index found, scanning the evidence (see --build-index): " + path);
+            return null;
+        }
+
+        try (BlockIndex index = open(evidence, path)) {
+            if (index == null) return null;
+
+            var selection = new Selection(selectBlocks(index), index.size());
+            stdout.println("Matching blocks: " + selection.blocks().size() + " of " + selection.total());
+            return selection;
+        }
+    }
+
+    /**
+     * Opens the index, building it first if it is missing or out of date; null if it cannot be written.
+     */
+    private BlockIndex open(Path evidence, Path path) throws IOException {
+        if (Files.exists(path)) {
+            try {
+                return BlockIndex.open(path, evidence);
+            } catch (BlockIndex.StaleIndexException e) {
+                stdout.println("Block index is out of date, rebuilding: " + path);
+            }
+        } else {
+            stdout.println("Block index not found, building: " + path);
+        }
+
+        try {
+            new BlockIndexer().build(evidence, path);
+        } catch (IOException e) {
+            stdout.println("Block index cannot be written (" + e.getMessage() + "), scanning the evidence instead.");
+            return null;
+        }
+        return BlockIndex.open(path, evidence);
+    }
+
+    /**
+     * Union of the blocks of every requested conversation, restricted to the requested platforms;
+     * or union of the blocks of every requested platform when no conversation is given.
+     */
+    private List<BlockIndexEntry> selectBlocks(BlockIndex index) throws IOException {
+        Set<BlockIndexEntry> blocks = new LinkedHashSet<>();
+        if (conversations != null) {
+            for (String conversation : conversations) blocks.addAll(index.findByConversation(conversation));
+            if (platforms != null) blocks.removeIf(block -> !platforms.contains(block.platformId()));
+        } else {
+            for (String platform : platforms) blocks.addAll(index.findByPlatform(platform));
+        }
+        return List.copyOf(blocks);
+    }
+
+    private Path indexPathFor(Path evidence) {
+        return indexFile != null ? indexFile : BlockIndex.defaultPathFor(evidence);
+    }
+}
@@ -1,19 +1,75 @@
 package cli;
 
-import exporter.CsvChatExporter;
+import aggregate.ConversationAggregator;
+import exporter.AppendableExporter;
+import exporter.BatchExporter;
 import exporter.DataExporter;
-import exporter.JsonChatExporter;
+import exporter.FanOutExporter;
+import index.BlockExtractor;
+import loader.BlockPartitioner;
+import loader.CompressedLoader;
 import loader.CsvLoader;
 import loader.FileLoader;
+import loader.FileRangeLoader;
+import loader.InputResolver;
+import loader.MappedLineLoader;
+import loader.PartitionLoader;
+import metrics.InstrumentedExporter;
+import metrics.InstrumentedLoader;
+import metrics.InstrumentedParser;
+import metrics.InstrumentedPartitionLoader;
+import metrics.ProgressReporter;
+import metrics.TransformationMetrics;
 import model.ChatMessage;
+import model.Checkpoint;
+import model.ConversationSummary;
+import model.MessageBatch;
+import model.ThroughputReport;
 import parser.ChatParser;
 import parser.DataParser;
+import parser.FormatDetector;
+import parser.FormatProfile;
+import parser.LineClassifier;
+import parser.MessageFilter;
+import parser.ParallelChatParser;
+import parser.RecordReassembler;
+import parser.RegexLineClassifier;
+import parser.TimestampFormat;
+import parser.TimestampNormalizer;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
+import pipeline.CheckpointedProcessor;
+import pipeline.MultiFileProcessor;
+import pipeline.StagedPipeline;
+import sort.ExternalSorter;
+import shard.ShardingExporter;
+import sort.SortingExporter;
+import util.Compression;
+import util.StringDictionary;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Command(
         name = "forensic-data-transformer",
@@ -23,55 +79,669 @@ import java.util.concurrent.Callable;
 )
 public class ForensicDataTransformerCommand implements Callable<Integer> {
 
-    @Parameters(index = "0", description = "The raw forensic collection file (Source).")
-    private Path inputFile;
+    @Parameters(index = "0", description = "The raw forensic collection file, a directory, or a glob pattern such as 'cases/**/*.csv' (Source).")
+    private String input;
 
-    @Parameters(index = "1", description = "The destination path for the structured report.")
+    @Parameters(index = "1", arity = "0..1", description = "The destination path for the structured report (a directory with --per-file). Not needed with --build-index.")
     private Path outputFile;
 
-    @Option(names = {"-f", "--format"}, description = "Target format: ${COMPLETION-CANDIDATES} (Default: CSV).")
-    private OutputFormat format = OutputFormat.CSV;
+    @Option(names = {"-f", "--format"}, split = ",", defaultValue = "CSV",
+            description = "Target formats: ${COMPLETION-CANDIDATES} (Default: CSV). Several comma-separated formats are written "
+                    + "concurrently from a single parse, next to the report path with each format's extension.")
+    private List<OutputFormat> formats;
 
-    private enum OutputFormat {
-        CSV, JSON
+    @Option(names = "--timestamps", description = "Block timestamps in the report: ${COMPLETION-CANDIDATES} (Default: RAW). Unreadable dates are kept raw.")
+    private TimestampFormat timestampFormat = TimestampFormat.RAW;
+
+    @Option(names = "--timezone", paramLabel = "<zone>", description = "Time zone of the evidence dates, used by --timestamps ISO and EPOCH (Default: UTC).")
+    private ZoneId timezone = ZoneOffset.UTC;
+
+    @Option(names = {"-t", "--threads"}, description = "Parser workers; above 1 the file is split at block boundaries and parsed in parallel (Default: 1).")
+    private int threads = 1;
+
+    @Option(names = "--mmap", description = "Memory-map the input file and parse zero-copy line views instead of decoded Strings.")
+    private boolean memoryMapped;
+
+    @Option(names = "--message-batches",
+            description = "Parse into reusable columnar message batches written directly by the CSV exporter, instead of one object per "
+                    + "message (single evidence file, CSV report, sequential parsing, no sorting, sharding or statistics).")
+    private boolean messageBatches;
+
+    @Option(names = "--profile", paramLabel = "<name>",
+            description = "Layout of the evidence: a format profile name, or 'auto' to detect it from the first KB of the first file (Default: ${DEFAULT-VALUE}).")
+    private String profileName = "auto";
+
+    @Option(names = "--profiles", paramLabel = "<file>",
+            description = "JSON array of additional format profiles (name, blockPrefix, conversationKey, platformKey, dateKey, separator, sender EMAIL or ANY).")
+    private Path profilesFile;
+
+    @Option(names = "--regex-matching", description = "Recognize lines with the reference ChatPatterns regexes instead of the fast classifier.")
+    private boolean regexMatching;
+
+    @Option(names = "--multiline", negatable = true, defaultValue = "true", fallbackValue = "true",
+            description = "Rejoin messages whose quoted text spans several lines (Default: enabled; --no-multiline parses physical lines only).")
+    private boolean multiline;
+
+    @Option(names = {"-j", "--jobs"}, description = "Maximum number of files processed concurrently for directory or glob inputs (Default: number of CPUs).")
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = "--per-file", description = "Write one report per source file into the output directory instead of a single merged report.")
+    private boolean perFile;
+
+    @Option(names = "--dictionary-size", description = "Entries of the dictionary canonicalizing senders and block metadata; 0 disables it (Default: ${DEFAULT-VALUE}).")
+    private int dictionarySize = StringDictionary.DEFAULT_CAPACITY;
+
+    @Option(names = "--checkpoint", description = "Record progress in '<report>.checkpoint' so that an interrupted run can be resumed (single evidence file, CSV or JSON, sequential parsing).")
+    private boolean checkpoint;
+
+    @Option(names = "--resume", description = "Resume an interrupted --checkpoint run from its last exported block, appending to the existing report.")
+    private boolean resume;
+
+    @Option(names = "--checkpoint-interval", description = "Megabytes of evidence exported between two checkpoints (Default: ${DEFAULT-VALUE}).")
+    private int checkpointIntervalMegabytes = (int) (CheckpointedProcessor.DEFAULT_CHECKPOINT_INTERVAL / (1024 * 1024));
+
+    @Option(names = "--sort", description = "Order the report by conversation and time, within a memory budget (see --sort-memory).")
+    private boolean sort;
+
+    @Option(names = "--dedup", description = "Remove messages exported twice (same block metadata, position, sender and text). Implies --sort.")
+    private boolean deduplicate;
+
+    @Option(names = "--sort-memory", paramLabel = "<MB>", description = "Megabytes of messages buffered before a sorted run is spilled to disk (Default: 256).")
+    private int sortMemoryMegabytes = (int) (ExternalSorter.DEFAULT_MEMORY_BUDGET / (1024 * 1024));
+
+    @Option(names = "--sort-dir", paramLabel = "<dir>", description = "Directory of the temporary sorted runs (Default: the system temporary directory).")
+    private Path sortDirectory;
+
+    @Option(names = "--shard-rows", paramLabel = "<n>", description = "Split the report into numbered shards of <n> messages, listed in '<report>.manifest.json'.")
+    private Long shardRows;
+
+    @Option(names = "--shard-mb", paramLabel = "<MB>", description = "Split the report into numbered shards of about <MB> megabytes, estimated from the message fields.")
+    private Long shardMegabytes;
+
+    @Option(names = "--shard-conversations", paramLabel = "<n>",
+            description = "Split the report into <n> shards by conversation hash, so that a conversation never spans two shards. "
+                    + "Every shard is written by its own thread for the whole run, so <n> is at most " + ShardingExporter.MAX_CONVERSATION_SHARDS + ".")
+    private Integer shardConversations;
+
+    @Option(names = "--shard-writers", paramLabel = "<n>", description = "Shards written concurrently with --shard-rows and --shard-mb; ignored by --shard-conversations (Default: number of CPUs).")
+    private int shardWriters = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = "--summary",
+            description = "Write one row per conversation instead of the messages: message count, participants, first and last "
+                    + "timestamp and bytes per sender, aggregated in a single pass (CSV or JSON).")
+    private boolean summary;
+
+    @Option(names = "--pipeline", description = "Read, parse and serialize on separate threads connected by bounded queues, and print per-stage metrics.")
+    private boolean pipelined;
+
+    @Option(names = "--stats", arity = "0..1", fallbackValue = "-", paramLabel = "<file>",
+            description = "Collect per-rule line counts and loader/parser/exporter timings, written as JSON to <file> or to standard error, apart from the run summary.")
+    private String statsOutput;
+
+    @Option(names = "--progress", description = "Print live progress on standard error.")
+    private boolean progress;
+
+    @Option(names = "--build-index", description = "Record the offset, length, conversation, platform and date of every block in a block index, then exit.")
+    private boolean buildIndex;
+
+    @Option(names = "--index", paramLabel = "<file>", description = "Location of the block index (Default: <evidence>.fdti).")
+    private Path indexFile;
+
+    @Option(names = {"-c", "--conversation"}, paramLabel = "<id>",
+            description = "Only export this conversation. A single evidence file is read through its block index if one exists or --index is given. Repeatable.")
+    private List<String> conversations;
+
+    @Option(names = "--platform", paramLabel = "<id>",
+            description = "Only export this platform call. A single evidence file is read through its block index if one exists or --index is given. Repeatable.")
+    private List<String> platforms;
+
+    @Option(names = "--sender", paramLabel = "<address>", description = "Only export messages from this sender. Repeatable.")
+    private List<String> senders;
+
+    @Option(names = "--from", paramLabel = "<date>", description = "Only export blocks dated on or after this ISO date or date-time.")
+    private String from;
+
+    @Option(names = "--to", paramLabel = "<date>", description = "Only export blocks dated on or before this ISO date (whole day) or date-time.")
+    private String to;
+
+    private FormatProfile profile = FormatProfile.DEFAULT;
+    private Supplier<LineClassifier> classifiers;
+    private MessageFilter filter = MessageFilter.NONE;
+    private TimestampNormalizer timestamps = TimestampNormalizer.RAW;
+    private StringDictionary dictionary;
+    private RecordReassembler reassembler;
+    private ExternalSorter sorter;
+    private boolean sharded;
+    private StagedPipeline pipeline;
+    private TransformationMetrics metrics;
+    private ProgressReporter progressReporter;
+
+    private final PrintStream stdout;
+    private final PrintStream stderr;
+    private final Function<OutputFormat, DataExporter<ChatMessage>> exporters;
+
+    public ForensicDataTransformerCommand() {
+        this(System.out, System.err, OutputFormat::createExporter);
+    }
+
+    /**
+     * @param stdout    The destination of the run summary.
+     * @param stderr    The destination of errors and progress.
+     * @param exporters Supplies the exporter of each format, e.g. instances shared by the jobs of a daemon.
+     */
+    public ForensicDataTransformerCommand(PrintStream stdout, PrintStream stderr,
+                                          Function<OutputFormat, DataExporter<ChatMessage>> exporters) {
+        this.stdout = stdout;
+        this.stderr = stderr;
+        this.exporters = exporters;
     }
 
     @Override
     public Integer call() {
-        if (!inputFile.toFile().exists()) {
-            System.err.println("Error: Evidence file not found at -> " + inputFile);
+        InputResolver.Resolution inputs;
+        try {
+            inputs = new InputResolver().resolve(input);
+        } catch (IOException e) {
+            stderr.println("Error: Unable to list evidence files at -> " + input + " (" + e.getMessage() + ")");
+            return 1;
+        }
+
+        List<Path> files = inputs.files();
+        if (files.isEmpty()) {
+            stderr.println("Error: Evidence file not found at -> " + input);
+            return 1;
+        }
+
+        boolean compressedInput;
+        try {
+            compressedInput = files.size() == 1 && Compression.detect(files.getFirst()) != Compression.NONE;
+        } catch (IOException e) {
+            stderr.println("Error: Unable to read evidence file -> " + files.getFirst() + " (" + e.getMessage() + ")");
+            return 1;
+        }
+        try {
+            profile = resolveProfile(files.getFirst(), compressedInput);
+        } catch (IOException | UncheckedIOException e) {
+            stderr.println("Error: " + e.getMessage());
+            return 1;
+        }
+        boolean defaultProfile = profile.equals(FormatProfile.DEFAULT);
+        if (!defaultProfile && (regexMatching || buildIndex)) {
+            stderr.println("Error: --regex-matching and --build-index only support the " + FormatProfile.DEFAULT.name() + " format profile.");
+            return 1;
+        }
+        if (buildIndex && compressedInput) {
+            stderr.println("Error: --build-index requires an uncompressed evidence file.");
+            return 1;
+        }
+        if (buildIndex) return indexes().build(files);
+
+        if (outputFile == null) {
+            stderr.println("Error: Missing the destination path of the report.");
+            return 1;
+        }
+
+        formats = List.copyOf(new LinkedHashSet<>(formats));
+        Set<String> extensions = new HashSet<>();
+        for (OutputFormat format : formats) {
+            if (!extensions.add(format.extension())) {
+                stderr.println("Error: Several formats would write the same ." + format.extension() + " report: " + formats);
+                return 1;
+            }
+        }
+
+        if (formats.contains(OutputFormat.COLUMNAR) && Compression.byExtension(outputFile) != Compression.NONE) {
+            stderr.println("Error: COLUMNAR reports are already compressed by column; use a report path without .gz or .zip.");
+            return 1;
+        }
+
+        int shardOptions = (shardRows != null ? 1 : 0) + (shardMegabytes != null ? 1 : 0) + (shardConversations != null ? 1 : 0);
+        if (shardOptions > 1) {
+            stderr.println("Error: --shard-rows, --shard-mb and --shard-conversations are mutually exclusive.");
+            return 1;
+        }
+        if (shardConversations != null && (shardConversations <= 0 || shardConversations > ShardingExporter.MAX_CONVERSATION_SHARDS)) {
+            // Every conversation shard keeps a writer thread and an open file for the whole run.
+            stderr.println("Error: --shard-conversations must be between 1 and " + ShardingExporter.MAX_CONVERSATION_SHARDS
+                    + ", each shard being written by its own thread.");
             return 1;
         }
+        sharded = shardOptions == 1;
 
-        System.out.println("=== Deloitte Forensic | Data Transformation Tool ===");
-        System.out.println("Processing evidence: " + inputFile.getFileName());
-        System.out.println("Target format: " + format);
+        DataExporter<ChatMessage> exporter = createExporter();
+        boolean checkpointed = checkpoint || resume;
+        if (checkpointed && (files.size() > 1 || perFile || !(exporter instanceof AppendableExporter))) {
+            stderr.println("Error: --checkpoint and --resume require a single evidence file and a single CSV or JSON report.");
+            return 1;
+        }
+        if (checkpointed && (sort || deduplicate)) {
+            stderr.println("Error: --sort and --dedup cannot be combined with --checkpoint or --resume.");
+            return 1;
+        }
+        if (checkpointed && (threads > 1 || pipelined)) {
+            // Ranges are exported one after the other so that each checkpoint covers a synced prefix of the report.
+            stderr.println("Error: --checkpoint and --resume parse sequentially and cannot be combined with --threads or --pipeline.");
+            return 1;
+        }
+        if (checkpointed && (compressedInput || Compression.byExtension(outputFile) != Compression.NONE)) {
+            stderr.println("Error: --checkpoint and --resume require uncompressed evidence and report files.");
+            return 1;
+        }
 
-        long start = System.currentTimeMillis();
+        try {
+            filter = new MessageFilter(conversations, platforms, senders,
+                    from == null ? null : MessageFilter.lowerBound(from),
+                    to == null ? null : MessageFilter.upperBound(to));
+        } catch (DateTimeParseException e) {
+            stderr.println("Error: Invalid date for --from or --to (expected 2019-10-10 or 2019-10-10T16:10:12): " + e.getParsedString());
+            return 1;
+        }
+        boolean indexed = (conversations != null || platforms != null) && files.size() == 1 && !perFile && !checkpointed
+                && !compressedInput && defaultProfile;
+        if (messageBatches && (!(exporter instanceof BatchExporter) || files.size() > 1 || perFile || threads > 1 || pipelined
+                || checkpointed || indexed || sort || deduplicate || statsOutput != null || progress)) {
+            stderr.println("Error: --message-batches requires a single evidence file, a CSV report and sequential parsing, "
+                    + "without --conversation, --platform, --sort, --checkpoint, sharding, --stats or --progress.");
+            return 1;
+        }
+        if (summary && (perFile || checkpointed || sort || deduplicate || sharded || messageBatches)) {
+            stderr.println("Error: --summary cannot be combined with --per-file, --checkpoint, --sort, --dedup, sharding or --message-batches.");
+            return 1;
+        }
+        if (summary && !formats.stream().allMatch(OutputFormat::supportsSummaries)) {
+            stderr.println("Error: --summary writes CSV or JSON reports only: " + formats);
+            return 1;
+        }
 
-        FileLoader<String> loader = new CsvLoader();
-        DataParser parser = new ChatParser();
+        stdout.println("=== Deloitte Forensic | Data Transformation Tool ===");
+        stdout.println(files.size() == 1
+                ? "Processing evidence: " + files.getFirst().getFileName()
+                : "Processing evidence: " + files.size() + " files (" + (perFile ? "one report per file" : "merged report") + ")");
+        stdout.println("Target format: " + formats.stream().map(Enum::name).collect(Collectors.joining(", ")));
+        if (!defaultProfile || profilesFile != null) stdout.println("Format profile: " + profile.name());
+        if (compressedInput) stdout.println("Compressed evidence: streamed and parsed sequentially");
+        else if (threads > 1) stdout.println("Parser workers: " + threads);
 
-        DataExporter<ChatMessage> exporter = switch (format) {
-            case CSV -> new CsvChatExporter();
-            case JSON -> new JsonChatExporter();
-        };
+        long start = System.nanoTime();
+        dictionary = dictionarySize > 0 ? new StringDictionary(dictionarySize) : null;
+        classifiers = regexMatching ? RegexLineClassifier::new : profile.classifiers();
+        reassembler = multiline
+                ? new RecordReassembler(classifiers, RecordReassembler.DEFAULT_MAX_LINES, RecordReassembler.DEFAULT_MAX_CHARS)
+                : null;
+        timestamps = new TimestampNormalizer(timestampFormat, timezone);
+        if (sort || deduplicate) {
+            // Per-file reports are sorted concurrently and share the budget.
+            long budget = Math.max(1, sortMemoryMegabytes * 1024L * 1024L / (perFile ? jobs : 1));
+            Path directory = sortDirectory != null ? sortDirectory : Path.of(System.getProperty("java.io.tmpdir"));
+            sorter = new ExternalSorter(budget, directory, deduplicate);
+        }
+        // Under --pipeline the loader runs on its own thread, outside the time of the parser.
+        metrics = statsOutput != null || progress ? new TransformationMetrics(!pipelined) : null;
+        if (progress) progressReporter = new ProgressReporter(metrics, stderr, Duration.ofSeconds(1));
+
+        try {
+            if (summary) {
+                return exportSummary(files, inputs.totalSize(), compressedInput, start);
+            }
+            if (messageBatches) {
+                return exportBatches(files.getFirst(), (BatchExporter) exporter, compressedInput, start);
+            }
+            if (compressedInput) {
+                try (var messages = parse(instrument(new CompressedLoader()), files.getFirst())) {
+                    decorate(exporter).export(messages, outputFile);
+                }
+
+                report(ThroughputReport.since(1, inputs.totalSize(), start));
+                printReports();
+                return 0;
+            }
+            if (checkpointed) {
+                return exportCheckpointed(files.getFirst(), (AppendableExporter<ChatMessage>) exporter, start);
+            }
+            if (indexed) {
+                var selection = indexes().select(files.getFirst());
+                if (selection != null) return exportIndexed(files.getFirst(), selection, exporter, start);
+            }
 
-        try (var lines = loader.load(inputFile)) {
+            if (perFile) {
+                Map<Path, Exception> failures = processor().exportEach(files, file -> reportFor(inputs.root(), file), decorate(exporter));
+                failures.forEach((file, e) -> stderr.println("FAILURE: " + file + " -> " + e.getMessage()));
 
-            exporter.export(parser.parse(lines), outputFile);
+                report(ThroughputReport.since(files.size(), inputs.totalSize(), start));
+                stdout.println("Reports generated in: " + outputFile.toAbsolutePath());
+                return failures.isEmpty() ? 0 : 2;
+            }
 
-            long duration = System.currentTimeMillis() - start;
-            System.out.println("Transformation complete in " + duration + "ms.");
-            System.out.println("Report generated at: " + outputFile.toAbsolutePath());
+            try (var messages = parse(files)) {
+                decorate(exporter).export(messages, outputFile);
+            }
 
+            report(ThroughputReport.since(files.size(), inputs.totalSize(), start));
+            printReports();
             return 0;
 
         } catch (Exception e) {
-            System.err.println("CRITICAL FAILURE: Unable to process evidence file.");
-            System.err.println("Reason: " + e.getMessage());
-            e.printStackTrace();
+            if (progressReporter != null) progressReporter.close();
+            stderr.println("CRITICAL FAILURE: Unable to process evidence file.");
+            stderr.println("Reason: " + e.getMessage());
+            e.printStackTrace(stderr);
             return 2;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Exports the requested conversations or platform calls, parsing only their blocks.
+     * The parser still applies the whole filter, so the report matches a full filtered run.
+     */
+    private int exportIndexed(Path evidence, BlockIndexRunner.Selection selection, DataExporter<ChatMessage> exporter,
+                              long start) throws IOException {
+        try (var messages = new BlockExtractor(parser(), loader()).extract(evidence, selection.blocks())) {
+            decorate(exporter).export(messages, outputFile);
+        }
+
+        report(ThroughputReport.since(1, selection.bytes(), start));
+        printReports();
+        return 0;
+    }
+
+    private BlockIndexRunner indexes() {
+        return new BlockIndexRunner(indexFile, conversations, platforms, stdout, stderr);
+    }
+
+    /**
+     * Parses a single file into columnar batches consumed directly by the exporter.
+     */
+    private int exportBatches(Path inputFile, BatchExporter exporter, boolean compressedInput, long start) throws IOException {
+        FileLoader<? extends CharSequence> loader = compressedInput ? new CompressedLoader()
+                : memoryMapped ? new MappedLineLoader() : new CsvLoader();
+
+        var lines = loader.load(inputFile);
+        try (var batches = chatParser().parseBatches(lines, MessageBatch.DEFAULT_CAPACITY)) {
+            exporter.exportBatches(batches, outputFile);
+        }
+
+        report(ThroughputReport.since(1, Files.size(inputFile), start));
+        printReports();
+        return 0;
+    }
+
+    /**
+     * Writes one summary per conversation instead of the messages. With several files or {@code --threads},
+     * every worker aggregates the partitions it parses and the partial aggregates are merged in file order.
+     */
+    private int exportSummary(List<Path> files, long totalSize, boolean compressedInput, long start) throws IOException {
+        var collector = ConversationAggregator.collector();
+        ConversationAggregator aggregator;
+        if (files.size() > 1) {
+            aggregator = processor().collectMerged(files, collector);
+        } else if (threads > 1 && !compressedInput) {
+            var partitioner = new BlockPartitioner(BlockPartitioner.DEFAULT_PARTITION_SIZE, profile.blockPrefix());
+            aggregator = new ParallelChatParser(parser(), loader(), threads, partitioner).collect(files.getFirst(), collector);
+        } else {
+            FileLoader<? extends CharSequence> loader = compressedInput ? instrument(new CompressedLoader())
+                    : memoryMapped ? instrument(new MappedLineLoader()) : instrument(new CsvLoader());
+            try (var messages = parse(loader, files.getFirst())) {
+                aggregator = messages.collect(collector);
+            }
+        }
+
+        List<ConversationSummary> summaries = aggregator.summaries();
+        for (OutputFormat format : formats) {
+            Path report = formats.size() == 1 ? outputFile : withExtension(outputFile, format);
+            format.createSummaryExporter().export(summaries.stream(), report);
+        }
+
+        stdout.println("Conversations summarized: " + summaries.size());
+        report(ThroughputReport.since(files.size(), totalSize, start));
+        printReports();
+        return 0;
+    }
+
+    /**
+     * Exports a single file range by range with a checkpoint after each one, or resumes such a run.
+     */
+    private int exportCheckpointed(Path inputFile, AppendableExporter<ChatMessage> exporter, long start) throws IOException {
+        if (resume) {
+            Checkpoint saved = CheckpointedProcessor.readCheckpoint(outputFile);
+            if (saved == null) {
+                stderr.println("Error: No checkpoint found at -> " + CheckpointedProcessor.checkpointFor(outputFile));
+                return 1;
+            }
+            stdout.println("Resuming at byte " + saved.inputOffset() + " of " + saved.inputSize()
+                    + " (" + saved.records() + " messages already exported)");
+        }
+
+        long interval = checkpointIntervalMegabytes * 1024L * 1024L;
+        long processed = new CheckpointedProcessor(parser(), loader(), new BlockPartitioner(interval, profile.blockPrefix()))
+                .export(inputFile, outputFile, exporter, resume);
+
+        report(ThroughputReport.since(1, processed, start));
+        stdout.println("Report generated at: " + outputFile.toAbsolutePath());
+        return 0;
+    }
+
+    /**
+     * Opens the parsed message stream. A single file is parsed sequentially, block-partitioned or
+     * pipelined depending on {@code --threads} and {@code --pipeline}; several files are merged on the multi-file pool.
+     */
+    private Stream<ChatMessage> parse(List<Path> files) throws IOException {
+        if (files.size() > 1) return processor().parseMerged(files);
+
+        Path inputFile = files.getFirst();
+        if (threads > 1) {
+            var partitioner = new BlockPartitioner(BlockPartitioner.DEFAULT_PARTITION_SIZE, profile.blockPrefix());
+            return new ParallelChatParser(parser(), loader(), threads, partitioner).parse(inputFile);
+        }
+
+        FileLoader<? extends CharSequence> loader = memoryMapped ? instrument(new MappedLineLoader()) : instrument(new CsvLoader());
+        return parse(loader, inputFile);
+    }
+
+    /**
+     * Parses a single file read as a whole by {@code loader}, pipelined with {@code --pipeline}.
+     */
+    private Stream<ChatMessage> parse(FileLoader<? extends CharSequence> loader, Path inputFile) throws IOException {
+        if (pipelined) {
+            pipeline = new StagedPipeline(loader, parser());
+            return pipeline.parse(inputFile);
+        }
+
+        var lines = loader.load(inputFile);
+        return parser().parse(lines).onClose(lines::close);
+    }
+
+    private MultiFileProcessor processor() {
+        var partitioner = new BlockPartitioner(BlockPartitioner.DEFAULT_PARTITION_SIZE, profile.blockPrefix());
+        return new MultiFileProcessor(parser(), loader(), jobs, partitioner);
+    }
+
+    private DataParser parser() {
+        if (metrics == null) return chatParser();
+
+        return new InstrumentedParser(new ChatParser(metrics.countingClassifiers(classifiers), dictionary, filter, timestamps, reassembler),
+                metrics);
+    }
+
+    private ChatParser chatParser() {
+        return new ChatParser(classifiers, dictionary, filter, timestamps, reassembler);
+    }
+
+    /**
+     * The profile named by {@code --profile}, or the best match for the first KB of the evidence
+     * when several profiles are available and none is named.
+     */
+    private FormatProfile resolveProfile(Path evidence, boolean compressed) throws IOException {
+        List<FormatProfile> profiles = new ArrayList<>(List.of(FormatProfile.DEFAULT));
+        if (profilesFile != null) {
+            for (FormatProfile loaded : FormatProfile.load(profilesFile)) {
+                if (loaded.name().equals(FormatProfile.DEFAULT.name())) {
+                    throw new IOException("Format profile " + loaded.name() + " is built in: " + profilesFile);
+                }
+                profiles.add(loaded);
+            }
+        }
+
+        if (!profileName.equals("auto")) {
+            return profiles.stream()
+                    .filter(candidate -> candidate.name().equals(profileName))
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("Unknown format profile '" + profileName + "' (available: "
+                            + profiles.stream().map(FormatProfile::name).collect(Collectors.joining(", ")) + ")"));
+        }
+        if (profiles.size() == 1) return FormatProfile.DEFAULT;
+
+        FileLoader<String> sampler = compressed ? new CompressedLoader() : new CsvLoader();
+        try (var lines = sampler.load(evidence)) {
+            return new FormatDetector(profiles).detect(lines);
+        }
+    }
+
+    /**
+     * Decoded or memory-mapped lines depending on {@code --mmap}.
+     */
+    private PartitionLoader<? extends CharSequence> loader() {
+        return memoryMapped ? instrument(new MappedLineLoader()) : instrument(new FileRangeLoader());
+    }
+
+    /**
+     * Wraps a component for {@code --stats} and {@code --progress}; returned as is otherwise.
+     */
+    private <T extends CharSequence> FileLoader<T> instrument(FileLoader<T> loader) {
+        return metrics == null ? loader : new InstrumentedLoader<>(loader, metrics);
+    }
+
+    private <T extends CharSequence> PartitionLoader<T> instrument(PartitionLoader<T> loader) {
+        return metrics == null ? loader : new InstrumentedPartitionLoader<>(loader, metrics);
+    }
+
+    private DataExporter<ChatMessage> instrument(DataExporter<ChatMessage> exporter) {
+        return metrics == null ? exporter : new InstrumentedExporter<>(exporter, metrics);
+    }
+
+    /**
+     * The exporter as used by a run: instrumented, and fed through the external sorter with {@code --sort} or {@code --dedup}.
+     */
+    private DataExporter<ChatMessage> decorate(DataExporter<ChatMessage> exporter) {
+        DataExporter<ChatMessage> instrumented = instrument(exporter);
+        return sorter == null ? instrumented : new SortingExporter(instrumented, sorter);
+    }
+
+    /**
+     * Mirrors the input tree under the output directory, replacing the extension with the format's.
+     */
+    private Path reportFor(Path root, Path file) {
+        String relative = root.relativize(file).toString();
+        // case.csv.gz is reported as case.<format>, like case.csv.
+        if (Compression.byExtension(file) != Compression.NONE) relative = relative.substring(0, relative.lastIndexOf('.'));
+        int dot = relative.lastIndexOf('.');
+        int separator = Math.max(relative.lastIndexOf('/'), relative.lastIndexOf('\\'));
+        String base = dot > separator + 1 ? relative.substring(0, dot) : relative;
+
+        return outputFile.resolve(base + "." + formats.getFirst().extension());
+    }
+
+    /**
+     * The exporter of the requested format, or a fan-out writing every requested format from the same stream.
+     */
+    private DataExporter<ChatMessage> createExporter() {
+        if (formats.size() == 1) return shard(exporters.apply(formats.getFirst()));
+
+        List<FanOutExporter.Target<ChatMessage>> targets = new ArrayList<>();
+        for (OutputFormat format : formats) {
+            targets.add(new FanOutExporter.Target<>(format.name(), shard(exporters.apply(format)), report -> withExtension(report, format)));
+        }
+        return new FanOutExporter<>(targets);
+    }
+
+    /**
+     * Wraps the exporter of one format for {@code --shard-rows}, {@code --shard-mb} or {@code --shard-conversations}.
+     */
+    private DataExporter<ChatMessage> shard(DataExporter<ChatMessage> exporter) {
+        if (shardRows != null) return new ShardingExporter(exporter, ShardingExporter.Mode.ROWS, shardRows, shardWriters);
+        if (shardMegabytes != null) {
+            return new ShardingExporter(exporter, ShardingExporter.Mode.BYTES, shardMegabytes * 1024L * 1024L, shardWriters);
+        }
+        if (shardConversations != null) {
+            return new ShardingExporter(exporter, ShardingExporter.Mode.CONVERSATION, shardConversations, shardWriters);
+        }
+        return exporter;
+    }
+
+    /**
+     * Replaces the extension of a report with the format's, keeping a compression extension:
+     * with {@code -f CSV,JSON}, report.csv.gz is written as report.csv.gz and report.json.gz.
+     */
+    private static Path withExtension(Path report, OutputFormat format) {
+        String name = report.getFileName().toString();
+        String suffix = "";
+        if (Compression.byExtension(report) != Compression.NONE) {
+            suffix = name.substring(name.lastIndexOf('.'));
+            name = name.substring(0, name.length() - suffix.length());
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+
+        return report.resolveSibling(base + "." + format.extension() + suffix);
+    }
+
+    private void printReports() {
+        List<Path> reports = formats.size() == 1
+                ? List.of(outputFile)
+                : formats.stream().map(format -> withExtension(outputFile, format)).toList();
+        for (Path report : reports) {
+            if (sharded) {
+                stdout.println("Shards listed in: " + ShardingExporter.manifestPath(report).toAbsolutePath());
+            } else {
+                stdout.println("Report generated at: " + report.toAbsolutePath());
+            }
+        }
+    }
+
+    private void report(ThroughputReport throughput) {
+        if (progressReporter != null) progressReporter.close();
+
+        stdout.println("Transformation complete in " + throughput.elapsedMillis() + "ms.");
+        stdout.println("Throughput: " + throughput);
+
+        if (dictionary != null) {
+            var stats = dictionary.stats();
+            stdout.printf(Locale.ROOT, "String dictionary: %d hits, %d misses (%.1f%% hit rate), ~%.1f MB of duplicates avoided%n",
+                    stats.hits(), stats.misses(), stats.hitRate() * 100, stats.estimatedBytes() / (1024d * 1024d));
+        }
+        if (reassembler != null) {
+            var stats = reassembler.stats();
+            if (stats.repaired() > 0 || stats.abandoned() > 0) {
+                stdout.println("Multi-line messages reassembled: " + stats.repaired() + " (" + stats.abandoned() + " left as single lines)");
+            }
+        }
+        if (sorter != null) {
+            var stats = sorter.stats();
+            stdout.println("Sorted " + stats.messages() + " messages (" + stats.spilledRuns() + " runs spilled to disk, "
+                    + stats.duplicates() + " duplicates removed)");
+        }
+        if (pipeline != null) {
+            stdout.println("Pipeline stages:");
+            pipeline.metrics().forEach(stage -> stdout.println("  " + stage));
+        }
+        if (statsOutput != null) writeStats();
+    }
+
+    private void writeStats() {
+        if (statsOutput.equals("-")) {
+            // Standard output carries the run summary, so the JSON goes to standard error to stay parseable.
+            try {
+                metrics.writeJson(stderr);
+            } catch (IOException e) {
+                stderr.println("Error: Unable to write statistics (" + e.getMessage() + ")");
+            }
+            return;
+        }
+
+        try (OutputStream out = Files.newOutputStream(Path.of(statsOutput))) {
+            metrics.writeJson(out);
+            stdout.println("Statistics written to: " + Path.of(statsOutput).toAbsolutePath());
+        } catch (IOException e) {
+            stderr.println("Error: Unable to write statistics to " + statsOutput + " (" + e.getMessage() + ")");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package cli;
+
+import exporter.ColumnarChatExporter;
+import exporter.CsvSummaryExporter;
+import exporter.DataExporter;
+import exporter.FastCsvChatExporter;
+import exporter.JsonChatExporter;
+import exporter.JsonSummaryExporter;
+import exporter.StreamingJsonChatExporter;
+import exporter.StreamingJsonChatExporter.Layout;
+import model.ChatMessage;
+import model.ConversationSummary;
+
+/**
+ * Report formats selectable from the command line.
+ */
+public enum OutputFormat {
+    CSV("csv"),
+    JSON("json"),
+    JSON_COMPACT("json"),
+    NDJSON("ndjson"),
+    COLUMNAR("fdtc");
+
+    private final String extension;
+
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return The file extension used when report names are derived from input names.
+     */
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * @return A new exporter writing this format. Exporters keep their per-report state in the writers
+     *         they open, so an instance can serve concurrent exports.
+     */
+    public DataExporter<ChatMessage> createExporter() {
+        return switch (this) {
+            case CSV -> new FastCsvChatExporter();
+            case JSON -> new JsonChatExporter();
+            case JSON_COMPACT -> new StreamingJsonChatExporter(Layout.COMPACT_ARRAY);
+            case NDJSON -> new StreamingJsonChatExporter(Layout.NDJSON);
+            case COLUMNAR -> new ColumnarChatExporter();
+        };
+    }
+
+    /**
+     * @return Whether {@link #createSummaryExporter()} supports this format.
+     */
+    public boolean supportsSummaries() {
+        return this == CSV || this == JSON;
+    }
+
+    /**
+     * @return A new exporter writing conversation summaries in this format.
+     * @throws UnsupportedOperationException If the format has no summary layout.
+     */
+    public DataExporter<ConversationSummary> createSummaryExporter() {
+        return switch (this) {
+            case CSV -> new CsvSummaryExporter();
+            case JSON -> new JsonSummaryExporter();
+            default -> throw new UnsupportedOperationException(name() + " has no summary layout");
+        };
+    }
+}
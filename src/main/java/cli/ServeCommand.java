@@ -0,0 +1,94 @@
+package cli;
+
+import exporter.DataExporter;
+import model.ChatMessage;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import server.JobServer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "forensic-data-transformer serve",
+        mixinStandardHelpOptions = true,
+        version = "1.0.0",
+        description = "Keeps the JVM resident and runs transformation jobs received on a local socket: one argument per line, "
+                + "ended by an empty line; the job output follows, then 'EXIT <code>'."
+)
+public class ServeCommand implements Callable<Integer> {
+
+    @Option(names = "--socket", description = "Path of the Unix domain socket (Default: ${DEFAULT-VALUE}).")
+    private Path socket = Path.of("forensic-data-transformer.sock");
+
+    @Option(names = "--jobs", description = "Maximum number of jobs run concurrently (Default: number of CPUs).")
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = "--queue", description = "Jobs waiting for a free worker before new ones are refused (Default: ${DEFAULT-VALUE}).")
+    private int queueCapacity = JobServer.DEFAULT_QUEUE_CAPACITY;
+
+    @Option(names = "--request-timeout", paramLabel = "<seconds>",
+            description = "Seconds a client has to send its arguments before it is disconnected (Default: ${DEFAULT-VALUE}).")
+    private long requestTimeoutSeconds = JobServer.DEFAULT_REQUEST_TIMEOUT.toSeconds();
+
+    @Override
+    public Integer call() {
+        if (jobs <= 0 || queueCapacity <= 0 || requestTimeoutSeconds <= 0) {
+            System.err.println("Error: --jobs, --queue and --request-timeout must be positive.");
+            return 1;
+        }
+
+        // Exporters keep their per-report state in their writers, so one instance per format serves every job.
+        Map<OutputFormat, DataExporter<ChatMessage>> exporters = new EnumMap<>(OutputFormat.class);
+        for (OutputFormat format : OutputFormat.values()) exporters.put(format, format.createExporter());
+
+        var server = new JobServer(socket, (args, out) -> run(args, out, exporters), jobs, queueCapacity,
+                Duration.ofSeconds(requestTimeoutSeconds));
+        try {
+            server.start();
+        } catch (IOException e) {
+            System.err.println("Error: Unable to listen on " + socket.toAbsolutePath() + " (" + e.getMessage() + ")");
+            return 1;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> stop(server)));
+
+        System.out.println("=== Deloitte Forensic | Data Transformation Tool ===");
+        System.out.println("Listening on: " + socket.toAbsolutePath() + " (" + jobs + " concurrent jobs)");
+        try {
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("CRITICAL FAILURE: The job socket failed.");
+            System.err.println("Reason: " + e.getMessage());
+            return 2;
+        }
+        return 0;
+    }
+
+    /**
+     * Runs one job as the command line would, printing to the client instead of the console.
+     */
+    static int run(String[] args, PrintStream out, Map<OutputFormat, DataExporter<ChatMessage>> exporters) {
+        var commandLine = new CommandLine(new ForensicDataTransformerCommand(out, out, exporters::get));
+        var writer = new PrintWriter(out, true);
+        commandLine.setOut(writer);
+        commandLine.setErr(writer);
+        return commandLine.execute(args);
+    }
+
+    private static void stop(JobServer server) {
+        try {
+            server.close();
+        } catch (IOException e) {
+            System.err.println("Error: Unable to remove the socket file (" + e.getMessage() + ")");
+        }
+        var stats = server.stats();
+        System.out.println("Daemon stopped after " + stats.completed() + " jobs (" + stats.refused() + " refused)");
+    }
+}
@@ -0,0 +1,49 @@
+package exporter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * An exporter whose reports can be written in several sessions.
+ * <p>
+ * A report synced with {@link ReportWriter#sync()} and truncated back to the returned size
+ * can be reopened with {@link #resume(Path, long, long)}; the completed report is then
+ * byte-identical to one written in a single session.
+ */
+public interface AppendableExporter<T> extends DataExporter<T> {
+
+    /**
+     * Creates or overwrites a report.
+     *
+     * @param outputPath The path of the report.
+     * @return The open report, which must be closed to complete it.
+     * @throws IOException If the file cannot be created.
+     */
+    ReportWriter<T> open(Path outputPath) throws IOException;
+
+    /**
+     * Reopens a report left incomplete by a previous session.
+     *
+     * @param outputPath The path of the report.
+     * @param size       The size returned by the last successful {@link ReportWriter#sync()}.
+     *                   Anything written after it is discarded.
+     * @param records    The number of records the report held at that point.
+     * @return The open report, positioned after its last synced record.
+     * @throws IOException If the report is missing or shorter than {@code size}.
+     */
+    ReportWriter<T> resume(Path outputPath, long size, long records) throws IOException;
+
+    @Override
+    default void export(Stream<T> input, Path outputPath) throws IOException {
+        if (input == null || outputPath == null) return;
+
+        try (var writer = open(outputPath)) {
+            Iterator<T> iterator = input.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+    }
+}
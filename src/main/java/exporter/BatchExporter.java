@@ -0,0 +1,25 @@
+package exporter;
+
+import model.ChatMessage;
+import model.MessageBatch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * An exporter that can also consume columnar {@link MessageBatch}es, without a ChatMessage per row.
+ */
+public interface BatchExporter extends DataExporter<ChatMessage> {
+
+    /**
+     * Exports batches to the specified destination file. The output is the same as exporting their rows as ChatMessages.
+     * <p>
+     * A batch may be refilled once the next one is requested, so it must be fully consumed before that.
+     *
+     * @param batches    The lazy stream of batches, typically from {@link parser.ChatParser#parseBatches(Stream, int)}.
+     * @param outputPath The path where the report file will be created or overwritten.
+     * @throws IOException If an I/O error occurs while opening or writing to the file.
+     */
+    void exportBatches(Stream<MessageBatch> batches, Path outputPath) throws IOException;
+}
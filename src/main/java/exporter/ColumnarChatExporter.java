@@ -0,0 +1,227 @@
+package exporter;
+
+import model.ChatMessage;
+import util.ColumnarFormat;
+import util.ColumnarFormat.Column;
+import util.Compression;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Exporter implementation that writes ChatMessage objects to a columnar binary format.
+ * <p>
+ * Rows are buffered into row groups; within a group each column is stored contiguously,
+ * dictionary-encoded when its values repeat (block metadata, senders) and deflate-compressed.
+ * See {@link ColumnarFormat} for the layout and {@link loader.ColumnarChatLoader} for the reader.
+ * <p>
+ * The columns are already deflated and the reader seeks to row groups from the footer, so reports
+ * named {@code .gz} or {@code .zip} are rejected rather than wrapped in a stream compressor.
+ */
+public class ColumnarChatExporter implements DataExporter<ChatMessage> {
+
+    public static final int DEFAULT_ROW_GROUP_SIZE = 64 * 1024;
+
+    private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+    private final int rowGroupSize;
+    private final int compressionLevel;
+
+    public ColumnarChatExporter() {
+        this(DEFAULT_ROW_GROUP_SIZE, Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param rowGroupSize     The number of rows buffered before a row group is written.
+     * @param compressionLevel The deflate level, from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}.
+     */
+    public ColumnarChatExporter(int rowGroupSize, int compressionLevel) {
+        if (rowGroupSize <= 0) throw new IllegalArgumentException("Row group size must be positive: " + rowGroupSize);
+        this.rowGroupSize = rowGroupSize;
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public void export(Stream<ChatMessage> messages, Path outputPath) throws IOException {
+        if (messages == null || outputPath == null) return;
+        if (Compression.byExtension(outputPath) != Compression.NONE) {
+            throw new IOException("Columnar reports are compressed by column and cannot be written as " + outputPath.getFileName());
+        }
+
+        var deflater = new Deflater(compressionLevel);
+
+        try (var counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(outputPath), OUTPUT_BUFFER_SIZE));
+             var out = new DataOutputStream(counter)) {
+
+            out.write(ColumnarFormat.MAGIC);
+            out.writeByte(ColumnarFormat.VERSION);
+
+            List<long[]> groups = new ArrayList<>();
+            var group = new RowGroup(rowGroupSize);
+            long totalRows = 0;
+
+            Iterator<ChatMessage> iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                group.add(iterator.next());
+                if (group.size == rowGroupSize) {
+                    groups.add(new long[]{counter.count, group.size});
+                    totalRows += group.size;
+                    group.writeTo(out, deflater);
+                    group = new RowGroup(rowGroupSize);
+                }
+            }
+            if (group.size > 0) {
+                groups.add(new long[]{counter.count, group.size});
+                totalRows += group.size;
+                group.writeTo(out, deflater);
+            }
+
+            long footerStart = counter.count;
+            out.writeInt(groups.size());
+            for (long[] entry : groups) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+            }
+            out.writeLong(totalRows);
+            out.writeInt((int) (counter.count - footerStart));
+            out.write(ColumnarFormat.MAGIC);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Column buffers of the row group being filled.
+     */
+    private static final class RowGroup {
+        private final ColumnBuffer[] columns = new ColumnBuffer[Column.values().length];
+        private int size;
+
+        RowGroup(int capacity) {
+            for (Column column : Column.values()) {
+                columns[column.ordinal()] = new ColumnBuffer(column.dictionaryEncoded(), Math.min(capacity, 1024));
+            }
+        }
+
+        void add(ChatMessage message) {
+            for (Column column : Column.values()) {
+                columns[column.ordinal()].add(column.valueOf(message));
+            }
+            size++;
+        }
+
+        void writeTo(DataOutputStream out, Deflater deflater) throws IOException {
+            out.writeInt(size);
+
+            var payload = new ByteArrayOutputStream();
+            var compressed = new byte[64 * 1024];
+
+            for (ColumnBuffer column : columns) {
+                payload.reset();
+                column.encode(new DataOutputStream(payload));
+                byte[] raw = payload.toByteArray();
+
+                deflater.reset();
+                deflater.setInput(raw);
+                deflater.finish();
+
+                var chunk = new ByteArrayOutputStream(raw.length / 2 + 16);
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(compressed);
+                    chunk.write(compressed, 0, length);
+                }
+
+                out.writeByte(column.dictionary != null ? ColumnarFormat.DICTIONARY : ColumnarFormat.PLAIN);
+                out.writeInt(raw.length);
+                out.writeInt(chunk.size());
+                chunk.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Values of one column: distinct values plus per-row indices when dictionary-encoded,
+     * or the raw values otherwise.
+     */
+    private static final class ColumnBuffer {
+        private final Map<String, Integer> dictionary;
+        private final List<String> values;
+        private int[] indices;
+        private int rows;
+
+        ColumnBuffer(boolean dictionaryEncoded, int initialCapacity) {
+            this.dictionary = dictionaryEncoded ? new HashMap<>() : null;
+            this.values = new ArrayList<>(dictionaryEncoded ? 16 : initialCapacity);
+            this.indices = dictionaryEncoded ? new int[initialCapacity] : null;
+        }
+
+        void add(String value) {
+            if (dictionary == null) {
+                values.add(value);
+                return;
+            }
+
+            int row = rows++;
+            if (row == indices.length) indices = Arrays.copyOf(indices, indices.length * 2);
+
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                index = values.size();
+                dictionary.put(value, index);
+                values.add(value);
+            }
+            indices[row] = index;
+        }
+
+        void encode(DataOutputStream out) throws IOException {
+            if (dictionary != null) {
+                ColumnarFormat.writeVarInt(out, values.size());
+            }
+            for (String value : values) {
+                ColumnarFormat.writeValue(out, value);
+            }
+            if (dictionary != null) {
+                for (int row = 0; row < rows; row++) {
+                    ColumnarFormat.writeVarInt(out, indices[row]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tracks the file offset so that the footer can index row groups.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
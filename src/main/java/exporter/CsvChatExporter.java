@@ -2,17 +2,19 @@ package exporter;
 
 import model.ChatMessage;
 
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.SerializationFeature;
 import tools.jackson.dataformat.csv.CsvMapper;
 import tools.jackson.dataformat.csv.CsvSchema;
 
+import java.io.IOException;
 import java.nio.file.Path;
-import java.util.stream.Stream;
 
 /**
  * Exporter implementation that writes ChatMessage objects to CSV format.
  * Uses the ChatMessage record structure to generate headers automatically.
  */
-public class CsvChatExporter implements DataExporter<ChatMessage> {
+public class CsvChatExporter implements AppendableExporter<ChatMessage> {
     private final CsvMapper csvMapper;
     private final CsvSchema schema;
 
@@ -22,13 +24,40 @@ public class CsvChatExporter implements DataExporter<ChatMessage> {
     }
 
     @Override
-    public void export(Stream<ChatMessage> messages, Path outputPath) {
-        if(messages == null || outputPath == null) return;
+    public ReportWriter<ChatMessage> open(Path outputPath) throws IOException {
+        return new CsvReportWriter(outputPath, -1, 0, schema);
+    }
+
+    @Override
+    public ReportWriter<ChatMessage> resume(Path outputPath, long size, long records) throws IOException {
+        // Jackson writes the header with the first row: it is part of the kept prefix unless that is empty.
+        return new CsvReportWriter(outputPath, size, records, size == 0 ? schema : schema.withoutHeader());
+    }
+
+    private final class CsvReportWriter extends FileReportWriter<ChatMessage> {
+        private final SequenceWriter sequenceWriter;
 
-        var outputFile = outputPath.toFile();
+        CsvReportWriter(Path outputPath, long size, long records, CsvSchema schema) throws IOException {
+            super(outputPath, size, records);
+            this.sequenceWriter = csvMapper.writer(schema)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .writeValues(out);
+        }
+
+        @Override
+        public void write(ChatMessage message) {
+            sequenceWriter.write(message);
+            records++;
+        }
+
+        @Override
+        protected void flush() {
+            sequenceWriter.flush();
+        }
 
-        try(var sequenceWriter = csvMapper.writer(schema).writeValues(outputFile)) {
-            messages.forEach(sequenceWriter::write);
+        @Override
+        public void close() {
+            sequenceWriter.close();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package exporter;
+
+import model.ConversationSummary;
+import util.Compression;
+
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.dataformat.csv.CsvMapper;
+import tools.jackson.dataformat.csv.CsvSchema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exporter writing conversation summaries to CSV, one row per conversation.
+ * The volume of each sender is flattened into a single {@code bytesPerSender} column,
+ * e.g. {@code alice@corp.com=1200;bob@corp.com=310}.
+ */
+public class CsvSummaryExporter implements DataExporter<ConversationSummary> {
+
+    /**
+     * The flat shape of a summary row.
+     */
+    public record Row(String conversationId, long messages, int participants, String firstTimestamp,
+                      String lastTimestamp, long bytes, String bytesPerSender) {}
+
+    private final CsvMapper csvMapper;
+    private final CsvSchema schema;
+
+    public CsvSummaryExporter() {
+        csvMapper = new CsvMapper();
+        schema    = csvMapper.schemaFor(Row.class).withHeader();
+    }
+
+    @Override
+    public void export(Stream<ConversationSummary> input, Path outputPath) throws IOException {
+        if (input == null || outputPath == null) return;
+
+        var compression = Compression.byExtension(outputPath);
+        try (OutputStream out = FileReportWriter.compressed(Files.newOutputStream(outputPath), outputPath, compression);
+             SequenceWriter writer = csvMapper.writer(schema).writeValues(out)) {
+            Iterator<ConversationSummary> iterator = input.iterator();
+            while (iterator.hasNext()) {
+                writer.write(toRow(iterator.next()));
+            }
+        }
+    }
+
+    private static Row toRow(ConversationSummary summary) {
+        String bytesPerSender = summary.senders().stream()
+                .map(sender -> sender.sender() + "=" + sender.bytes())
+                .collect(Collectors.joining(";"));
+
+        return new Row(summary.conversationId(), summary.messages(), summary.participants(), summary.firstTimestamp(),
+                summary.lastTimestamp(), summary.bytes(), bytesPerSender);
+    }
+}
@@ -0,0 +1,146 @@
+package exporter;
+
+import util.BatchPipeline;
+import util.SpscRingBuffer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Exporter broadcasting one stream to several exporters, each running on its own thread.
+ * <p>
+ * The calling thread pulls the input (typically parsing it) and publishes batches to one bounded
+ * {@link SpscRingBuffer} per target; batches are shared, not copied. A slow exporter throttles the
+ * input once its queue is full, so the run takes about as long as the slowest exporter alone.
+ * If one exporter fails, the others are cancelled and the first failure is rethrown.
+ */
+public class FanOutExporter<T> implements DataExporter<T> {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    /**
+     * One destination of the broadcast.
+     *
+     * @param name     A label for the exporter thread and error messages, e.g. the format.
+     * @param exporter The exporter.
+     * @param pathFor  Derives the report path of this target from the path given to {@link #export(Stream, Path)}.
+     */
+    public record Target<T>(String name, DataExporter<T> exporter, UnaryOperator<Path> pathFor) {}
+
+    private final List<Target<T>> targets;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public FanOutExporter(List<Target<T>> targets) {
+        this(targets, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param targets       The exporters and their report paths.
+     * @param batchSize     The number of records per published batch.
+     * @param queueCapacity The capacity in batches of each exporter queue, rounded up to a power of two.
+     */
+    public FanOutExporter(List<Target<T>> targets, int batchSize, int queueCapacity) {
+        if (targets.isEmpty()) throw new IllegalArgumentException("At least one target is required");
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+
+        this.targets = List.copyOf(targets);
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void export(Stream<T> input, Path outputPath) throws IOException {
+        if (input == null || outputPath == null) return;
+
+        var run = new Run();
+        List<Run.Branch> branches = new ArrayList<>();
+        for (Target<T> target : targets) {
+            branches.add(run.new Branch(target, target.pathFor().apply(outputPath)));
+        }
+        branches.forEach(Run.Branch::start);
+
+        try {
+            List<T> batch = new ArrayList<>(batchSize);
+            Iterator<T> iterator = input.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize) {
+                    run.publish(branches, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) run.publish(branches, batch);
+            run.publish(branches, List.of());
+        } catch (Throwable e) {
+            run.fail(e);
+        }
+
+        for (Run.Branch branch : branches) branch.join();
+        run.rethrow();
+    }
+
+    /**
+     * State of one export: the pipeline shared by the producer and every branch.
+     * An empty batch marks the end of a queue.
+     */
+    private final class Run {
+        private final BatchPipeline<T> pipeline = new BatchPipeline<>();
+
+        void publish(List<Branch> branches, List<T> batch) {
+            for (Branch branch : branches) pipeline.put(branch.queue, batch);
+        }
+
+        void fail(Throwable e) {
+            pipeline.fail(e);
+        }
+
+        void rethrow() throws IOException {
+            pipeline.rethrow();
+        }
+
+        /**
+         * One target, exporting on its own thread the batches read from its queue.
+         */
+        private final class Branch {
+            private final Target<T> target;
+            private final Path outputPath;
+            private final SpscRingBuffer<List<T>> queue = new SpscRingBuffer<>(queueCapacity);
+            private Thread thread;
+
+            Branch(Target<T> target, Path outputPath) {
+                this.target = target;
+                this.outputPath = outputPath;
+            }
+
+            void start() {
+                thread = Thread.ofPlatform().daemon().name("fan-out-" + target.name()).start(this::run);
+            }
+
+            private void run() {
+                var spliterator = pipeline.records(queue);
+                try (var records = StreamSupport.stream(spliterator, false)) {
+                    target.exporter().export(records, outputPath);
+                    if (!spliterator.done()) {
+                        throw new IOException("Exporter " + target.name() + " stopped before the end of the stream");
+                    }
+                } catch (Throwable e) {
+                    pipeline.fail(e);
+                }
+            }
+
+            void join() {
+                // The producer is done: the branch ends on its own, or on the recorded failure.
+                pipeline.join(thread);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package exporter;
+
+import model.ChatMessage;
+import model.MessageBatch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * CSV exporter encoding the six {@link ChatMessage} fields by hand, without Jackson databind.
+ * <p>
+ * Fields are UTF-8 encoded straight into a reusable byte buffer that is written out in large chunks.
+ * The output is byte-identical to {@link CsvChatExporter}, which remains the reference: Jackson's
+ * default quoting is reproduced, i.e. a value is quoted when it is longer than 24 characters or
+ * contains a character below {@code '-'} or a backslash, and embedded quotes are doubled.
+ * <p>
+ * {@link #exportBatches(Stream, Path)} encodes {@link MessageBatch} columns directly: message texts are
+ * read from the batch char array and the metadata of a block is encoded once for all its rows.
+ */
+public class FastCsvChatExporter implements AppendableExporter<ChatMessage>, BatchExporter {
+
+    private static final byte[] HEADER = "id,conversationId,platformId,timestamp,sender,message\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    // Jackson CSV defaults: longer values are always quoted, shorter ones only if a character is below MIN_SAFE_CHAR.
+    private static final int MAX_QUOTE_CHECK_CHARS = 24;
+    private static final char MIN_SAFE_CHAR = '-';
+    private static final char ESCAPE_CHAR = '\\';
+
+    @Override
+    public ReportWriter<ChatMessage> open(Path outputPath) throws IOException {
+        var writer = new FastCsvReportWriter(outputPath, -1, 0);
+        writer.append(HEADER);
+        return writer;
+    }
+
+    @Override
+    public ReportWriter<ChatMessage> resume(Path outputPath, long size, long records) throws IOException {
+        // The header is already part of the kept prefix.
+        return new FastCsvReportWriter(outputPath, size, records);
+    }
+
+    @Override
+    public void exportBatches(Stream<MessageBatch> batches, Path outputPath) throws IOException {
+        if (batches == null || outputPath == null) return;
+
+        try (var writer = (FastCsvReportWriter) open(outputPath)) {
+            Iterator<MessageBatch> iterator = batches.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+    }
+
+    private static final class FastCsvReportWriter extends FileReportWriter<ChatMessage> {
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private long flushes;
+
+        private char[] chars = new char[256];
+
+        // Encoded id, conversation, platform and timestamp of the current batch block, with their separators.
+        private byte[] prefix = new byte[256];
+        private int prefixLength = -1;
+
+        FastCsvReportWriter(Path outputPath, long size, long records) throws IOException {
+            super(outputPath, size, records);
+        }
+
+        @Override
+        public void write(ChatMessage message) throws IOException {
+            writeField(message.id());
+            buffer[position++] = ',';
+            writeField(message.conversationId());
+            buffer[position++] = ',';
+            writeField(message.platformId());
+            buffer[position++] = ',';
+            writeField(message.timestamp());
+            buffer[position++] = ',';
+            writeField(message.sender());
+            buffer[position++] = ',';
+            writeField(message.message());
+            buffer[position++] = '\n';
+            records++;
+        }
+
+        /**
+         * Writes the rows of a batch, encoding the metadata of each block once.
+         */
+        void write(MessageBatch batch) throws IOException {
+            int block = -1;
+            for (int row = 0; row < batch.size(); row++) {
+                if (batch.block(row) != block) {
+                    block = batch.block(row);
+                    writePrefix(batch, row);
+                } else if (prefixLength >= 0) {
+                    append(prefix, prefixLength);
+                } else {
+                    writePrefix(batch, row);
+                }
+                writeField(batch.sender(row));
+                buffer[position++] = ',';
+                writeField(batch.text(), batch.messageOffset(row), batch.messageLength(row));
+                buffer[position++] = '\n';
+                records++;
+            }
+        }
+
+        private void writePrefix(MessageBatch batch, int row) throws IOException {
+            long flushesBefore = flushes;
+            ensure(prefix.length);
+            int mark = position;
+
+            writeField(batch.id(row));
+            buffer[position++] = ',';
+            writeField(batch.conversationId(row));
+            buffer[position++] = ',';
+            writeField(batch.platformId(row));
+            buffer[position++] = ',';
+            writeField(batch.timestamp(row));
+            buffer[position++] = ',';
+
+            // Cached only if it was encoded in one piece and fits.
+            int length = position - mark;
+            if (flushes == flushesBefore && length <= prefix.length) {
+                System.arraycopy(buffer, mark, prefix, 0, length);
+                prefixLength = length;
+            } else {
+                prefixLength = -1;
+            }
+        }
+
+        void append(byte[] bytes) throws IOException {
+            append(bytes, bytes.length);
+        }
+
+        private void append(byte[] bytes, int length) throws IOException {
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, position, length);
+            position += length;
+        }
+
+        /**
+         * Writes a value, leaving room for the separator that follows it. Null is written as an empty value.
+         */
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                ensure(1);
+                return;
+            }
+
+            int length = value.length();
+            if (length > chars.length) chars = new char[Math.max(length, chars.length * 2)];
+            value.getChars(0, length, chars, 0);
+            writeField(chars, 0, length);
+        }
+
+        private void writeField(char[] value, int offset, int length) throws IOException {
+            boolean quoted = needsQuotes(value, offset, length);
+            // Worst case: 3 bytes per char, or 2 for a doubled quote, plus the quotes and separator.
+            long worstCase = 3L * length + 3;
+            if (worstCase <= buffer.length) {
+                ensure((int) worstCase);
+                if (quoted) buffer[position++] = '"';
+                encode(value, offset, offset + length, quoted);
+                if (quoted) buffer[position++] = '"';
+                return;
+            }
+
+            // Values larger than the buffer are encoded in slices, split outside surrogate pairs.
+            if (quoted) {
+                ensure(1);
+                buffer[position++] = '"';
+            }
+            int slice = (buffer.length - 4) / 3;
+            int end = offset + length;
+            for (int start = offset; start < end; ) {
+                int sliceEnd = Math.min(end, start + slice);
+                if (sliceEnd < end && Character.isHighSurrogate(value[sliceEnd - 1])) sliceEnd--;
+                ensure(3 * (sliceEnd - start) + 3);
+                encode(value, start, sliceEnd, quoted);
+                start = sliceEnd;
+            }
+            ensure(2);
+            if (quoted) buffer[position++] = '"';
+        }
+
+        private static boolean needsQuotes(char[] value, int offset, int length) {
+            if (length > MAX_QUOTE_CHECK_CHARS) return true;
+            for (int i = offset; i < offset + length; i++) {
+                char c = value[i];
+                if (c < MIN_SAFE_CHAR || c == ESCAPE_CHAR) return true;
+            }
+            return false;
+        }
+
+        /**
+         * UTF-8 encodes {@code value[start, end)} into the buffer, doubling quotes in quoted values.
+         * The caller guarantees 3 bytes of room per char.
+         */
+        private void encode(char[] value, int start, int end, boolean quoted) throws IOException {
+            byte[] buf = buffer;
+            int pos = position;
+            for (int i = start; i < end; i++) {
+                char c = value[i];
+                if (c < 0x80) {
+                    if (c == '"' && quoted) buf[pos++] = '"';
+                    buf[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xC0 | (c >> 6));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    if (!Character.isHighSurrogate(c) || i + 1 >= end || !Character.isLowSurrogate(value[i + 1])) {
+                        throw new IOException("Broken surrogate pair in a CSV value");
+                    }
+                    int codePoint = Character.toCodePoint(c, value[++i]);
+                    buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                    buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    buf[pos++] = (byte) (0xE0 | (c >> 12));
+                    buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            position = pos;
+        }
+
+        /**
+         * Makes room for {@code bytes} more bytes, plus the separator written after a field.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (position + bytes + 1 > buffer.length) flush();
+        }
+
+        @Override
+        protected void flush() throws IOException {
+            writeChunk(buffer, position);
+            position = 0;
+            flushes++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package exporter;
+
+import util.Compression;
+import util.WriteBehindOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base of the text report writers: owns the file channel and implements the sync and resume plumbing.
+ * <p>
+ * Reports named {@code .gz} or {@code .zip} are compressed on a background thread. Compressed reports
+ * are written in a single session: they cannot be synced or resumed.
+ */
+abstract class FileReportWriter<T> implements ReportWriter<T> {
+
+    protected final FileChannel channel;
+    protected final OutputStream out;
+    protected long records;
+    private final Compression compression;
+
+    /**
+     * @param outputPath The report file.
+     * @param size       The size to truncate an existing report to, or -1 to create a new report.
+     * @param records    The number of records already in the report.
+     */
+    FileReportWriter(Path outputPath, long size, long records) throws IOException {
+        this.compression = Compression.byExtension(outputPath);
+        if (compression != Compression.NONE && size >= 0) {
+            throw new IOException("Compressed report " + outputPath + " cannot be resumed");
+        }
+
+        if (size < 0) {
+            this.channel = FileChannel.open(outputPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } else {
+            this.channel = FileChannel.open(outputPath, StandardOpenOption.WRITE);
+            try {
+                if (channel.size() < size) {
+                    throw new IOException("Report " + outputPath + " is shorter (" + channel.size()
+                            + " B) than its checkpoint (" + size + " B)");
+                }
+                channel.truncate(size);
+                channel.position(size);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        this.out = compressed(Channels.newOutputStream(channel), outputPath, compression);
+        this.records = records;
+    }
+
+    /**
+     * Writes a chunk of encoded records: straight to the channel, or through the compressor.
+     */
+    protected void writeChunk(byte[] bytes, int length) throws IOException {
+        if (compression != Compression.NONE) {
+            out.write(bytes, 0, length);
+            return;
+        }
+        var chunk = ByteBuffer.wrap(bytes, 0, length);
+        while (chunk.hasRemaining()) channel.write(chunk);
+    }
+
+    /**
+     * Pushes the records buffered by the underlying generator to {@link #out}.
+     */
+    protected abstract void flush() throws IOException;
+
+    /**
+     * Wraps the report stream in a compressor running behind the caller, unless {@code compression} is NONE.
+     * The zip entry is named after the report without its extension.
+     */
+    static OutputStream compressed(OutputStream out, Path outputPath, Compression compression) throws IOException {
+        if (compression == Compression.NONE) return out;
+
+        String name = outputPath.getFileName().toString();
+        String entryName = name.substring(0, name.lastIndexOf('.'));
+        try {
+            return new WriteBehindOutputStream(compression.compress(out, entryName), "deflate-" + name);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long sync() throws IOException {
+        if (compression != Compression.NONE) throw new IOException("Compressed reports cannot be checkpointed");
+        flush();
+        channel.force(false);
+        return channel.position();
+    }
+
+    @Override
+    public long records() {
+        return records;
+    }
+}
@@ -2,35 +2,71 @@ package exporter;
 
 import model.ChatMessage;
 
-import tools.jackson.databind.ObjectMapper;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.util.DefaultPrettyPrinter;
+import tools.jackson.core.util.Separators;
+import tools.jackson.databind.ObjectWriter;
 import tools.jackson.databind.SerializationFeature;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
 import java.nio.file.Path;
-import java.util.stream.Stream;
 
 /**
  * Exporter implementation that writes ChatMessage objects as a JSON Array.
  * The output is pretty-printed (indented).
+ * <p>
+ * The array brackets and separators are written by hand around root-level values, so that
+ * a report can be reopened after any synced element without replaying the previous ones.
  */
-public class JsonChatExporter implements DataExporter<ChatMessage>{
-    private final ObjectMapper jsonMapper;
+public class JsonChatExporter implements AppendableExporter<ChatMessage> {
+    private static final String ARRAY_START = "[ ";
+    private static final String ELEMENT_SEPARATOR = ", ";
+
+    private final ObjectWriter jsonWriter;
 
     public JsonChatExporter() {
-        jsonMapper = JsonMapper.builder()
-                .enable(SerializationFeature.INDENT_OUTPUT)
-                .build();
+        jsonWriter = JsonMapper.builder().build()
+                .writerWithDefaultPrettyPrinter()
+                .with(new DefaultPrettyPrinter(Separators.createDefaultInstance().withRootSeparator("")))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public ReportWriter<ChatMessage> open(Path outputPath) throws IOException {
+        return new JsonReportWriter(outputPath, -1, 0);
     }
 
     @Override
-    public void export(Stream<ChatMessage> messages, Path outputPath) {
-        if(messages == null || outputPath == null) return;
+    public ReportWriter<ChatMessage> resume(Path outputPath, long size, long records) throws IOException {
+        return new JsonReportWriter(outputPath, size, records);
+    }
+
+    private final class JsonReportWriter extends FileReportWriter<ChatMessage> {
+        private final JsonGenerator generator;
 
-        var outputFile = outputPath.toFile();
+        JsonReportWriter(Path outputPath, long size, long records) throws IOException {
+            super(outputPath, size, records);
+            this.generator = jsonWriter.createGenerator(out);
+            if (size < 0) generator.writeRaw(ARRAY_START);
+        }
+
+        @Override
+        public void write(ChatMessage message) {
+            if (records > 0) generator.writeRaw(ELEMENT_SEPARATOR);
+            jsonWriter.writeValue(generator, message);
+            records++;
+        }
+
+        @Override
+        protected void flush() {
+            generator.flush();
+        }
 
-        try(var sequenceWriter = jsonMapper.writer().writeValues(outputFile)) {
-            sequenceWriter.init(true); // Wrap in Array
-            messages.forEach(sequenceWriter::write);
+        @Override
+        public void close() {
+            generator.writeRaw(records > 0 ? " ]" : "]");
+            generator.close();
         }
     }
 }
@@ -0,0 +1,42 @@
+package exporter;
+
+import model.ConversationSummary;
+import util.Compression;
+
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporter writing conversation summaries as a pretty-printed JSON array,
+ * with the volume of each sender as a nested array.
+ */
+public class JsonSummaryExporter implements DataExporter<ConversationSummary> {
+
+    private final ObjectWriter jsonWriter;
+
+    public JsonSummaryExporter() {
+        jsonWriter = JsonMapper.builder().build().writerWithDefaultPrettyPrinter();
+    }
+
+    @Override
+    public void export(Stream<ConversationSummary> input, Path outputPath) throws IOException {
+        if (input == null || outputPath == null) return;
+
+        var compression = Compression.byExtension(outputPath);
+        try (OutputStream out = FileReportWriter.compressed(Files.newOutputStream(outputPath), outputPath, compression);
+             SequenceWriter writer = jsonWriter.writeValuesAsArray(out)) {
+            Iterator<ConversationSummary> iterator = input.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package exporter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * An open report receiving records one at a time, as returned by {@link AppendableExporter}.
+ */
+public interface ReportWriter<T> extends Closeable {
+
+    /**
+     * Appends a record to the report.
+     *
+     * @param record The record to write.
+     * @throws IOException If an I/O error occurs while writing.
+     */
+    void write(T record) throws IOException;
+
+    /**
+     * Flushes the buffered records and forces them to the storage device.
+     * The report is left open, without its closing part (e.g. the end of a JSON array).
+     *
+     * @return The size in bytes of the report written so far, to be passed back to
+     *         {@link AppendableExporter#resume(java.nio.file.Path, long, long)}.
+     * @throws IOException If an I/O error occurs while flushing.
+     */
+    long sync() throws IOException;
+
+    /**
+     * @return The number of records in the report, including those written before a resume.
+     */
+    long records();
+
+    /**
+     * Completes the report and releases the file.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,109 @@
+package exporter;
+
+import model.ChatMessage;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Exporter writing ChatMessage objects as compact JSON through Jackson's streaming generator, without databind.
+ * <p>
+ * {@link Layout#NDJSON} writes one object per line, so that a report can be split at any newline and
+ * loaded in parallel. {@link Layout#COMPACT_ARRAY} writes a single JSON array without whitespace.
+ * Like {@link JsonChatExporter}, separators are written by hand so that a report can be resumed.
+ */
+public class StreamingJsonChatExporter implements AppendableExporter<ChatMessage> {
+
+    private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+    // Property names are encoded once, in record component order like the databind output.
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString CONVERSATION_ID = new SerializedString("conversationId");
+    private static final SerializableString PLATFORM_ID = new SerializedString("platformId");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString SENDER = new SerializedString("sender");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+
+    public enum Layout {
+        /** One JSON object per line. */
+        NDJSON,
+        /** A single JSON array without indentation. */
+        COMPACT_ARRAY
+    }
+
+    private final Layout layout;
+    private final JsonFactory jsonFactory;
+
+    /**
+     * @param layout How the objects are laid out in the report.
+     */
+    public StreamingJsonChatExporter(Layout layout) {
+        this.layout = layout;
+        // Root values are separated by hand: no separator must be inserted between them.
+        this.jsonFactory = JsonFactory.builder().rootValueSeparator((String) null).build();
+    }
+
+    @Override
+    public ReportWriter<ChatMessage> open(Path outputPath) throws IOException {
+        return new StreamingJsonReportWriter(outputPath, -1, 0);
+    }
+
+    @Override
+    public ReportWriter<ChatMessage> resume(Path outputPath, long size, long records) throws IOException {
+        return new StreamingJsonReportWriter(outputPath, size, records);
+    }
+
+    private final class StreamingJsonReportWriter extends FileReportWriter<ChatMessage> {
+        private final JsonGenerator generator;
+
+        StreamingJsonReportWriter(Path outputPath, long size, long records) throws IOException {
+            super(outputPath, size, records);
+            this.generator = jsonFactory.createGenerator(ObjectWriteContext.empty(), new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE));
+            if (size < 0 && layout == Layout.COMPACT_ARRAY) generator.writeRaw('[');
+        }
+
+        @Override
+        public void write(ChatMessage message) {
+            if (records > 0 && layout == Layout.COMPACT_ARRAY) generator.writeRaw(',');
+
+            generator.writeStartObject();
+            writeProperty(ID, message.id());
+            writeProperty(CONVERSATION_ID, message.conversationId());
+            writeProperty(PLATFORM_ID, message.platformId());
+            writeProperty(TIMESTAMP, message.timestamp());
+            writeProperty(SENDER, message.sender());
+            writeProperty(MESSAGE, message.message());
+            generator.writeEndObject();
+
+            if (layout == Layout.NDJSON) generator.writeRaw('\n');
+            records++;
+        }
+
+        private void writeProperty(SerializableString name, String value) {
+            generator.writeName(name);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value);
+            }
+        }
+
+        @Override
+        protected void flush() {
+            generator.flush();
+        }
+
+        @Override
+        public void close() {
+            if (layout == Layout.COMPACT_ARRAY) generator.writeRaw(']');
+            generator.close();
+        }
+    }
+}
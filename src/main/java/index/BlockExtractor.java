@@ -0,0 +1,73 @@
+package index;
+
+import loader.PartitionLoader;
+import model.BlockIndexEntry;
+import model.ChatMessage;
+import model.FilePartition;
+import parser.DataParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Parses selected blocks of an evidence file, found through a {@link BlockIndex}, without reading the rest.
+ * <p>
+ * Each block is parsed from its start line, so the parser context is exactly the one a full run would have.
+ * Adjacent blocks are merged into a single range to limit the number of reads.
+ */
+public class BlockExtractor {
+
+    private final DataParser parser;
+    private final PartitionLoader<? extends CharSequence> loader;
+
+    public BlockExtractor(DataParser parser, PartitionLoader<? extends CharSequence> loader) {
+        this.parser = parser;
+        this.loader = loader;
+    }
+
+    /**
+     * @param evidenceFile The evidence file the blocks belong to.
+     * @param blocks       The blocks to parse, in any order; duplicates are ignored.
+     * @return The messages of the blocks, in file order. The stream must be closed to release the file.
+     */
+    public Stream<ChatMessage> extract(Path evidenceFile, List<BlockIndexEntry> blocks) {
+        return ranges(evidenceFile, blocks).stream()
+                .flatMap(range -> {
+                    try {
+                        var lines = loader.load(range);
+                        return parser.parse(lines).onClose(lines::close);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Sorts the blocks by offset and coalesces contiguous ones.
+     */
+    static List<FilePartition> ranges(Path evidenceFile, List<BlockIndexEntry> blocks) {
+        List<BlockIndexEntry> sorted = new ArrayList<>(blocks);
+        sorted.sort(Comparator.comparingLong(BlockIndexEntry::offset));
+
+        List<FilePartition> ranges = new ArrayList<>();
+        long start = -1;
+        long end = -1;
+        for (BlockIndexEntry block : sorted) {
+            if (block.offset() < end) continue;
+            if (block.offset() == end) {
+                end = block.end();
+                continue;
+            }
+            if (start >= 0) ranges.add(new FilePartition(evidenceFile, start, end - start));
+            start = block.offset();
+            end = block.end();
+        }
+        if (start >= 0) ranges.add(new FilePartition(evidenceFile, start, end - start));
+        return ranges;
+    }
+}
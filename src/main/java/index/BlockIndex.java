@@ -0,0 +1,246 @@
+package index;
+
+import model.BlockIndexEntry;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only view of a block index file written by {@link BlockIndexer}.
+ * <pre>
+ * file        := header stringIndex stringData blocks conversations platforms
+ * header      := MAGIC VERSION evidenceSize:long evidenceModified:long blockCount:int stringCount:int
+ * stringIndex := (offset:long){stringCount + 1}   offsets into stringData, strings sorted
+ * stringData  := utf8Bytes*
+ * blocks      := (offset:long length:long conversation:int platform:int timestamp:int){blockCount}
+ * directory   := (start:int){stringCount + 1} (block:int){start[stringCount]}
+ * </pre>
+ * Metadata fields reference the sorted string table (-1 for null). The conversation and platform
+ * directories list, for each string, the blocks using it in file order. A lookup is a binary search
+ * in the string table followed by one positional read per matching block, so the cost depends on
+ * the number of matches rather than on the size of the evidence file. Instances are not thread-safe.
+ */
+public class BlockIndex implements Closeable {
+
+    static final byte[] MAGIC = {'F', 'D', 'T', 'I'};
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = MAGIC.length + 1 + Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    static final int BLOCK_SIZE = 2 * Long.BYTES + 3 * Integer.BYTES;
+    static final String EXTENSION = ".fdti";
+
+    private final FileChannel channel;
+    private final ByteBuffer scratch = ByteBuffer.allocate(BLOCK_SIZE);
+
+    private final long evidenceSize;
+    private final long evidenceModified;
+    private final int blockCount;
+    private final int stringCount;
+
+    private final long stringDataStart;
+    private final long blocksStart;
+    private final long conversationsStart;
+    private final long platformsStart;
+
+    private BlockIndex(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        ByteBuffer header = read(0, HEADER_SIZE);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a block index: bad magic");
+        if (header.get() != VERSION) throw new IOException("Unsupported block index version");
+
+        this.evidenceSize = header.getLong();
+        this.evidenceModified = header.getLong();
+        this.blockCount = header.getInt();
+        this.stringCount = header.getInt();
+
+        this.stringDataStart = HEADER_SIZE + (long) (stringCount + 1) * Long.BYTES;
+        this.blocksStart = stringDataStart + readLong(HEADER_SIZE + (long) stringCount * Long.BYTES);
+        this.conversationsStart = blocksStart + (long) blockCount * BLOCK_SIZE;
+        this.platformsStart = conversationsStart + (long) (stringCount + 1) * Integer.BYTES
+                + (long) readInt(conversationsStart + (long) stringCount * Integer.BYTES) * Integer.BYTES;
+    }
+
+    /**
+     * @param evidenceFile The evidence file.
+     * @return The default location of its index, next to it.
+     */
+    public static Path defaultPathFor(Path evidenceFile) {
+        return evidenceFile.resolveSibling(evidenceFile.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Opens an index and checks that it still describes the evidence file.
+     *
+     * @param indexFile    The index file.
+     * @param evidenceFile The evidence file it was built from.
+     * @return The open index, to be closed by the caller.
+     * @throws IOException If the index is missing, corrupted, or older than the evidence file.
+     */
+    public static BlockIndex open(Path indexFile, Path evidenceFile) throws IOException {
+        var channel = FileChannel.open(indexFile, StandardOpenOption.READ);
+        try {
+            var index = new BlockIndex(channel);
+            if (index.evidenceSize != Files.size(evidenceFile)
+                    || index.evidenceModified != Files.getLastModifiedTime(evidenceFile).toMillis()) {
+                throw new StaleIndexException("Block index " + indexFile + " is out of date for " + evidenceFile);
+            }
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Signals an index built from another version of the evidence file.
+     */
+    public static class StaleIndexException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public StaleIndexException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * @return The number of blocks in the evidence file.
+     */
+    public int size() {
+        return blockCount;
+    }
+
+    /**
+     * @param block The block number, in file order.
+     * @return The block location and metadata.
+     * @throws IOException If the index cannot be read.
+     */
+    public BlockIndexEntry get(int block) throws IOException {
+        if (block < 0 || block >= blockCount) throw new IndexOutOfBoundsException(block);
+
+        ByteBuffer entry = read(blocksStart + (long) block * BLOCK_SIZE, BLOCK_SIZE);
+        long offset = entry.getLong();
+        long length = entry.getLong();
+        int conversation = entry.getInt();
+        int platform = entry.getInt();
+        int timestamp = entry.getInt();
+
+        return new BlockIndexEntry(offset, length, string(conversation), string(platform), string(timestamp));
+    }
+
+    /**
+     * @param conversationId The conversation identifier.
+     * @return The blocks of that conversation, in file order.
+     * @throws IOException If the index cannot be read.
+     */
+    public List<BlockIndexEntry> findByConversation(String conversationId) throws IOException {
+        return lookup(conversationsStart, conversationId);
+    }
+
+    /**
+     * @param platformId The platform call identifier.
+     * @return The blocks of that platform call, in file order.
+     * @throws IOException If the index cannot be read.
+     */
+    public List<BlockIndexEntry> findByPlatform(String platformId) throws IOException {
+        return lookup(platformsStart, platformId);
+    }
+
+    /**
+     * @return All blocks in file order, read lazily.
+     */
+    public Stream<BlockIndexEntry> entries() {
+        return IntStream.range(0, blockCount).mapToObj(block -> {
+            try {
+                return get(block);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private List<BlockIndexEntry> lookup(long directoryStart, String value) throws IOException {
+        int id = find(value);
+        if (id < 0) return List.of();
+
+        ByteBuffer bounds = read(directoryStart + (long) id * Integer.BYTES, 2 * Integer.BYTES);
+        int from = bounds.getInt();
+        int to = bounds.getInt();
+        long postingsStart = directoryStart + (long) (stringCount + 1) * Integer.BYTES;
+
+        List<BlockIndexEntry> blocks = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            blocks.add(get(readInt(postingsStart + (long) i * Integer.BYTES)));
+        }
+        return blocks;
+    }
+
+    /**
+     * Binary search in the sorted string table.
+     */
+    private int find(String value) throws IOException {
+        int low = 0;
+        int high = stringCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = string(middle).compareTo(value);
+            if (comparison < 0) low = middle + 1;
+            else if (comparison > 0) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+
+    private String string(int id) throws IOException {
+        if (id < 0) return null;
+
+        ByteBuffer bounds = read(HEADER_SIZE + (long) id * Long.BYTES, 2 * Long.BYTES);
+        long start = bounds.getLong();
+        long end = bounds.getLong();
+
+        ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(end - start));
+        readFully(bytes, stringDataStart + start);
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    private long readLong(long position) throws IOException {
+        return read(position, Long.BYTES).getLong();
+    }
+
+    private int readInt(long position) throws IOException {
+        return read(position, Integer.BYTES).getInt();
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = length <= scratch.capacity() ? scratch.clear().limit(length) : ByteBuffer.allocate(length);
+        readFully(buffer, position);
+        return buffer.flip();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new EOFException("Truncated block index");
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package index;
+
+import parser.LineClassifier;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link BlockIndex} in one sequential pass over an evidence file.
+ * <p>
+ * Only lines starting with a character that can open a block or metadata line ({@code A}, {@code C},
+ * {@code P}, {@code D}) are decoded and classified, with the same {@link LineClassifier} as the parser;
+ * all other bytes are merely scanned for line terminators. Lines before the first block are not indexed.
+ */
+public class BlockIndexer {
+
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Indexes the evidence file and writes the index atomically.
+     *
+     * @param evidenceFile The evidence file.
+     * @param indexFile    The index file to create or replace.
+     * @return The number of indexed blocks.
+     * @throws IOException If the evidence cannot be read or the index cannot be written.
+     */
+    public int build(Path evidenceFile, Path indexFile) throws IOException {
+        if (Files.isDirectory(evidenceFile)) throw new IOException("Not a regular file: " + evidenceFile);
+
+        long modified = Files.getLastModifiedTime(evidenceFile).toMillis();
+        var blocks = new Blocks();
+
+        try (var channel = FileChannel.open(evidenceFile, StandardOpenOption.READ)) {
+            scan(channel, blocks);
+            blocks.finish(channel.size());
+            write(blocks, channel.size(), modified, indexFile);
+        }
+        return blocks.count;
+    }
+
+    private static void scan(FileChannel channel, Blocks blocks) throws IOException {
+        var buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        var classifier = new LineClassifier();
+        var line = new LineBuffer();
+
+        long position = 0;
+        long lineStart = 0;
+        boolean atLineStart = true;
+        boolean collecting = false;
+        boolean afterCarriageReturn = false;
+
+        while (channel.read(buffer.clear(), position) > 0) {
+            buffer.flip();
+            byte[] bytes = buffer.array();
+            int limit = buffer.limit();
+
+            for (int i = 0; i < limit; i++, position++) {
+                byte b = bytes[i];
+
+                if (b == '\n' || b == '\r') {
+                    boolean crlf = b == '\n' && afterCarriageReturn;
+                    if (!crlf && collecting) blocks.accept(classifier, line.decode(), lineStart);
+
+                    afterCarriageReturn = b == '\r';
+                    lineStart = position + 1;
+                    atLineStart = true;
+                    collecting = false;
+                    continue;
+                }
+                afterCarriageReturn = false;
+
+                if (atLineStart) {
+                    atLineStart = false;
+                    collecting = b == 'A' || b == 'C' || b == 'P' || b == 'D';
+                    line.reset();
+                }
+                if (collecting) line.append(b);
+            }
+        }
+        if (collecting) blocks.accept(classifier, line.decode(), lineStart);
+    }
+
+    /**
+     * Sorts the string table, then writes header, strings, blocks and both directories to a temporary
+     * file moved over the index once complete.
+     */
+    private static void write(Blocks blocks, long evidenceSize, long evidenceModified, Path indexFile) throws IOException {
+        List<String> strings = new ArrayList<>(blocks.ids.keySet());
+        strings.sort(Comparator.naturalOrder());
+
+        int[] remap = new int[strings.size()];
+        for (int sorted = 0; sorted < strings.size(); sorted++) {
+            remap[blocks.ids.get(strings.get(sorted))] = sorted;
+        }
+
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 256 * 1024))) {
+            out.write(BlockIndex.MAGIC);
+            out.writeByte(BlockIndex.VERSION);
+            out.writeLong(evidenceSize);
+            out.writeLong(evidenceModified);
+            out.writeInt(blocks.count);
+            out.writeInt(strings.size());
+
+            byte[][] encoded = new byte[strings.size()][];
+            long offset = 0;
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                out.writeLong(offset);
+                offset += encoded[i].length;
+            }
+            out.writeLong(offset);
+            for (byte[] value : encoded) out.write(value);
+
+            for (int block = 0; block < blocks.count; block++) {
+                out.writeLong(blocks.offsets[block]);
+                out.writeLong(blocks.lengths[block]);
+                out.writeInt(mapped(remap, blocks.conversations[block]));
+                out.writeInt(mapped(remap, blocks.platforms[block]));
+                out.writeInt(mapped(remap, blocks.timestamps[block]));
+            }
+
+            writeDirectory(out, blocks.conversations, blocks.count, remap);
+            writeDirectory(out, blocks.platforms, blocks.count, remap);
+        }
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Counting sort of the blocks by string, keeping file order within each string.
+     */
+    private static void writeDirectory(DataOutputStream out, int[] values, int count, int[] remap) throws IOException {
+        int[] starts = new int[remap.length + 1];
+        for (int block = 0; block < count; block++) {
+            if (values[block] >= 0) starts[remap[values[block]] + 1]++;
+        }
+        for (int i = 0; i < remap.length; i++) starts[i + 1] += starts[i];
+
+        int[] postings = new int[starts[remap.length]];
+        int[] next = Arrays.copyOf(starts, remap.length);
+        for (int block = 0; block < count; block++) {
+            if (values[block] >= 0) postings[next[remap[values[block]]]++] = block;
+        }
+
+        for (int start : starts) out.writeInt(start);
+        for (int block : postings) out.writeInt(block);
+    }
+
+    private static int mapped(int[] remap, int id) {
+        return id < 0 ? -1 : remap[id];
+    }
+
+    /**
+     * Blocks found so far, in primitive arrays, with metadata interned into a provisional string table.
+     */
+    private static final class Blocks {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private long[] offsets = new long[1024];
+        private long[] lengths = new long[1024];
+        private int[] conversations = new int[1024];
+        private int[] platforms = new int[1024];
+        private int[] timestamps = new int[1024];
+        private int count;
+
+        void accept(LineClassifier classifier, String line, long lineStart) {
+            switch (classifier.classify(line)) {
+                case BLOCK_START -> start(lineStart);
+                case CONVERSATION -> set(conversations, classifier.group(line, 1));
+                case PLATFORM -> set(platforms, classifier.group(line, 1));
+                case DATE -> set(timestamps, classifier.group(line, 1));
+                default -> {
+                }
+            }
+        }
+
+        void finish(long evidenceSize) {
+            if (count > 0) lengths[count - 1] = evidenceSize - offsets[count - 1];
+        }
+
+        private void start(long offset) {
+            if (count > 0) lengths[count - 1] = offset - offsets[count - 1];
+            if (count == offsets.length) grow();
+
+            offsets[count] = offset;
+            conversations[count] = -1;
+            platforms[count] = -1;
+            timestamps[count] = -1;
+            count++;
+        }
+
+        private void set(int[] field, String value) {
+            if (count == 0) return;
+            field[count - 1] = ids.computeIfAbsent(value, v -> ids.size());
+        }
+
+        private void grow() {
+            int capacity = offsets.length * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            conversations = Arrays.copyOf(conversations, capacity);
+            platforms = Arrays.copyOf(platforms, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+    }
+
+    /**
+     * Growable byte buffer holding the line being collected.
+     */
+    private static final class LineBuffer {
+        private byte[] bytes = new byte[256];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void append(byte b) {
+            if (length == bytes.length) bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = b;
+        }
+
+        String decode() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package loader;
+
+import model.FilePartition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an evidence file into byte ranges aligned on block boundaries.
+ * <p>
+ * A boundary is the first byte of a line starting with {@code APD} followed by a digit,
+ * i.e. a line accepted by {@link util.ChatPatterns#BLOCK_START}, or with the block prefix of
+ * another {@link parser.FormatProfile}. Since the parser resets its whole context on such a line,
+ * each partition can be parsed independently.
+ */
+public class BlockPartitioner {
+
+    public static final long DEFAULT_PARTITION_SIZE = 4L * 1024 * 1024;
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final byte[] BLOCK_PREFIX = {'A', 'P', 'D'};
+
+    private final long targetSize;
+    private final byte[] blockPrefix;
+
+    public BlockPartitioner() {
+        this(DEFAULT_PARTITION_SIZE);
+    }
+
+    /**
+     * @param targetSize The approximate size in bytes of each partition.
+     */
+    public BlockPartitioner(long targetSize) {
+        this(targetSize, BLOCK_PREFIX);
+    }
+
+    /**
+     * @param targetSize  The approximate size in bytes of each partition.
+     * @param blockPrefix The text preceding the digits of a block id, matched on its UTF-8 bytes.
+     */
+    public BlockPartitioner(long targetSize, String blockPrefix) {
+        this(targetSize, blockPrefix.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private BlockPartitioner(long targetSize, byte[] blockPrefix) {
+        if (targetSize <= 0) throw new IllegalArgumentException("Partition size must be positive: " + targetSize);
+        if (blockPrefix.length == 0) throw new IllegalArgumentException("Block prefix must not be empty");
+        this.targetSize = targetSize;
+        this.blockPrefix = blockPrefix;
+    }
+
+    /**
+     * Computes the partitions of a file in ascending offset order.
+     *
+     * @param filePath The evidence file to split.
+     * @return The list of partitions covering the whole file, empty if the file is empty.
+     * @throws IOException If the file does not exist, is a directory or cannot be read.
+     */
+    public List<FilePartition> partition(Path filePath) throws IOException {
+        return partition(filePath, 0);
+    }
+
+    /**
+     * Computes the partitions of the remainder of a file, e.g. when resuming an interrupted run.
+     *
+     * @param filePath The evidence file to split.
+     * @param from     The offset of the first partition. Must be a block start or the file start.
+     * @return The list of partitions covering the file from {@code from}, empty if nothing is left.
+     * @throws IOException If the file does not exist, is a directory or cannot be read.
+     */
+    public List<FilePartition> partition(Path filePath, long from) throws IOException {
+        if (Files.isDirectory(filePath)) throw new IOException("Not a regular file: " + filePath);
+        if (from < 0) throw new IllegalArgumentException("Offset must not be negative: " + from);
+
+        List<FilePartition> partitions = new ArrayList<>();
+
+        try (var channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = from;
+
+            while (start < size) {
+                long next = start + targetSize < size ? nextBlockStart(channel, start + targetSize, blockPrefix) : -1;
+                long end = next < 0 ? size : next;
+
+                partitions.add(new FilePartition(filePath, start, end - start));
+                start = end;
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Finds the offset of the first block start line at or after the given position.
+     *
+     * @param channel The channel to scan, read with positional reads only.
+     * @param from    The offset where the scan begins.
+     * @return The offset of the block start line, or -1 if no block starts after {@code from}.
+     * @throws IOException If the channel cannot be read.
+     */
+    public static long nextBlockStart(FileChannel channel, long from) throws IOException {
+        return nextBlockStart(channel, from, BLOCK_PREFIX);
+    }
+
+    private static long nextBlockStart(FileChannel channel, long from, byte[] blockPrefix) throws IOException {
+        long position = Math.max(0, from - 1);
+        var buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+        // A position preceded by a line terminator (or the file start) is a line start.
+        boolean lineStart = from == 0;
+        int matched = -1;
+        long candidate = -1;
+
+        if (from > 0) {
+            int read = channel.read(buffer, position);
+            if (read <= 0) return -1;
+            buffer.flip();
+            byte previous = buffer.get();
+            lineStart = previous == '\n' || previous == '\r';
+            position++;
+        }
+
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) return -1;
+                buffer.flip();
+            }
+
+            byte b = buffer.get();
+
+            if (lineStart) {
+                candidate = position;
+                matched = 0;
+                lineStart = false;
+            }
+
+            if (matched >= 0) {
+                if (matched < blockPrefix.length && b == blockPrefix[matched]) {
+                    matched++;
+                } else if (matched == blockPrefix.length && b >= '0' && b <= '9') {
+                    return candidate;
+                } else {
+                    matched = -1;
+                }
+            }
+
+            if (b == '\n' || b == '\r') lineStart = true;
+            position++;
+        }
+    }
+}
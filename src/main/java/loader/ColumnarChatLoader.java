@@ -0,0 +1,184 @@
+package loader;
+
+import model.ChatMessage;
+import util.ColumnarFormat;
+import util.ColumnarFormat.Column;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Loader reading reports written by {@link exporter.ColumnarChatExporter}.
+ * <p>
+ * Row groups are decoded lazily, one at a time. {@link #loadColumn(Path, Column)} only decompresses
+ * the requested column and skips the others, which makes single-column scans much cheaper than
+ * re-parsing a CSV or JSON report.
+ */
+public class ColumnarChatLoader implements FileLoader<ChatMessage> {
+
+    private static final int TRAILER_SIZE = Integer.BYTES + ColumnarFormat.MAGIC.length;
+
+    @Override
+    public Stream<ChatMessage> load(Path filePath) throws IOException {
+        return rowGroups(filePath, EnumSet.allOf(Column.class))
+                .flatMap(columns -> IntStream.range(0, columns[0].length)
+                        .mapToObj(row -> new ChatMessage(
+                                columns[Column.ID.ordinal()][row],
+                                columns[Column.CONVERSATION_ID.ordinal()][row],
+                                columns[Column.PLATFORM_ID.ordinal()][row],
+                                columns[Column.TIMESTAMP.ordinal()][row],
+                                columns[Column.SENDER.ordinal()][row],
+                                columns[Column.MESSAGE.ordinal()][row]
+                        )));
+    }
+
+    /**
+     * Reads the values of a single column, in row order.
+     *
+     * @param filePath The columnar report.
+     * @param column   The column to scan.
+     * @return A lazy Stream of the column values, nulls included.
+     * @throws IOException If the file is not a valid columnar report.
+     */
+    public Stream<String> loadColumn(Path filePath, Column column) throws IOException {
+        return rowGroups(filePath, EnumSet.of(column))
+                .flatMap(columns -> Arrays.stream(columns[column.ordinal()]));
+    }
+
+    /**
+     * @param filePath The columnar report.
+     * @return The total number of rows, read from the footer only.
+     * @throws IOException If the file is not a valid columnar report.
+     */
+    public long count(Path filePath) throws IOException {
+        try (var file = new RandomAccessFile(filePath.toFile(), "r")) {
+            return readFooter(file).totalRows();
+        }
+    }
+
+    private Stream<String[][]> rowGroups(Path filePath, Set<Column> wanted) throws IOException {
+        if (Files.isDirectory(filePath)) throw new IOException("Not a regular file: " + filePath);
+
+        var file = new RandomAccessFile(filePath.toFile(), "r");
+        try {
+            Footer footer = readFooter(file);
+            var inflater = new Inflater();
+
+            return IntStream.range(0, footer.offsets().length)
+                    .mapToObj(group -> {
+                        try {
+                            return readRowGroup(file, footer.offsets()[group], wanted, inflater);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .onClose(() -> {
+                        inflater.end();
+                        try {
+                            file.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private record Footer(long[] offsets, long totalRows) {}
+
+    private static Footer readFooter(RandomAccessFile file) throws IOException {
+        long length = file.length();
+        if (length < ColumnarFormat.MAGIC.length + 1 + TRAILER_SIZE) throw new IOException("Not a columnar report: file too short");
+
+        byte[] magic = new byte[ColumnarFormat.MAGIC.length];
+        file.seek(0);
+        file.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC)) throw new IOException("Not a columnar report: bad magic");
+        if (file.readByte() != ColumnarFormat.VERSION) throw new IOException("Unsupported columnar report version");
+
+        file.seek(length - TRAILER_SIZE);
+        int footerLength = file.readInt();
+        file.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC)) throw new IOException("Not a columnar report: truncated file");
+
+        file.seek(length - TRAILER_SIZE - footerLength);
+        int groups = file.readInt();
+        long[] offsets = new long[groups];
+        for (int i = 0; i < groups; i++) {
+            offsets[i] = file.readLong();
+            file.readInt();
+        }
+        return new Footer(offsets, file.readLong());
+    }
+
+    private static String[][] readRowGroup(RandomAccessFile file, long offset, Set<Column> wanted, Inflater inflater)
+            throws IOException {
+        file.seek(offset);
+        int rows = file.readInt();
+        String[][] columns = new String[Column.values().length][];
+
+        for (Column column : Column.values()) {
+            byte encoding = file.readByte();
+            int rawLength = file.readInt();
+            int compressedLength = file.readInt();
+
+            if (!wanted.contains(column)) {
+                file.seek(file.getFilePointer() + compressedLength);
+                continue;
+            }
+
+            byte[] compressed = new byte[compressedLength];
+            file.readFully(compressed);
+            columns[column.ordinal()] = decode(inflate(inflater, compressed, rawLength), encoding, rows);
+        }
+        return columns;
+    }
+
+    private static byte[] inflate(Inflater inflater, byte[] compressed, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed);
+        byte[] raw = new byte[rawLength];
+        try {
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && inflater.needsInput()) break;
+                read += n;
+            }
+            if (read != rawLength) throw new IOException("Corrupted column chunk: expected " + rawLength + " bytes, got " + read);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted column chunk", e);
+        }
+        return raw;
+    }
+
+    private static String[] decode(byte[] payload, byte encoding, int rows) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(payload));
+        String[] values = new String[rows];
+
+        if (encoding == ColumnarFormat.PLAIN) {
+            for (int row = 0; row < rows; row++) values[row] = ColumnarFormat.readValue(in);
+            return values;
+        }
+        if (encoding != ColumnarFormat.DICTIONARY) throw new IOException("Unknown column encoding: " + encoding);
+
+        String[] dictionary = new String[ColumnarFormat.readVarInt(in)];
+        for (int i = 0; i < dictionary.length; i++) dictionary[i] = ColumnarFormat.readValue(in);
+        for (int row = 0; row < rows; row++) values[row] = dictionary[ColumnarFormat.readVarInt(in)];
+        return values;
+    }
+}
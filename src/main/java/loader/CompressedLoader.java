@@ -0,0 +1,46 @@
+package loader;
+
+import util.Compression;
+import util.ReadAheadInputStream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Loader streaming the lines of gzip files and zip archives without decompressing them to disk.
+ * <p>
+ * Decompression runs on its own thread a few chunks ahead of the parser. The entries of a zip
+ * archive are read in archive order, as if they were concatenated. Plain files are read as is.
+ */
+public class CompressedLoader implements FileLoader<String> {
+
+    @Override
+    public Stream<String> load(Path filePath) throws IOException {
+        if (Files.isDirectory(filePath)) throw new IOException("Not a regular file: " + filePath);
+
+        Compression compression = Compression.detect(filePath);
+        var file = Files.newInputStream(filePath);
+        ReadAheadInputStream decompressed;
+        try {
+            decompressed = new ReadAheadInputStream(compression.decompress(file), "inflate-" + filePath.getFileName());
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+        var reader = new BufferedReader(new InputStreamReader(decompressed, StandardCharsets.UTF_8));
+
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
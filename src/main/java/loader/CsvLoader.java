@@ -9,6 +9,7 @@ public class CsvLoader implements FileLoader<String> {
 
     @Override
     public Stream<String> load(Path filePath) throws IOException {
+        if (Files.isDirectory(filePath)) throw new IOException("Not a regular file: " + filePath);
         return Files.lines(filePath);
     }
 }
@@ -0,0 +1,78 @@
+package loader;
+
+import model.FilePartition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Loader streaming the lines of a single {@link FilePartition}.
+ * Decoding follows {@link Files#lines(java.nio.file.Path)}: UTF-8, failing on malformed input.
+ */
+public class FileRangeLoader implements PartitionLoader<String> {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public Stream<String> load(FilePartition partition) throws IOException {
+        var channel = FileChannel.open(partition.file(), StandardOpenOption.READ);
+        var input = new RangeInputStream(channel, partition.offset(), partition.end());
+        var reader = new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8.newDecoder()), READ_BUFFER_SIZE);
+
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * InputStream over a byte range of a channel, using positional reads.
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private final byte[] single = new byte[1];
+        private long position;
+
+        RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) return -1;
+
+            int toRead = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (read < 0) return -1;
+
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package loader;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Expands a CLI input argument into the list of evidence files to process.
+ * <p>
+ * The argument may be a regular file, a directory (all regular files below it, recursively)
+ * or a glob pattern such as {@code cases/**}{@code /*.csv}. Files are returned in a stable,
+ * lexicographic order so that merged reports are deterministic.
+ */
+public class InputResolver {
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final FileSystem fileSystem;
+
+    public InputResolver() {
+        this(FileSystems.getDefault());
+    }
+
+    public InputResolver(FileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    /**
+     * The resolved inputs and the directory they are relative to.
+     *
+     * @param root  The directory used to derive per-file output names.
+     * @param files The evidence files, sorted.
+     */
+    public record Resolution(Path root, List<Path> files) {
+        /**
+         * @return The total size in bytes of the resolved files.
+         */
+        public long totalSize() throws IOException {
+            long total = 0;
+            for (Path file : files) total += Files.size(file);
+            return total;
+        }
+    }
+
+    /**
+     * @param input A file path, a directory path or a glob pattern.
+     * @return The matching files; empty if nothing matches.
+     * @throws IOException If a directory cannot be traversed.
+     */
+    public Resolution resolve(String input) throws IOException {
+        int glob = firstGlobCharacter(input);
+
+        if (glob < 0) {
+            Path path = fileSystem.getPath(input);
+            if (Files.isDirectory(path)) return new Resolution(path, walk(path, file -> true));
+            if (Files.isRegularFile(path)) return new Resolution(parentOf(path), List.of(path));
+            return new Resolution(parentOf(path), List.of());
+        }
+
+        // The base directory is the longest leading path without glob characters.
+        int separator = Math.max(input.lastIndexOf('/', glob), input.lastIndexOf(fileSystem.getSeparator(), glob));
+        Path base = fileSystem.getPath(separator < 0 ? "." : input.substring(0, separator + 1));
+        if (!Files.isDirectory(base)) return new Resolution(base, List.of());
+
+        PathMatcher matcher = fileSystem.getPathMatcher("glob:" + input.substring(separator + 1));
+        return new Resolution(base, walk(base, file -> matcher.matches(base.relativize(file))));
+    }
+
+    private static List<Path> walk(Path root, Predicate<Path> filter) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(filter)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path parentOf(Path path) {
+        Path parent = path.getParent();
+        return parent == null ? fileSystem.getPath(".") : parent;
+    }
+
+    private static int firstGlobCharacter(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(input.charAt(i)) >= 0) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,48 @@
+package loader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Zero-copy view over a pure ASCII line of a memory-mapped file.
+ * <p>
+ * Characters are read straight from the mapped bytes; a String is only built when
+ * {@link #toString()} is called, typically for the captured fields of a message.
+ */
+public final class MappedLine implements CharSequence {
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int length;
+
+    MappedLine(ByteBuffer buffer, int start, int length) {
+        this.buffer = buffer;
+        this.start = start;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException(index);
+        return (char) buffer.get(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ") for length " + length);
+        }
+        return new MappedLine(buffer, start + from, to - from);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
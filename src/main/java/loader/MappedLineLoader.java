@@ -0,0 +1,151 @@
+package loader;
+
+import model.FilePartition;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Loader that memory-maps the evidence file and hands out line views over the mapped bytes.
+ * <p>
+ * Pure ASCII lines, by far the most common in collection dumps, are exposed as {@link MappedLine}
+ * views without any copy or decoding. Lines containing multi-byte characters are decoded to a
+ * String with the same strict UTF-8 rules as {@link java.nio.file.Files#lines(java.nio.file.Path)}.
+ * Line terminators follow {@link java.io.BufferedReader#readLine()}: LF, CR or CRLF.
+ * <p>
+ * Files larger than a single mapping are traversed through successive windows re-mapped at line starts.
+ */
+public class MappedLineLoader implements PartitionLoader<CharSequence> {
+
+    public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final int windowSize;
+
+    public MappedLineLoader() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize The size in bytes of each mapping. Bounds the longest supported line.
+     */
+    public MappedLineLoader(int windowSize) {
+        if (windowSize <= 0) throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public Stream<CharSequence> load(FilePartition partition) throws IOException {
+        var channel = FileChannel.open(partition.file(), StandardOpenOption.READ);
+        var spliterator = new LineSpliterator(channel, partition.offset(), partition.end(), windowSize);
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static final class LineSpliterator extends Spliterators.AbstractSpliterator<CharSequence> {
+        private final FileChannel channel;
+        private final long end;
+        private final int windowSize;
+
+        private MappedByteBuffer window;
+        private long windowStart;
+        private int position;
+        private boolean skipLineFeed;
+
+        LineSpliterator(FileChannel channel, long start, long end, int windowSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.channel = channel;
+            this.end = end;
+            this.windowSize = windowSize;
+            this.windowStart = start;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CharSequence> action) {
+            try {
+                CharSequence line = nextLine();
+                if (line == null) return false;
+                action.accept(line);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private CharSequence nextLine() throws IOException {
+            while (true) {
+                if (window == null || position >= window.limit()) {
+                    if (windowStart + position >= end) return null;
+                    remap(windowStart + position);
+                }
+
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (window.get(position) == '\n') position++;
+                    continue;
+                }
+
+                int limit = window.limit();
+                int lineStart = position;
+                int ascii = 0;
+
+                for (int i = lineStart; i < limit; i++) {
+                    byte b = window.get(i);
+
+                    if (b == '\n' || b == '\r') {
+                        position = i + 1;
+                        if (b == '\r') {
+                            if (position < limit) {
+                                if (window.get(position) == '\n') position++;
+                            } else {
+                                skipLineFeed = true;
+                            }
+                        }
+                        return line(lineStart, i - lineStart, ascii >= 0);
+                    }
+                    ascii |= b;
+                }
+
+                if (windowStart + limit >= end) {
+                    position = limit;
+                    return line(lineStart, limit - lineStart, ascii >= 0);
+                }
+                if (lineStart == 0) {
+                    throw new IOException("Line at offset " + windowStart + " exceeds the mapping window of " + windowSize + " bytes");
+                }
+                remap(windowStart + lineStart);
+            }
+        }
+
+        private void remap(long offset) throws IOException {
+            long size = Math.min(windowSize, end - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            windowStart = offset;
+            position = 0;
+        }
+
+        private CharSequence line(int start, int length, boolean ascii) throws CharacterCodingException {
+            if (ascii) return new MappedLine(window, start, length);
+
+            CharBuffer decoded = StandardCharsets.UTF_8.newDecoder()
+                    .decode(window.slice(start, length));
+            return decoded.toString();
+        }
+    }
+}
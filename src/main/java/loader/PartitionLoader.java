@@ -0,0 +1,29 @@
+package loader;
+
+import model.FilePartition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * A loader able to read an arbitrary byte range of a file, used by the partitioned parsing engine.
+ */
+public interface PartitionLoader<T> extends FileLoader<T> {
+
+    /**
+     * Reads the content of the given byte range lazily.
+     *
+     * @param partition The byte range to read. Its offset must be a line start.
+     * @return A Stream of data (T) that must be closed to release the file handle.
+     * @throws IOException If the file cannot be opened.
+     */
+    Stream<T> load(FilePartition partition) throws IOException;
+
+    @Override
+    default Stream<T> load(Path filePath) throws IOException {
+        if (Files.isDirectory(filePath)) throw new IOException("Not a regular file: " + filePath);
+        return load(new FilePartition(filePath, 0, Files.size(filePath)));
+    }
+}
@@ -0,0 +1,42 @@
+package metrics;
+
+import parser.LineClassifier;
+import parser.LineType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorator counting the lines recognized by each rule of another classifier.
+ */
+public class CountingLineClassifier extends LineClassifier {
+
+    private final LineClassifier delegate;
+    private final LongAdder[] counters;
+
+    /**
+     * @param delegate The classifier doing the actual work.
+     * @param counters One counter per {@link LineType}, indexed by ordinal, usually shared by all parse calls.
+     */
+    public CountingLineClassifier(LineClassifier delegate, LongAdder[] counters) {
+        if (counters.length != LineType.values().length) throw new IllegalArgumentException("Expected one counter per line type");
+        this.delegate = delegate;
+        this.counters = counters;
+    }
+
+    @Override
+    public LineType classify(CharSequence line) {
+        LineType type = delegate.classify(line);
+        counters[type.ordinal()].increment();
+
+        if (type != LineType.UNRECOGNIZED) {
+            setGroup(1, delegate.start(1), delegate.end(1));
+            setGroup(2, delegate.start(2), delegate.end(2));
+        }
+        return type;
+    }
+
+    @Override
+    public boolean mayStartMetadata(CharSequence line) {
+        return delegate.mayStartMetadata(line);
+    }
+}
@@ -0,0 +1,46 @@
+package metrics;
+
+import exporter.DataExporter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Exporter decorator counting exported records and timing the exporter alone.
+ * <p>
+ * The time spent pulling records from the upstream stream is subtracted from the export duration;
+ * the gap between two pulls is recorded as the latency of exporting one record.
+ */
+public class InstrumentedExporter<T> implements DataExporter<T> {
+
+    private final DataExporter<T> delegate;
+    private final TransformationMetrics metrics;
+
+    public InstrumentedExporter(DataExporter<T> delegate, TransformationMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void export(Stream<T> input, Path outputPath) throws IOException {
+        if (input == null) {
+            delegate.export(null, outputPath);
+            return;
+        }
+
+        long[] pullNanos = new long[1];
+        Stream<T> timed = TimedSpliterator.wrap(input, (record, pull, gap) -> {
+            pullNanos[0] += pull;
+            metrics.messagesExported.increment();
+            if (gap > 0) metrics.exporterLatency.record(gap);
+        });
+
+        long start = System.nanoTime();
+        try {
+            delegate.export(timed, outputPath);
+        } finally {
+            metrics.exportNanos.add(Math.max(0, System.nanoTime() - start - pullNanos[0]));
+        }
+    }
+}
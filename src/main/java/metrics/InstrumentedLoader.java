@@ -0,0 +1,39 @@
+package metrics;
+
+import loader.FileLoader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Loader decorator counting lines and characters and timing the production of each line.
+ * Loaders reading partitions are wrapped in an {@link InstrumentedPartitionLoader} instead.
+ */
+public class InstrumentedLoader<T extends CharSequence> implements FileLoader<T> {
+
+    private final FileLoader<T> delegate;
+    private final TransformationMetrics metrics;
+
+    /**
+     * @param delegate The loader doing the actual work.
+     * @param metrics  The metrics to update.
+     */
+    public InstrumentedLoader(FileLoader<T> delegate, TransformationMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Stream<T> load(Path filePath) throws IOException {
+        return instrument(delegate.load(filePath));
+    }
+
+    protected Stream<T> instrument(Stream<T> lines) {
+        return TimedSpliterator.wrap(lines, (line, pullNanos, gapNanos) -> {
+            metrics.linesRead.increment();
+            metrics.charactersRead.add(line.length());
+            metrics.loaderLatency.record(pullNanos);
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package metrics;
+
+import model.ChatMessage;
+import parser.DataParser;
+
+import java.util.stream.Stream;
+
+/**
+ * Parser decorator counting messages and timing the production of each one.
+ * <p>
+ * Per-rule line counts come from the classifiers, see {@link TransformationMetrics#countingClassifiers}.
+ */
+public class InstrumentedParser implements DataParser {
+
+    private final DataParser delegate;
+    private final TransformationMetrics metrics;
+
+    public InstrumentedParser(DataParser delegate, TransformationMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Stream<ChatMessage> parse(Stream<? extends CharSequence> rawLines) {
+        return TimedSpliterator.wrap(delegate.parse(rawLines), (message, pullNanos, gapNanos) -> {
+            metrics.messagesParsed.increment();
+            metrics.parserLatency.record(pullNanos);
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package metrics;
+
+import loader.PartitionLoader;
+import model.FilePartition;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * {@link InstrumentedLoader} for loaders that also read partitions, as used by the partitioned parsing engine.
+ */
+public class InstrumentedPartitionLoader<T extends CharSequence> extends InstrumentedLoader<T> implements PartitionLoader<T> {
+
+    private final PartitionLoader<T> delegate;
+
+    /**
+     * @param delegate The loader doing the actual work.
+     * @param metrics  The metrics to update.
+     */
+    public InstrumentedPartitionLoader(PartitionLoader<T> delegate, TransformationMetrics metrics) {
+        super(delegate, metrics);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Stream<T> load(FilePartition partition) throws IOException {
+        return instrument(delegate.load(partition));
+    }
+}
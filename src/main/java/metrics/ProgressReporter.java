@@ -0,0 +1,68 @@
+package metrics;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Periodically prints the progress of a run on a single, rewritten console line.
+ */
+public class ProgressReporter implements AutoCloseable {
+
+    private static final double BYTES_PER_MEGABYTE = 1024d * 1024d;
+
+    private final TransformationMetrics metrics;
+    private final PrintStream out;
+    private final Thread thread;
+    private boolean closed;
+
+    /**
+     * Starts reporting immediately on a daemon thread.
+     *
+     * @param metrics  The metrics of the run.
+     * @param out      The console stream, usually {@link System#err} so that it does not mix with the report.
+     * @param interval The delay between two updates.
+     */
+    public ProgressReporter(TransformationMetrics metrics, PrintStream out, Duration interval) {
+        this.metrics = metrics;
+        this.out = out;
+        this.thread = Thread.ofPlatform().daemon().name("progress").start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(interval);
+                    print();
+                }
+            } catch (InterruptedException e) {
+                // Stopped by close().
+            }
+        });
+    }
+
+    /**
+     * Stops the updates and prints the final state on its own line. Further calls do nothing.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        print();
+        out.println();
+    }
+
+    private void print() {
+        double seconds = metrics.elapsedNanos() / 1e9;
+        // Characters approximate bytes for the mostly ASCII collection dumps.
+        double megabytes = metrics.charactersRead() / BYTES_PER_MEGABYTE;
+
+        out.printf(Locale.ROOT, "\r[%6.1fs] %,d lines read (%.1f MB, %.1f MB/s), %,d messages exported",
+                seconds, metrics.linesRead(), megabytes, seconds == 0 ? 0 : megabytes / seconds, metrics.messagesExported());
+        out.flush();
+    }
+}
@@ -0,0 +1,68 @@
+package metrics;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sequential spliterator measuring, for each element, the time spent pulling it from the source
+ * and the time the consumer spent between two pulls.
+ */
+final class TimedSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements Consumer<T> {
+
+    /**
+     * Receives the measurements of one element.
+     */
+    @FunctionalInterface
+    interface Probe<T> {
+        /**
+         * @param element   The element pulled from the source.
+         * @param pullNanos The time the source took to produce it.
+         * @param gapNanos  The time elapsed since the previous element was handed over, 0 for the first one.
+         */
+        void record(T element, long pullNanos, long gapNanos);
+    }
+
+    private final Spliterator<T> source;
+    private final Probe<? super T> probe;
+    private long lastHandOver;
+    private T current;
+
+    private TimedSpliterator(Spliterator<T> source, Probe<? super T> probe) {
+        super(source.estimateSize(), source.characteristics() & (Spliterator.ORDERED | Spliterator.NONNULL));
+        this.source = source;
+        this.probe = probe;
+    }
+
+    /**
+     * @return A sequential stream over the same elements, closing the source stream when closed.
+     */
+    static <T> Stream<T> wrap(Stream<T> source, Probe<? super T> probe) {
+        return StreamSupport.stream(new TimedSpliterator<>(source.spliterator(), probe), false)
+                .onClose(source::close);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        long start = System.nanoTime();
+        boolean advanced = source.tryAdvance(this);
+        long end = System.nanoTime();
+
+        if (!advanced) return false;
+
+        // The element is handed over outside the timed region so that the consumer is not billed to the source.
+        T element = current;
+        current = null;
+        probe.record(element, end - start, lastHandOver == 0 ? 0 : start - lastHandOver);
+        lastHandOver = end;
+        action.accept(element);
+        return true;
+    }
+
+    @Override
+    public void accept(T element) {
+        current = element;
+    }
+}
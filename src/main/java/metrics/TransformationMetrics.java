@@ -0,0 +1,134 @@
+package metrics;
+
+import model.TransformationStats;
+import model.TransformationStats.Timing;
+import parser.LineClassifier;
+import parser.LineType;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counters and latency histograms shared by the instrumented loader, parser and exporter.
+ * <p>
+ * Every counter is a {@link LongAdder} so that concurrent workers do not contend on a single cache line.
+ * Instrumentation is opt-in: when no metrics are requested the components are used unwrapped,
+ * and the hot path pays nothing.
+ */
+public class TransformationMetrics {
+
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    final LongAdder linesRead = new LongAdder();
+    final LongAdder charactersRead = new LongAdder();
+    final LongAdder messagesParsed = new LongAdder();
+    final LongAdder messagesExported = new LongAdder();
+    final LongAdder exportNanos = new LongAdder();
+    final LongAdder[] lineTypes = new LongAdder[LineType.values().length];
+
+    final LatencyHistogram loaderLatency = new LatencyHistogram();
+    final LatencyHistogram parserLatency = new LatencyHistogram();
+    final LatencyHistogram exporterLatency = new LatencyHistogram();
+
+    private final long startNanos = System.nanoTime();
+    private final boolean loaderOnParserThread;
+
+    public TransformationMetrics() {
+        this(true);
+    }
+
+    /**
+     * @param loaderOnParserThread Whether the parser pulls its lines from the loader on its own thread, so that the
+     *                             loader time is part of the parser time and is subtracted from it; false when the
+     *                             loader runs on a separate thread, as with {@code --pipeline}.
+     */
+    public TransformationMetrics(boolean loaderOnParserThread) {
+        this.loaderOnParserThread = loaderOnParserThread;
+        for (int i = 0; i < lineTypes.length; i++) lineTypes[i] = new LongAdder();
+    }
+
+    /**
+     * @param classifierFactory The classifiers used by the parser.
+     * @return A factory of classifiers counting the lines recognized by each rule.
+     */
+    public Supplier<LineClassifier> countingClassifiers(Supplier<? extends LineClassifier> classifierFactory) {
+        return () -> new CountingLineClassifier(classifierFactory.get(), lineTypes);
+    }
+
+    public long linesRead() {
+        return linesRead.sum();
+    }
+
+    public long charactersRead() {
+        return charactersRead.sum();
+    }
+
+    public long messagesExported() {
+        return messagesExported.sum();
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @return A consistent-enough snapshot of all counters; runs in progress keep updating them.
+     */
+    public TransformationStats snapshot() {
+        Map<String, Long> types = new LinkedHashMap<>();
+        long classified = 0;
+        for (LineType type : LineType.values()) {
+            long count = lineTypes[type.ordinal()].sum();
+            types.put(type.name(), count);
+            classified += count;
+        }
+
+        long lines = linesRead.sum();
+        long loaderNanos = loaderLatency.totalNanos();
+        long parserNanos = loaderOnParserThread
+                ? Math.max(0, parserLatency.totalNanos() - loaderNanos)
+                : parserLatency.totalNanos();
+
+        return new TransformationStats(
+                elapsedNanos() / NANOS_PER_MILLI,
+                lines,
+                charactersRead.sum(),
+                types,
+                classified == 0 ? 0 : Math.max(0, lines - classified),
+                messagesParsed.sum(),
+                messagesExported.sum(),
+                timing(loaderNanos, loaderLatency),
+                timing(parserNanos, parserLatency),
+                timing(exportNanos.sum(), exporterLatency),
+                loaderOnParserThread
+        );
+    }
+
+    /**
+     * Writes the snapshot as indented JSON. The stream is left open.
+     *
+     * @param out The destination, e.g. a file or standard output.
+     * @throws IOException If the report cannot be written.
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        ObjectMapper mapper = JsonMapper.builder()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .build();
+        out.write(mapper.writeValueAsBytes(snapshot()));
+        out.write('\n');
+        out.flush();
+    }
+
+    private static Timing timing(long nanos, LatencyHistogram histogram) {
+        return new Timing(nanos / NANOS_PER_MILLI, histogram.count(),
+                histogram.percentile(0.50), histogram.percentile(0.90), histogram.percentile(0.99), histogram.maxNanos());
+    }
+}
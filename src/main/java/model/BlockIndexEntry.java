@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * Location and metadata of one {@code APD} block of an evidence file, as recorded in a block index.
+ * Metadata values are the last ones seen in the block, null when the block has none.
+ *
+ * @param offset         The offset of the block start line.
+ * @param length         The length in bytes of the block, up to the next block start or the end of the file.
+ * @param conversationId The conversation identifier of the block.
+ * @param platformId     The platform call identifier of the block.
+ * @param timestamp      The raw date and time of the block.
+ */
+public record BlockIndexEntry(
+        long offset,
+        long length,
+        String conversationId,
+        String platformId,
+        String timestamp
+) {
+    /**
+     * @return The exclusive end offset of the block.
+     */
+    public long end() {
+        return offset + length;
+    }
+}
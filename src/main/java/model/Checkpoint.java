@@ -0,0 +1,31 @@
+package model;
+
+import java.nio.file.Path;
+
+/**
+ * Progress of a checkpointed run, persisted next to its report.
+ *
+ * @param input         The evidence file being processed.
+ * @param inputSize     The evidence file size when the run started, used to detect a changed input.
+ * @param inputModified The evidence file modification time in milliseconds, for the same purpose.
+ * @param exporter      The name of the exporter writing the report.
+ * @param inputOffset   The offset of the first block not yet exported; always a block boundary.
+ * @param outputSize    The size of the report once every block before {@code inputOffset} was synced.
+ * @param records       The number of records in the report at that point.
+ */
+public record Checkpoint(
+        Path input,
+        long inputSize,
+        long inputModified,
+        String exporter,
+        long inputOffset,
+        long outputSize,
+        long records
+) {
+    /**
+     * @return A copy recording further progress on the same run.
+     */
+    public Checkpoint advance(long inputOffset, long outputSize, long records) {
+        return new Checkpoint(input, inputSize, inputModified, exporter, inputOffset, outputSize, records);
+    }
+}
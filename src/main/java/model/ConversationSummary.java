@@ -0,0 +1,32 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Summary statistics of one conversation, as computed by {@link aggregate.ConversationAggregator}.
+ *
+ * @param conversationId The conversation.
+ * @param messages       The number of messages.
+ * @param participants   The number of distinct senders.
+ * @param firstTimestamp The earliest readable timestamp of its messages, or null if none is readable.
+ * @param lastTimestamp  The latest readable timestamp of its messages, or null if none is readable.
+ * @param bytes          The UTF-8 size of the message texts.
+ * @param senders        The volume of each sender, largest first.
+ */
+public record ConversationSummary(
+        String conversationId,
+        long messages,
+        int participants,
+        String firstTimestamp,
+        String lastTimestamp,
+        long bytes,
+        List<Sender> senders
+) {
+
+    /**
+     * @param sender   The sender address.
+     * @param messages The number of messages sent in the conversation.
+     * @param bytes    The UTF-8 size of their texts.
+     */
+    public record Sender(String sender, long messages, long bytes) {}
+}
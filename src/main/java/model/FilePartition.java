@@ -0,0 +1,20 @@
+package model;
+
+import java.nio.file.Path;
+
+/**
+ * Represents a contiguous byte range of an evidence file.
+ * Every partition except the first starts exactly on a block start line.
+ */
+public record FilePartition(
+        Path file,
+        long offset,
+        long length
+) {
+    /**
+     * @return The exclusive end offset of the range.
+     */
+    public long end() {
+        return offset + length;
+    }
+}
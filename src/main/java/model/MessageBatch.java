@@ -0,0 +1,204 @@
+package model;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Columnar batch of parsed messages, reused from one batch to the next.
+ * <p>
+ * Block metadata is stored once per block and referenced by index from each row; senders are the
+ * canonical Strings of the parser dictionary. Message texts are copied, already unescaped, into a
+ * single shared char array and addressed by offset and length, so that filling a batch allocates
+ * nothing once its arrays have grown to the working size. {@link #message(int)} and {@link #get(int)}
+ * materialize Strings and {@link ChatMessage} records for callers that need them.
+ * <p>
+ * A batch handed out by a parser is only valid until the next one is requested.
+ */
+public final class MessageBatch {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int capacity;
+
+    private String[] blockIds = new String[16];
+    private String[] conversationIds = new String[16];
+    private String[] platformIds = new String[16];
+    private String[] timestamps = new String[16];
+    private int blocks;
+
+    private final int[] rowBlocks;
+    private final String[] senders;
+    private final int[] textOffsets;
+    private final int[] textLengths;
+    private int size;
+
+    private char[] text = new char[16 * 1024];
+    private int textSize;
+
+    public MessageBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The maximum number of rows.
+     */
+    public MessageBatch(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        this.capacity = capacity;
+        this.rowBlocks = new int[capacity];
+        this.senders = new String[capacity];
+        this.textOffsets = new int[capacity];
+        this.textLengths = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Empties the batch, keeping its arrays.
+     */
+    public void clear() {
+        Arrays.fill(blockIds, 0, blocks, null);
+        Arrays.fill(conversationIds, 0, blocks, null);
+        Arrays.fill(platformIds, 0, blocks, null);
+        Arrays.fill(timestamps, 0, blocks, null);
+        Arrays.fill(senders, 0, size, null);
+        blocks = 0;
+        size = 0;
+        textSize = 0;
+    }
+
+    /**
+     * Starts a new block; the following rows share its metadata until the next call.
+     */
+    public void addBlock(String blockId, String conversationId, String platformId, String timestamp) {
+        if (blocks == blockIds.length) {
+            int length = blocks * 2;
+            blockIds = Arrays.copyOf(blockIds, length);
+            conversationIds = Arrays.copyOf(conversationIds, length);
+            platformIds = Arrays.copyOf(platformIds, length);
+            timestamps = Arrays.copyOf(timestamps, length);
+        }
+        blockIds[blocks] = blockId;
+        conversationIds[blocks] = conversationId;
+        platformIds[blocks] = platformId;
+        timestamps[blocks] = timestamp;
+        blocks++;
+    }
+
+    /**
+     * Adds a row to the current block. A text wrapped in quotes is stored without them and with
+     * doubled quotes unescaped, as {@link ChatMessage} texts are.
+     *
+     * @param sender The sender.
+     * @param source The characters holding the message text, e.g. the raw line.
+     * @param start  The start offset of the text, inclusive.
+     * @param end    The end offset of the text, exclusive.
+     */
+    public void add(String sender, CharSequence source, int start, int end) {
+        if (blocks == 0) throw new IllegalStateException("No block was started");
+        if (size == capacity) throw new IllegalStateException("Batch is full");
+
+        ensureText(end - start);
+        int offset = textSize;
+        if (end - start > 1 && source.charAt(start) == '"' && source.charAt(end - 1) == '"') {
+            for (int i = start + 1; i < end - 1; i++) {
+                char c = source.charAt(i);
+                text[textSize++] = c;
+                if (c == '"' && i + 1 < end - 1 && source.charAt(i + 1) == '"') i++;
+            }
+        } else if (source instanceof String string) {
+            string.getChars(start, end, text, textSize);
+            textSize += end - start;
+        } else {
+            for (int i = start; i < end; i++) text[textSize++] = source.charAt(i);
+        }
+
+        rowBlocks[size] = blocks - 1;
+        senders[size] = sender;
+        textOffsets[size] = offset;
+        textLengths[size] = textSize - offset;
+        size++;
+    }
+
+    private void ensureText(int length) {
+        if (textSize + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textSize + length));
+        }
+    }
+
+    /**
+     * @return The block number of a row, from 0; consecutive rows of the same block share it.
+     */
+    public int block(int row) {
+        return rowBlocks[row];
+    }
+
+    public String id(int row) {
+        return blockIds[rowBlocks[row]];
+    }
+
+    public String conversationId(int row) {
+        return conversationIds[rowBlocks[row]];
+    }
+
+    public String platformId(int row) {
+        return platformIds[rowBlocks[row]];
+    }
+
+    public String timestamp(int row) {
+        return timestamps[rowBlocks[row]];
+    }
+
+    public String sender(int row) {
+        return senders[row];
+    }
+
+    /**
+     * @return The array holding every message text of the batch, addressed by {@link #messageOffset(int)}
+     *         and {@link #messageLength(int)}. Not a copy.
+     */
+    public char[] text() {
+        return text;
+    }
+
+    public int messageOffset(int row) {
+        return textOffsets[row];
+    }
+
+    public int messageLength(int row) {
+        return textLengths[row];
+    }
+
+    /**
+     * @return The message text of a row as a new String.
+     */
+    public String message(int row) {
+        return new String(text, textOffsets[row], textLengths[row]);
+    }
+
+    /**
+     * @return The row as a {@link ChatMessage}.
+     */
+    public ChatMessage get(int row) {
+        return new ChatMessage(id(row), conversationId(row), platformId(row), timestamp(row), sender(row), message(row));
+    }
+
+    /**
+     * @return The rows as {@link ChatMessage} records, materialized lazily; only valid while the batch is.
+     */
+    public Stream<ChatMessage> messages() {
+        return IntStream.range(0, size).mapToObj(this::get);
+    }
+}
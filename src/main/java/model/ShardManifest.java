@@ -0,0 +1,26 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Description of a sharded report, written next to its shards.
+ *
+ * @param mode      How messages were assigned to shards.
+ * @param limit     The rows or bytes per shard, or the number of shards when sharding by conversation.
+ * @param totalRows The number of messages across every shard.
+ * @param shards    The shards, in file name order.
+ */
+public record ShardManifest(String mode, long limit, long totalRows, List<Shard> shards) {
+
+    /**
+     * One shard file.
+     *
+     * @param file     The file name, relative to the manifest.
+     * @param firstRow The position of its first message in the exported stream, from 0; -1 if the shard is empty.
+     * @param lastRow  The position of its last message, inclusive; -1 if the shard is empty.
+     * @param rows     The number of messages. Equal to {@code lastRow - firstRow + 1} unless sharding by conversation.
+     * @param bytes    The file size.
+     * @param sha256   The SHA-256 checksum of the file, in hexadecimal.
+     */
+    public record Shard(String file, long firstRow, long lastRow, long rows, long bytes, String sha256) {}
+}
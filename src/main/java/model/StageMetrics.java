@@ -0,0 +1,50 @@
+package model;
+
+import java.util.Locale;
+
+/**
+ * Activity of one stage of a pipelined run.
+ *
+ * @param stage             The stage name.
+ * @param batches           The number of batches the stage handed downstream (to the exporter, for the last stage).
+ * @param records           The number of lines or messages in those batches.
+ * @param busyNanos         Time spent working, i.e. neither starved nor blocked.
+ * @param starvedNanos      Time spent waiting for the upstream stage (empty input queue).
+ * @param blockedNanos      Time spent waiting for the downstream stage (full output queue).
+ * @param queueCapacity     Capacity in batches of the input queue, 0 for the first stage.
+ * @param averageQueueDepth Average input queue depth observed when taking a batch.
+ * @param maxQueueDepth     Maximum input queue depth observed.
+ */
+public record StageMetrics(
+        String stage,
+        long batches,
+        long records,
+        long busyNanos,
+        long starvedNanos,
+        long blockedNanos,
+        int queueCapacity,
+        double averageQueueDepth,
+        int maxQueueDepth
+) {
+    /**
+     * @return The share of the stage lifetime spent working, between 0 and 1.
+     *         The bottleneck is the stage closest to 1.
+     */
+    public double utilization() {
+        long total = busyNanos + starvedNanos + blockedNanos;
+        return total == 0 ? 0 : (double) busyNanos / total;
+    }
+
+    @Override
+    public String toString() {
+        String queue = queueCapacity == 0 ? "" : String.format(Locale.ROOT, ", input queue %.1f/%d avg (max %d)",
+                averageQueueDepth, queueCapacity, maxQueueDepth);
+        return String.format(Locale.ROOT, "%-10s %5.1f%% busy, %5.1f%% starved, %5.1f%% blocked, %d records in %d batches%s",
+                stage, share(busyNanos), share(starvedNanos), share(blockedNanos), records, batches, queue);
+    }
+
+    private double share(long nanos) {
+        long total = busyNanos + starvedNanos + blockedNanos;
+        return total == 0 ? 0 : nanos * 100d / total;
+    }
+}
@@ -0,0 +1,42 @@
+package model;
+
+import java.util.Locale;
+
+/**
+ * Summary of a transformation run, used to report throughput on the console.
+ */
+public record ThroughputReport(
+        int files,
+        long bytes,
+        long elapsedNanos
+) {
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final double BYTES_PER_MEGABYTE = 1024d * 1024d;
+
+    /**
+     * @param files      The number of processed files.
+     * @param bytes      The total input size in bytes.
+     * @param startNanos The {@link System#nanoTime()} value taken when the run started.
+     */
+    public static ThroughputReport since(int files, long bytes, long startNanos) {
+        return new ThroughputReport(files, bytes, System.nanoTime() - startNanos);
+    }
+
+    public long elapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double filesPerSecond() {
+        return elapsedNanos == 0 ? 0 : files * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    public double megabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes / BYTES_PER_MEGABYTE * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d file(s), %.1f MB in %dms (%.1f files/s, %.1f MB/s)",
+                files, bytes / BYTES_PER_MEGABYTE, elapsedMillis(), filesPerSecond(), megabytesPerSecond());
+    }
+}
@@ -0,0 +1,52 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * Hot-path metrics of a transformation run, serialized as the {@code --stats} JSON report.
+ *
+ * @param elapsedMillis        Wall-clock time since the metrics were created.
+ * @param linesRead            Lines produced by the loaders.
+ * @param charactersRead       Characters in those lines, terminators excluded.
+ * @param lineTypes            Lines recognized by each rule, keyed by {@code LineType} name.
+ * @param unclassifiedLines    Lines read but not classified on their own: blank lines, lines skipped by the
+ *                             filters, and continuation lines merged into a multi-line record.
+ * @param messagesParsed       Messages produced by the parsers.
+ * @param messagesExported     Messages consumed by the exporters.
+ * @param loader               Time spent reading and decoding lines.
+ * @param parser               Time spent classifying lines and building messages.
+ * @param exporter             Time spent serializing and writing messages.
+ * @param parserExcludesLoader Whether the loader time was subtracted from the parser time. It is not when the
+ *                             loader runs on its own thread ({@code --pipeline}): the parser time then includes
+ *                             waiting for lines.
+ */
+public record TransformationStats(
+        long elapsedMillis,
+        long linesRead,
+        long charactersRead,
+        Map<String, Long> lineTypes,
+        long unclassifiedLines,
+        long messagesParsed,
+        long messagesExported,
+        Timing loader,
+        Timing parser,
+        Timing exporter,
+        boolean parserExcludesLoader
+) {
+    /**
+     * Time attributed to one component. Per-element latencies are per line for the loader and
+     * per message for the parser and exporter; percentiles are upper bounds within 25%.
+     *
+     * @param millis  Time spent in the component, summed over all threads in parallel modes.
+     *                Excludes the components it pulls from on the same thread.
+     * @param samples The number of measured elements.
+     */
+    public record Timing(
+            long millis,
+            long samples,
+            long p50Nanos,
+            long p90Nanos,
+            long p99Nanos,
+            long maxNanos
+    ) {}
+}
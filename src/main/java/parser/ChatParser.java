@@ -1,63 +1,244 @@
 package parser;
 
 import model.ChatMessage;
+import model.MessageBatch;
+import util.StringDictionary;
 
-import static util.ChatPatterns.*;
-
-import java.util.regex.Matcher;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Parses raw log lines into structured ChatMessage objects.
+ * <p>
+ * Lines are recognized by a {@link LineClassifier}; the regex-based {@link RegexLineClassifier}
+ * can be supplied instead to validate the fast path against {@link util.ChatPatterns}.
+ * <p>
+ * Conversation IDs, platform IDs and senders are canonicalized through a {@link StringDictionary},
+ * so messages sharing a value share a single String instance.
+ * <p>
+ * An optional {@link MessageFilter} is pushed down into the state machine: once the metadata of a
+ * block fails it, the remaining lines of the block are skipped on their first character, and messages
+ * from other senders are dropped before their text is extracted.
+ * <p>
+ * Block timestamps are converted once per block by a {@link TimestampNormalizer}; the filter always
+ * sees the raw value.
+ * <p>
+ * An optional {@link RecordReassembler} first joins the lines of messages whose quoted text contains line breaks.
+ * <p>
+ * {@link #parseBatches(Stream, int)} runs the same state machine but fills reusable {@link MessageBatch}
+ * columns instead of allocating a ChatMessage and a message String per row.
  */
 public class ChatParser implements DataParser {
 
+    private final Supplier<? extends LineClassifier> classifierFactory;
+    private final StringDictionary dictionary;
+    private final MessageFilter filter;
+    private final TimestampNormalizer timestamps;
+    private final boolean filtered;
+    private final RecordReassembler reassembler;
+
+    public ChatParser() {
+        this(LineClassifier::new);
+    }
+
+    public ChatParser(Supplier<? extends LineClassifier> classifierFactory) {
+        this(classifierFactory, new StringDictionary());
+    }
+
+    /**
+     * @param classifierFactory Creates the classifier of each {@link #parse} call, as classifiers are stateful.
+     * @param dictionary        The dictionary shared by all parse calls, or null to disable canonicalization.
+     */
+    public ChatParser(Supplier<? extends LineClassifier> classifierFactory, StringDictionary dictionary) {
+        this(classifierFactory, dictionary, MessageFilter.NONE);
+    }
+
+    /**
+     * @param classifierFactory Creates the classifier of each {@link #parse} call, as classifiers are stateful.
+     * @param dictionary        The dictionary shared by all parse calls, or null to disable canonicalization.
+     * @param filter            The messages to keep; {@link MessageFilter#NONE} keeps them all.
+     */
+    public ChatParser(Supplier<? extends LineClassifier> classifierFactory, StringDictionary dictionary, MessageFilter filter) {
+        this(classifierFactory, dictionary, filter, TimestampNormalizer.RAW);
+    }
+
+    /**
+     * @param classifierFactory Creates the classifier of each {@link #parse} call, as classifiers are stateful.
+     * @param dictionary        The dictionary shared by all parse calls, or null to disable canonicalization.
+     * @param filter            The messages to keep; {@link MessageFilter#NONE} keeps them all.
+     * @param timestamps        The conversion applied to block timestamps; {@link TimestampNormalizer#RAW} keeps them as is.
+     */
+    public ChatParser(Supplier<? extends LineClassifier> classifierFactory, StringDictionary dictionary,
+                      MessageFilter filter, TimestampNormalizer timestamps) {
+        this(classifierFactory, dictionary, filter, timestamps, null);
+    }
+
+    /**
+     * @param classifierFactory Creates the classifier of each {@link #parse} call, as classifiers are stateful.
+     * @param dictionary        The dictionary shared by all parse calls, or null to disable canonicalization.
+     * @param filter            The messages to keep; {@link MessageFilter#NONE} keeps them all.
+     * @param timestamps        The conversion applied to block timestamps; {@link TimestampNormalizer#RAW} keeps them as is.
+     * @param reassembler       Joins messages whose quoted text spans several lines, or null to parse physical lines only.
+     */
+    public ChatParser(Supplier<? extends LineClassifier> classifierFactory, StringDictionary dictionary,
+                      MessageFilter filter, TimestampNormalizer timestamps, RecordReassembler reassembler) {
+        this.classifierFactory = classifierFactory;
+        this.dictionary = dictionary;
+        this.filter = filter;
+        this.timestamps = timestamps;
+        this.filtered = !filter.isEmpty();
+        this.reassembler = reassembler;
+    }
+
     /**
      * Transforms a stream of raw strings into a stream of ChatMessage objects.
      *
-     * @param rawLines The input stream of log lines.
+     * @param rawLines The input stream of log lines, either Strings or zero-copy line views.
      * @return A stream of parsed ChatMessage objects, or an empty stream if input is null.
      */
     @Override
-    public Stream<ChatMessage> parse(Stream<String> rawLines) {
+    public Stream<ChatMessage> parse(Stream<? extends CharSequence> rawLines) {
         if (rawLines == null) return Stream.empty();
 
-        ParsingContext context = new ParsingContext();
+        ParsingContext context = newContext();
+        LineClassifier classifier = classifierFactory.get();
 
-        return rawLines.mapMulti((line, consumer) -> {
-            if (line == null || line.isBlank()) return;
+        return records(rawLines).<ChatMessage>mapMulti((line, consumer) -> parseLine(line, context, classifier,
+                (sender, text, start, end) -> consumer.accept(new ChatMessage(
+                        context.blockId,
+                        context.conversationId,
+                        context.platformId,
+                        context.normalizedTimestamp,
+                        sender,
+                        cleanMessage(classifier.group(text, 2))
+                ))));
+    }
+
+    /**
+     * Transforms a stream of raw strings into columnar batches, without a ChatMessage or message String per row.
+     * <p>
+     * The same batch instance is refilled for every element: a batch is only valid until the next one is requested.
+     *
+     * @param rawLines The input stream of log lines, either Strings or zero-copy line views.
+     * @param capacity The maximum number of messages per batch.
+     * @return A stream of non-empty batches, or an empty stream if input is null.
+     */
+    public Stream<MessageBatch> parseBatches(Stream<? extends CharSequence> rawLines, int capacity) {
+        if (rawLines == null) return Stream.empty();
 
-            Matcher matcher;
+        ParsingContext context = newContext();
+        LineClassifier classifier = classifierFactory.get();
+        Stream<? extends CharSequence> records = records(rawLines);
+        Iterator<? extends CharSequence> lines = records.iterator();
+        var batch = new MessageBatch(capacity);
+        long[] batchGeneration = {-1};
 
-            if ((matcher = BLOCK_START.matcher(line)).matches()) {
-                context.reset();
-                context.blockId = matcher.group(1);
+        MessageSink sink = (sender, line, start, end) -> {
+            if (batchGeneration[0] != context.generation) {
+                batch.addBlock(context.blockId, context.conversationId, context.platformId, context.normalizedTimestamp);
+                batchGeneration[0] = context.generation;
+            }
+            batch.add(sender, line, start, end);
+        };
 
-            } else if ((matcher = CONVERSATION_KEY.matcher(line)).matches()) {
-                context.conversationId = matcher.group(1);
+        var batches = new Spliterators.AbstractSpliterator<MessageBatch>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super MessageBatch> action) {
+                batch.clear();
+                batchGeneration[0] = -1;
+                while (!batch.isFull() && lines.hasNext()) parseLine(lines.next(), context, classifier, sink);
+                if (batch.isEmpty()) return false;
 
-            } else if ((matcher = PLATFORM_KEY.matcher(line)).matches()) {
-                context.platformId = matcher.group(1);
+                action.accept(batch);
+                return true;
+            }
+        };
+        return StreamSupport.stream(batches, false).onClose(records::close);
+    }
 
-            } else if ((matcher = DATE_KEY.matcher(line)).matches()) {
-                context.timestamp = matcher.group(1);
+    private Stream<? extends CharSequence> records(Stream<? extends CharSequence> rawLines) {
+        return reassembler == null ? rawLines : reassembler.reassemble(rawLines);
+    }
 
-            } else if ((matcher = MESSAGE_LINE.matcher(line)).matches()) {
-                var sender = matcher.group(1);
-                var message = matcher.group(2);
+    private ParsingContext newContext() {
+        ParsingContext context = new ParsingContext();
+        if (filtered) context.verdict = Verdict.PENDING;
+        return context;
+    }
 
-                var msg = new ChatMessage(
-                        context.blockId,
-                        context.conversationId,
-                        context.platformId,
-                        context.timestamp,
-                        sender,
-                        cleanMessage(message)
-                );
+    /**
+     * Runs one line through the state machine, handing the accepted messages to {@code sink}.
+     */
+    private void parseLine(CharSequence line, ParsingContext context, LineClassifier classifier, MessageSink sink) {
+        if (line == null) return;
+        // Only block starts and metadata can change the verdict of a rejected block.
+        if (context.verdict == Verdict.REJECTED && !classifier.mayStartMetadata(line)) return;
+        if (isBlank(line)) return;
+
+        switch (classifier.classify(line)) {
+            case BLOCK_START -> {
+                context.reset();
+                context.blockId = classifier.group(line, 1);
+                if (filtered) context.verdict = Verdict.PENDING;
+            }
+            case CONVERSATION -> {
+                context.conversationId = canonical(classifier, line, 1);
+                context.generation++;
+                if (filtered) context.verdict = filter.acceptsConversation(context.conversationId) ? Verdict.PENDING : Verdict.REJECTED;
+            }
+            case PLATFORM -> {
+                context.platformId = canonical(classifier, line, 1);
+                context.generation++;
+                if (filtered) context.verdict = filter.acceptsPlatform(context.platformId) ? Verdict.PENDING : Verdict.REJECTED;
+            }
+            case DATE -> {
+                context.timestamp = classifier.group(line, 1);
+                context.normalizedTimestamp = timestamps.normalize(context.timestamp);
+                context.generation++;
+                if (filtered) context.verdict = filter.acceptsTimestamp(context.timestamp) ? Verdict.PENDING : Verdict.REJECTED;
+            }
+            case MESSAGE -> {
+                if (context.verdict == Verdict.PENDING) {
+                    context.verdict = filter.acceptsBlock(context.conversationId, context.platformId, context.timestamp)
+                            ? Verdict.ACCEPTED : Verdict.REJECTED;
+                }
+                if (context.verdict == Verdict.REJECTED) return;
+                if (!filter.acceptsSender(line, classifier.start(1), classifier.end(1))) return;
 
-                consumer.accept(msg);
+                sink.accept(canonical(classifier, line, 1), line, classifier.start(2), classifier.end(2));
+            }
+            case UNRECOGNIZED -> {
             }
-        });
+        }
+    }
+
+    /**
+     * Receives an accepted message: its sender, and the line holding its raw text between two offsets.
+     * The block metadata is read from the parsing context.
+     */
+    @FunctionalInterface
+    private interface MessageSink {
+        void accept(String sender, CharSequence line, int start, int end);
+    }
+
+    private String canonical(LineClassifier classifier, CharSequence line, int group) {
+        if (dictionary == null) return classifier.group(line, group);
+        return dictionary.canonicalize(line, classifier.start(group), classifier.end(group));
+    }
+
+    /**
+     * Equivalent of {@link String#isBlank()} for any character sequence.
+     */
+    private static boolean isBlank(CharSequence line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (!Character.isWhitespace(line.charAt(i))) return false;
+        }
+        return true;
     }
 
     /**
@@ -65,12 +246,17 @@ public class ChatParser implements DataParser {
      * Removes surrounding quotes and unescapes double double-quotes.
      */
     private String cleanMessage(String message) {
-        if (message.startsWith("\"") && message.endsWith("\"")) {
+        if (message.length() > 1 && message.startsWith("\"") && message.endsWith("\"")) {
             return message.substring(1, message.length() - 1).replace("\"\"", "\"");
         }
         return message;
     }
 
+    /**
+     * Filter verdict on the current block: pending until its first message unless a metadata line already failed.
+     */
+    private enum Verdict { ACCEPTED, PENDING, REJECTED }
+
     /**
      * Internal helper class to maintain parsing state across stream elements.
      */
@@ -79,12 +265,18 @@ public class ChatParser implements DataParser {
         String conversationId;
         String platformId;
         String timestamp;
+        String normalizedTimestamp;
+        Verdict verdict = Verdict.ACCEPTED;
+        // Incremented whenever the block metadata changes, so that batches record each block once.
+        long generation;
 
         void reset() {
+            this.generation++;
             this.blockId = null;
             this.conversationId = null;
             this.platformId = null;
             this.timestamp = null;
+            this.normalizedTimestamp = null;
         }
     }
 }
\ No newline at end of file
@@ -12,8 +12,8 @@ public interface DataParser {
     /**
      * Transforms a stream of raw text lines into a stream of structured ChatMessages.
      *
-     * @param rawLines The lazy stream of strings coming from the file loader.
+     * @param rawLines The lazy stream of lines coming from the file loader (Strings or line views).
      * @return A stream of ChatMessage records.
      */
-    Stream<ChatMessage> parse(Stream<String> rawLines);
+    Stream<ChatMessage> parse(Stream<? extends CharSequence> rawLines);
 }
\ No newline at end of file
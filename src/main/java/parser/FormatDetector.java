@@ -0,0 +1,68 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Picks the {@link FormatProfile} of an evidence file from its first lines.
+ * <p>
+ * Every candidate classifies a sample of about {@link #SAMPLE_CHARS} characters and scores one point
+ * per block start or metadata line it recognizes; message lines are not counted, as a loose sender
+ * shape accepts almost anything. The best score wins, the earlier candidate on a tie.
+ */
+public class FormatDetector {
+
+    public static final int SAMPLE_CHARS = 1024;
+
+    private final List<FormatProfile> profiles;
+    private final List<Supplier<LineClassifier>> classifiers = new ArrayList<>();
+
+    /**
+     * @param profiles The candidates, in order of preference.
+     */
+    public FormatDetector(List<FormatProfile> profiles) {
+        if (profiles.isEmpty()) throw new IllegalArgumentException("At least one profile is required");
+
+        this.profiles = List.copyOf(profiles);
+        for (FormatProfile profile : this.profiles) classifiers.add(profile.classifiers());
+    }
+
+    /**
+     * @param lines The lines of the file; only the sample is read.
+     * @return The best matching profile, the first candidate if none recognizes anything.
+     */
+    public FormatProfile detect(Stream<? extends CharSequence> lines) {
+        List<String> sample = new ArrayList<>();
+        int chars = 0;
+        Iterator<? extends CharSequence> iterator = lines.iterator();
+        while (chars < SAMPLE_CHARS && iterator.hasNext()) {
+            CharSequence line = iterator.next();
+            if (line == null) continue;
+            sample.add(line.toString());
+            chars += line.length() + 1;
+        }
+
+        FormatProfile best = profiles.getFirst();
+        int bestScore = 0;
+        for (int p = 0; p < profiles.size(); p++) {
+            int score = score(classifiers.get(p).get(), sample);
+            if (score > bestScore) {
+                best = profiles.get(p);
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static int score(LineClassifier classifier, List<String> sample) {
+        int score = 0;
+        for (String line : sample) {
+            LineType type = classifier.classify(line);
+            if (type != LineType.MESSAGE && type != LineType.UNRECOGNIZED) score++;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,95 @@
+package parser;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Declarative description of the line layout of a collection tool export.
+ * <p>
+ * A block starts on a line made of the block prefix followed by digits, the block id, then anything.
+ * A metadata line is a key, the separator and the value. A message line is a sender, the separator and
+ * the text, quoted when it contains the separator. {@link #DEFAULT} describes the {@link util.ChatPatterns} layout.
+ *
+ * @param name            The name selecting the profile on the command line.
+ * @param blockPrefix     The text preceding the digits of a block id, e.g. {@code APD}.
+ * @param conversationKey The key of the conversation id line, without separator.
+ * @param platformKey     The key of the platform call id line, without separator.
+ * @param dateKey         The key of the date line, without separator.
+ * @param separator       The character between a key or sender and its value.
+ * @param sender          The shape of the sender field of message lines.
+ */
+public record FormatProfile(String name, String blockPrefix, String conversationKey, String platformKey, String dateKey,
+                            char separator, SenderFormat sender) {
+
+    public static final FormatProfile DEFAULT = new FormatProfile("apd", "APD", "Conversation Identifier:",
+            "Platform Call ID:", "Date and time:", ',', SenderFormat.EMAIL);
+
+    /**
+     * Shapes of the sender field of a message line.
+     */
+    public enum SenderFormat {
+        /** An email address, as matched by {@link util.ChatPatterns#MESSAGE_LINE}. */
+        EMAIL,
+        /** Any non-empty text without separator, quote or line terminator. */
+        ANY
+    }
+
+    public FormatProfile {
+        requireText(name, "name");
+        requireText(blockPrefix, "blockPrefix");
+        requireText(conversationKey, "conversationKey");
+        requireText(platformKey, "platformKey");
+        requireText(dateKey, "dateKey");
+        if (sender == null) throw new IllegalArgumentException("Profile " + name + ": missing sender");
+        if (separator == '"' || Character.isLetterOrDigit(separator) || Character.isISOControl(separator)) {
+            throw new IllegalArgumentException("Profile " + name + ": invalid separator '" + separator + "'");
+        }
+        if (Set.of(conversationKey, platformKey, dateKey).size() < 3) {
+            throw new IllegalArgumentException("Profile " + name + ": metadata keys must be distinct");
+        }
+    }
+
+    private static void requireText(String value, String field) {
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("Format profile: missing " + field);
+    }
+
+    /**
+     * @return A factory of classifiers for this layout. The default layout keeps the hand-written
+     *         {@link LineClassifier}; other layouts share a {@link ProfileLineClassifier} compiled once, here.
+     */
+    public Supplier<LineClassifier> classifiers() {
+        return equals(DEFAULT) ? LineClassifier::new : ProfileLineClassifier.compile(this);
+    }
+
+    /**
+     * Reads profiles from a JSON array of objects named after the record components, e.g.
+     * {@code [{"name": "acme", "blockPrefix": "MSG", ..., "separator": ";", "sender": "ANY"}]}.
+     *
+     * @param path The JSON file.
+     * @return The profiles, in file order.
+     * @throws IOException If the file cannot be read or describes invalid or duplicate profiles.
+     */
+    public static List<FormatProfile> load(Path path) throws IOException {
+        List<FormatProfile> profiles;
+        try {
+            profiles = JsonMapper.builder().build().readValue(path.toFile(), new TypeReference<List<FormatProfile>>() {});
+        } catch (JacksonException e) {
+            Throwable cause = e.getCause() instanceof IllegalArgumentException invalid ? invalid : e;
+            throw new IOException("Invalid format profiles in " + path + ": " + cause.getMessage(), e);
+        }
+
+        Set<String> names = new HashSet<>();
+        for (FormatProfile profile : profiles) {
+            if (!names.add(profile.name())) throw new IOException("Duplicate format profile in " + path + ": " + profile.name());
+        }
+        return profiles;
+    }
+}
@@ -0,0 +1,178 @@
+package parser;
+
+/**
+ * Regex-free, single-pass classifier for collection dump lines.
+ * <p>
+ * Dispatches on the first character of the line and checks only the rules that can start with it,
+ * in the same priority order as the {@link util.ChatPatterns} cascade. Group boundaries are exposed
+ * as offsets into the line, so classifying never allocates.
+ * <p>
+ * Results are strictly equivalent to {@code Pattern.matcher(line).matches()} on each rule, including
+ * the rejection of line terminator characters by {@code .*}. Instances hold the offsets of the last
+ * classified line and are therefore not thread-safe.
+ */
+public class LineClassifier {
+
+    private static final String BLOCK_PREFIX = "APD";
+    private static final String CONVERSATION_PREFIX = "Conversation Identifier:,";
+    private static final String PLATFORM_PREFIX = "Platform Call ID:,";
+    private static final String DATE_PREFIX = "Date and time:,";
+
+    protected final int[] starts = new int[3];
+    protected final int[] ends = new int[3];
+
+    /**
+     * Classifies a line and records its group boundaries.
+     *
+     * @param line The raw line, without terminator.
+     * @return The first matching rule, or {@link LineType#UNRECOGNIZED}.
+     */
+    public LineType classify(CharSequence line) {
+        int length = line.length();
+        if (length == 0) return LineType.UNRECOGNIZED;
+
+        switch (line.charAt(0)) {
+            case 'A' -> {
+                if (isBlockStart(line)) return LineType.BLOCK_START;
+            }
+            case 'C' -> {
+                if (isMetadata(line, CONVERSATION_PREFIX)) return LineType.CONVERSATION;
+            }
+            case 'P' -> {
+                if (isMetadata(line, PLATFORM_PREFIX)) return LineType.PLATFORM;
+            }
+            case 'D' -> {
+                if (isMetadata(line, DATE_PREFIX)) return LineType.DATE;
+            }
+            default -> {
+            }
+        }
+        return isMessage(line, ',') ? LineType.MESSAGE : LineType.UNRECOGNIZED;
+    }
+
+    /**
+     * @return False if the line can only be a message or an unrecognized line, which is decided on its first character.
+     */
+    public boolean mayStartMetadata(CharSequence line) {
+        if (line.isEmpty()) return false;
+        char first = line.charAt(0);
+        return first == 'A' || first == 'C' || first == 'P' || first == 'D';
+    }
+
+    /**
+     * @param group The capturing group, 1 or 2 as in the corresponding pattern.
+     * @return The start offset of the group in the last classified line.
+     */
+    public int start(int group) {
+        return starts[group];
+    }
+
+    /**
+     * @param group The capturing group, 1 or 2 as in the corresponding pattern.
+     * @return The exclusive end offset of the group in the last classified line.
+     */
+    public int end(int group) {
+        return ends[group];
+    }
+
+    /**
+     * Materializes a captured group, the only allocation made per matched field.
+     */
+    public String group(CharSequence line, int group) {
+        return line.subSequence(starts[group], ends[group]).toString();
+    }
+
+    // ^(APD\d+),?.*
+    private boolean isBlockStart(CharSequence line) {
+        int length = line.length();
+        if (!startsWith(line, BLOCK_PREFIX)) return false;
+
+        int i = BLOCK_PREFIX.length();
+        while (i < length && isDigit(line.charAt(i))) i++;
+        if (i == BLOCK_PREFIX.length() || hasLineTerminator(line, i)) return false;
+
+        setGroup(1, 0, i);
+        return true;
+    }
+
+    // ^<Key>:,(.*)
+    private boolean isMetadata(CharSequence line, String prefix) {
+        if (!startsWith(line, prefix) || hasLineTerminator(line, prefix.length())) return false;
+
+        setGroup(1, prefix.length(), line.length());
+        return true;
+    }
+
+    // ^([\w-\.]+@[\w-]+\.[\w-]{2,4}),(.*), or MULTILINE_MESSAGE when the text spans lines
+    protected final boolean isMessage(CharSequence line, char separator) {
+        int length = line.length();
+        int i = 0;
+
+        while (i < length && (isWordOrDash(line.charAt(i)) || line.charAt(i) == '.')) i++;
+        if (i == 0 || i == length || line.charAt(i) != '@') return false;
+
+        int domainStart = ++i;
+        while (i < length && isWordOrDash(line.charAt(i))) i++;
+        if (i == domainStart || i == length || line.charAt(i) != '.') return false;
+
+        int tldStart = ++i;
+        while (i < length && isWordOrDash(line.charAt(i))) i++;
+        int tldLength = i - tldStart;
+        if (tldLength < 2 || tldLength > 4 || i == length || line.charAt(i) != separator) return false;
+
+        return setMessageGroups(line, i);
+    }
+
+    /**
+     * Records the sender and text groups of a message line whose sender ends at {@code separatorIndex}.
+     *
+     * @return False if the text has a line terminator outside a quoted, reassembled multi-line text.
+     */
+    protected final boolean setMessageGroups(CharSequence line, int separatorIndex) {
+        if (hasLineTerminator(line, separatorIndex + 1) && !isQuoted(line, separatorIndex + 1)) return false;
+
+        setGroup(1, 0, separatorIndex);
+        setGroup(2, separatorIndex + 1, line.length());
+        return true;
+    }
+
+    // (".*") with DOTALL
+    private static boolean isQuoted(CharSequence line, int from) {
+        return line.length() - from >= 2 && line.charAt(from) == '"' && line.charAt(line.length() - 1) == '"';
+    }
+
+    protected final void setGroup(int group, int start, int end) {
+        starts[group] = start;
+        ends[group] = end;
+    }
+
+    private static boolean startsWith(CharSequence line, String prefix) {
+        if (line.length() < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Characters rejected by {@code .} when DOTALL is off.
+     */
+    static boolean hasLineTerminator(CharSequence line, int from) {
+        for (int i = from; i < line.length(); i++) {
+            if (isLineTerminator(line.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordOrDash(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_' || c == '-';
+    }
+}
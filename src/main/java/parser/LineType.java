@@ -0,0 +1,13 @@
+package parser;
+
+/**
+ * The kinds of lines recognized in a collection dump, one per {@link util.ChatPatterns} rule.
+ */
+public enum LineType {
+    BLOCK_START,
+    CONVERSATION,
+    PLATFORM,
+    DATE,
+    MESSAGE,
+    UNRECOGNIZED
+}
@@ -0,0 +1,135 @@
+package parser;
+
+import model.ChatMessage;
+import util.TimestampParser;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Selection of messages by conversation, platform call, sender and block date.
+ * <p>
+ * {@link ChatParser} evaluates the block criteria on the metadata lines, so the message lines of a
+ * rejected block are skipped without being classified, and the sender criterion on the raw line, so
+ * rejected messages are never materialized. {@link #test(ChatMessage)} gives the same answer on a message
+ * parsed with raw timestamps. A null criterion accepts everything.
+ */
+public final class MessageFilter {
+
+    /**
+     * Accepts every message.
+     */
+    public static final MessageFilter NONE = new MessageFilter(null, null, null, null, null);
+
+    private final Set<String> conversations;
+    private final Set<String> platforms;
+    private final Set<String> senders;
+    private final long from;
+    private final long to;
+
+    /**
+     * @param conversations The accepted conversation IDs, or null.
+     * @param platforms     The accepted platform call IDs, or null.
+     * @param senders       The accepted senders, or null.
+     * @param from          The earliest accepted block date, inclusive, or null.
+     * @param to            The latest accepted block date, inclusive, or null.
+     */
+    public MessageFilter(Collection<String> conversations, Collection<String> platforms, Collection<String> senders,
+                         LocalDateTime from, LocalDateTime to) {
+        this.conversations = conversations == null ? null : Set.copyOf(conversations);
+        this.platforms = platforms == null ? null : Set.copyOf(platforms);
+        this.senders = senders == null ? null : Set.copyOf(senders);
+        // Local seconds, as returned by TimestampParser.
+        this.from = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+        this.to = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Parses the lower bound of a date range.
+     *
+     * @param value An ISO date ({@code 2019-10-10}) or date-time ({@code 2019-10-10T16:10:12}).
+     * @return The bound; a date starts at midnight.
+     * @throws DateTimeParseException If the value is neither.
+     */
+    public static LocalDateTime lowerBound(String value) {
+        return value.contains("T") ? LocalDateTime.parse(value) : LocalDate.parse(value).atStartOfDay();
+    }
+
+    /**
+     * Parses the upper bound of a date range.
+     *
+     * @param value An ISO date ({@code 2019-10-10}) or date-time ({@code 2019-10-10T16:10:12}).
+     * @return The bound; a date covers the whole day.
+     * @throws DateTimeParseException If the value is neither.
+     */
+    public static LocalDateTime upperBound(String value) {
+        return value.contains("T") ? LocalDateTime.parse(value) : LocalDate.parse(value).atTime(LocalTime.MAX);
+    }
+
+    /**
+     * @return True if no criterion is set.
+     */
+    public boolean isEmpty() {
+        return conversations == null && platforms == null && senders == null && !filtersDates();
+    }
+
+    /**
+     * @param message A parsed message.
+     * @return True if the message meets every criterion.
+     */
+    public boolean test(ChatMessage message) {
+        return acceptsBlock(message.conversationId(), message.platformId(), message.timestamp())
+                && (senders == null || (message.sender() != null && senders.contains(message.sender())));
+    }
+
+    boolean acceptsConversation(String conversationId) {
+        return conversations == null || (conversationId != null && conversations.contains(conversationId));
+    }
+
+    boolean acceptsPlatform(String platformId) {
+        return platforms == null || (platformId != null && platforms.contains(platformId));
+    }
+
+    /**
+     * A block whose date is missing or unreadable is rejected as soon as a range is set.
+     */
+    boolean acceptsTimestamp(String timestamp) {
+        if (!filtersDates()) return true;
+        if (timestamp == null) return false;
+
+        long date = TimestampParser.parseLocalSeconds(timestamp);
+        return date != TimestampParser.INVALID && date >= from && date <= to;
+    }
+
+    private boolean filtersDates() {
+        return from != Long.MIN_VALUE || to != Long.MAX_VALUE;
+    }
+
+    boolean acceptsBlock(String conversationId, String platformId, String timestamp) {
+        return acceptsConversation(conversationId) && acceptsPlatform(platformId) && acceptsTimestamp(timestamp);
+    }
+
+    /**
+     * Compares the sender in place, without building a String.
+     */
+    boolean acceptsSender(CharSequence line, int start, int end) {
+        if (senders == null) return true;
+        for (String sender : senders) {
+            if (regionEquals(sender, line, start, end)) return true;
+        }
+        return false;
+    }
+
+    private static boolean regionEquals(String value, CharSequence line, int start, int end) {
+        if (value.length() != end - start) return false;
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i - start) != line.charAt(i)) return false;
+        }
+        return true;
+    }
+}
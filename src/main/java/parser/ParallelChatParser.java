@@ -0,0 +1,169 @@
+package parser;
+
+import loader.BlockPartitioner;
+import loader.FileRangeLoader;
+import loader.PartitionLoader;
+import model.ChatMessage;
+import model.FilePartition;
+import util.OrderedTaskStream;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Parses an evidence file on several workers.
+ * <p>
+ * The file is split at block boundaries by a {@link BlockPartitioner}; every partition is parsed
+ * by its own {@link DataParser} run, so no parsing state is shared between workers. Results are
+ * re-assembled in file order, producing exactly the same stream as a sequential parse.
+ */
+public class ParallelChatParser {
+
+    private final DataParser parser;
+    private final BlockPartitioner partitioner;
+    private final PartitionLoader<? extends CharSequence> loader;
+    private final int parallelism;
+
+    public ParallelChatParser(int parallelism) {
+        this(new ChatParser(), parallelism, BlockPartitioner.DEFAULT_PARTITION_SIZE);
+    }
+
+    /**
+     * @param parser        The parser applied to each partition. Must tolerate concurrent calls.
+     * @param parallelism   The number of worker threads.
+     * @param partitionSize The approximate size in bytes of the chunk handed to each worker.
+     */
+    public ParallelChatParser(DataParser parser, int parallelism, long partitionSize) {
+        this(parser, new FileRangeLoader(), parallelism, partitionSize);
+    }
+
+    /**
+     * @param parser        The parser applied to each partition. Must tolerate concurrent calls.
+     * @param loader        The loader reading the lines of each partition.
+     * @param parallelism   The number of worker threads.
+     * @param partitionSize The approximate size in bytes of the chunk handed to each worker.
+     */
+    public ParallelChatParser(DataParser parser, PartitionLoader<? extends CharSequence> loader,
+                              int parallelism, long partitionSize) {
+        this(parser, loader, parallelism, new BlockPartitioner(partitionSize));
+    }
+
+    /**
+     * @param parser      The parser applied to each partition. Must tolerate concurrent calls.
+     * @param loader      The loader reading the lines of each partition.
+     * @param parallelism The number of worker threads.
+     * @param partitioner Splits the file at the block starts of the parsed layout.
+     */
+    public ParallelChatParser(DataParser parser, PartitionLoader<? extends CharSequence> loader,
+                              int parallelism, BlockPartitioner partitioner) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        this.parser = parser;
+        this.partitioner = partitioner;
+        this.loader = loader;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Parses the whole file.
+     *
+     * @param filePath The evidence file.
+     * @return An ordered stream of ChatMessage records. It must be closed to release the workers.
+     * @throws IOException If the file cannot be read or partitioned.
+     */
+    public Stream<ChatMessage> parse(Path filePath) throws IOException {
+        List<FilePartition> partitions = partitioner.partition(filePath);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, workerFactory());
+
+        var tasks = partitions.stream()
+                .map(this::parseTask)
+                .iterator();
+
+        return OrderedTaskStream.of(tasks, executor, parallelism * 2)
+                .onClose(executor::shutdownNow);
+    }
+
+    /**
+     * Parses the whole file and folds it with a collector, without re-assembling the message stream.
+     * <p>
+     * Each worker folds its partition into its own container; the containers are then combined in
+     * file order, so an order-sensitive combiner gets the same result as a sequential collect.
+     *
+     * @param filePath  The evidence file.
+     * @param collector The reduction. Its accumulator is only called by the worker owning the container.
+     * @param <A>       The container type.
+     * @param <R>       The result type.
+     * @return The result of the collector.
+     * @throws IOException If the file cannot be read or partitioned.
+     */
+    public <A, R> R collect(Path filePath, Collector<ChatMessage, A, R> collector) throws IOException {
+        List<FilePartition> partitions = partitioner.partition(filePath);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, workerFactory());
+
+        var tasks = partitions.stream()
+                .map(partition -> collectTask(partition, collector))
+                .iterator();
+
+        try (Stream<A> containers = OrderedTaskStream.of(tasks, executor, parallelism * 2).onClose(executor::shutdownNow)) {
+            A container = containers.reduce(collector.combiner()).orElseGet(collector.supplier());
+            return collector.finisher().apply(container);
+        }
+    }
+
+    /**
+     * Creates the task folding one partition into a container of the collector.
+     *
+     * @param partition The byte range to parse.
+     * @param collector The reduction.
+     * @param <A>       The container type.
+     * @return A task returning a single container.
+     */
+    public <A> Callable<List<A>> collectTask(FilePartition partition, Collector<ChatMessage, A, ?> collector) {
+        return () -> {
+            try (var lines = loader.load(partition)) {
+                return List.of(fold(parser.parse(lines), collector));
+            }
+        };
+    }
+
+    /**
+     * Folds a message stream into a new container of the collector.
+     */
+    public static <A> A fold(Stream<ChatMessage> messages, Collector<ChatMessage, A, ?> collector) {
+        A container = collector.supplier().get();
+        var accumulator = collector.accumulator();
+        messages.forEach(message -> accumulator.accept(container, message));
+        return container;
+    }
+
+    /**
+     * Creates the task parsing one partition into a fully materialized chunk.
+     *
+     * @param partition The byte range to parse.
+     * @return A task returning the messages of the partition, in file order.
+     */
+    public Callable<List<ChatMessage>> parseTask(FilePartition partition) {
+        return () -> {
+            try (var lines = loader.load(partition)) {
+                return parser.parse(lines).toList();
+            }
+        };
+    }
+
+    private static ThreadFactory workerFactory() {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, "parser-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package parser;
+
+import util.PrefixTrie;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Line classifier compiled from a {@link FormatProfile}.
+ * <p>
+ * The block prefix and the metadata keys, each followed by the separator, are merged into a
+ * {@link PrefixTrie} built once per profile and shared by every classifier: a line is walked once,
+ * and each key ending along the way is checked in the priority order of the {@link util.ChatPatterns}
+ * cascade (block start, conversation, platform, date). Lines no key accepts are tried as messages.
+ * Compiled from {@link FormatProfile#DEFAULT}, it classifies exactly as {@link LineClassifier}.
+ */
+public class ProfileLineClassifier extends LineClassifier {
+
+    private final PrefixTrie<LineType> keys;
+    private final char separator;
+    private final FormatProfile.SenderFormat sender;
+
+    private ProfileLineClassifier(PrefixTrie<LineType> keys, char separator, FormatProfile.SenderFormat sender) {
+        this.keys = keys;
+        this.separator = separator;
+        this.sender = sender;
+    }
+
+    /**
+     * @param profile The layout to recognize.
+     * @return A factory of classifiers sharing the trie compiled from the profile.
+     */
+    public static Supplier<LineClassifier> compile(FormatProfile profile) {
+        Map<String, LineType> keyTypes = new LinkedHashMap<>();
+        keyTypes.put(profile.blockPrefix(), LineType.BLOCK_START);
+        keyTypes.putIfAbsent(profile.conversationKey() + profile.separator(), LineType.CONVERSATION);
+        keyTypes.putIfAbsent(profile.platformKey() + profile.separator(), LineType.PLATFORM);
+        keyTypes.putIfAbsent(profile.dateKey() + profile.separator(), LineType.DATE);
+
+        var trie = new PrefixTrie<>(keyTypes);
+        return () -> new ProfileLineClassifier(trie, profile.separator(), profile.sender());
+    }
+
+    @Override
+    public LineType classify(CharSequence line) {
+        int length = line.length();
+        if (length == 0) return LineType.UNRECOGNIZED;
+
+        LineType type = LineType.UNRECOGNIZED;
+        int node = PrefixTrie.ROOT;
+        for (int i = 0; i < length; i++) {
+            node = keys.next(node, line.charAt(i));
+            if (node < 0) break;
+
+            LineType key = keys.value(node);
+            // Keys ending later on the path may still have a higher priority.
+            if (key != null && key.ordinal() < type.ordinal() && accepts(line, key, i + 1)) type = key;
+        }
+        if (type != LineType.UNRECOGNIZED) return type;
+
+        return isMessage(line) ? LineType.MESSAGE : LineType.UNRECOGNIZED;
+    }
+
+    @Override
+    public boolean mayStartMetadata(CharSequence line) {
+        return !line.isEmpty() && keys.startsKey(line.charAt(0));
+    }
+
+    /**
+     * Checks the remainder of a line after a key, and records its group if it is accepted.
+     *
+     * @param end The offset following the key.
+     */
+    private boolean accepts(CharSequence line, LineType key, int end) {
+        if (key != LineType.BLOCK_START) {
+            // <key><separator>(.*)
+            if (hasLineTerminator(line, end)) return false;
+            setGroup(1, end, line.length());
+            return true;
+        }
+
+        // (<prefix>\d+).*
+        int i = end;
+        while (i < line.length() && isDigit(line.charAt(i))) i++;
+        if (i == end || hasLineTerminator(line, i)) return false;
+        setGroup(1, 0, i);
+        return true;
+    }
+
+    private boolean isMessage(CharSequence line) {
+        if (sender == FormatProfile.SenderFormat.EMAIL) return isMessage(line, separator);
+
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (c == separator) break;
+            if (c == '"' || isLineTerminator(c)) return false;
+            i++;
+        }
+        return i > 0 && i < line.length() && setMessageGroups(line, i);
+    }
+}
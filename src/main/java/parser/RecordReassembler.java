@@ -0,0 +1,195 @@
+package parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming stage joining the physical lines of a message whose quoted text contains line breaks.
+ * <p>
+ * A message line whose text opens a quote that is still open at the end of the line starts a record;
+ * the following lines are appended, separated by {@code '\n'}, until the line that closes the quote.
+ * The lookahead is bounded in lines and characters. A record is abandoned when the bound is reached,
+ * when a block start shows up before the quote is closed, when text follows the closing quote, or when
+ * the input ends: its first line is passed on unchanged and the following lines are read again, so
+ * corrupted quotes never swallow a block nor the valid multi-line message that follows them.
+ * <p>
+ * Outside a record, only lines containing a quote are classified, so most lines pass through at the cost of one scan.
+ */
+public class RecordReassembler {
+
+    public static final int DEFAULT_MAX_LINES = 1024;
+    public static final int DEFAULT_MAX_CHARS = 1024 * 1024;
+
+    private final Supplier<? extends LineClassifier> classifierFactory;
+    private final int maxLines;
+    private final int maxChars;
+
+    private final LongAdder repaired = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    public RecordReassembler() {
+        this(DEFAULT_MAX_LINES, DEFAULT_MAX_CHARS);
+    }
+
+    /**
+     * @param maxLines The maximum number of physical lines in a record.
+     * @param maxChars The maximum number of characters in a record.
+     */
+    public RecordReassembler(int maxLines, int maxChars) {
+        this(LineClassifier::new, maxLines, maxChars);
+    }
+
+    /**
+     * @param classifierFactory Recognizes message lines and block starts, e.g. the classifiers of a {@link FormatProfile}.
+     * @param maxLines          The maximum number of physical lines in a record.
+     * @param maxChars          The maximum number of characters in a record.
+     */
+    public RecordReassembler(Supplier<? extends LineClassifier> classifierFactory, int maxLines, int maxChars) {
+        if (maxLines < 2) throw new IllegalArgumentException("A record spans at least 2 lines: " + maxLines);
+        if (maxChars <= 0) throw new IllegalArgumentException("Max chars must be positive: " + maxChars);
+
+        this.classifierFactory = classifierFactory;
+        this.maxLines = maxLines;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Counters shared by every stream of this reassembler.
+     *
+     * @param repaired  Records rebuilt from several physical lines.
+     * @param abandoned Records whose quote was not closed within the bounds; their first line was passed on unchanged.
+     */
+    public record Stats(long repaired, long abandoned) {}
+
+    public Stats stats() {
+        return new Stats(repaired.sum(), abandoned.sum());
+    }
+
+    /**
+     * @param lines The physical lines.
+     * @return The logical records: the lines themselves, or Strings joining the lines of a multi-line message.
+     */
+    public Stream<CharSequence> reassemble(Stream<? extends CharSequence> lines) {
+        return StreamSupport.stream(new RecordSpliterator(lines.iterator()), false).onClose(lines::close);
+    }
+
+    private final class RecordSpliterator extends Spliterators.AbstractSpliterator<CharSequence> {
+        private final Iterator<? extends CharSequence> lines;
+        private final LineClassifier classifier = classifierFactory.get();
+
+        // Lines to read again before the input: the lines following the first one of an abandoned record.
+        private final ArrayDeque<CharSequence> pending = new ArrayDeque<>();
+        private final List<String> recordLines = new ArrayList<>();
+        private final StringBuilder record = new StringBuilder();
+
+        RecordSpliterator(Iterator<? extends CharSequence> lines) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.lines = lines;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CharSequence> action) {
+            if (!hasNextLine()) return false;
+
+            CharSequence line = nextLine();
+            if (line == null || !opensRecord(line)) {
+                action.accept(line);
+                return true;
+            }
+
+            action.accept(readRecord(line));
+            return true;
+        }
+
+        /**
+         * @return True if the line is a message whose quoted text is still open at the end of the line.
+         */
+        private boolean opensRecord(CharSequence line) {
+            if (!containsQuote(line) || classifier.classify(line) != LineType.MESSAGE) return false;
+
+            int start = classifier.start(2);
+            return start < line.length() && line.charAt(start) == '"' && closingQuote(line, start + 1) < 0;
+        }
+
+        /**
+         * Appends lines to the record until its quote closes; returns the first line if the record is abandoned.
+         */
+        private CharSequence readRecord(CharSequence first) {
+            recordLines.clear();
+            record.setLength(0);
+            recordLines.add(first.toString());
+            record.append(first);
+
+            while (hasNextLine()) {
+                CharSequence line = nextLine();
+                if (line == null || classifier.classify(line) == LineType.BLOCK_START) return abandon(line);
+
+                recordLines.add(line.toString());
+                record.append('\n').append(line);
+                if (recordLines.size() > maxLines || record.length() > maxChars) return abandon(null);
+
+                int close = closingQuote(line, 0);
+                if (close < 0) continue;
+                // The quoted text must be the end of the record.
+                if (close != line.length() - 1) return abandon(null);
+
+                repaired.increment();
+                return record.toString();
+            }
+            return abandon(null);
+        }
+
+        private boolean hasNextLine() {
+            return !pending.isEmpty() || lines.hasNext();
+        }
+
+        private CharSequence nextLine() {
+            return pending.isEmpty() ? lines.next() : pending.poll();
+        }
+
+        /**
+         * Puts the lines of the record after the first one back in front of the input, followed by
+         * {@code next} if it was read but not appended, and returns the first line.
+         */
+        private CharSequence abandon(CharSequence next) {
+            abandoned.increment();
+            if (next != null) pending.addFirst(next);
+            for (int i = recordLines.size() - 1; i > 0; i--) pending.addFirst(recordLines.get(i));
+            record.setLength(0);
+            return recordLines.getFirst();
+        }
+    }
+
+    /**
+     * @return The index of the quote closing a quoted text that starts before {@code from}, or -1 if it is still open.
+     */
+    private static int closingQuote(CharSequence line, int from) {
+        int length = line.length();
+        for (int i = from; i < length; i++) {
+            if (line.charAt(i) != '"') continue;
+            if (i + 1 < length && line.charAt(i + 1) == '"') {
+                i++;
+                continue;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static boolean containsQuote(CharSequence line) {
+        if (line instanceof String string) return string.indexOf('"') >= 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package parser;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static util.ChatPatterns.*;
+
+/**
+ * Reference classifier running the {@link util.ChatPatterns} cascade.
+ * <p>
+ * Kept as a validation fallback for {@link LineClassifier}: it is slower, as every rule allocates
+ * a Matcher and message lines pay for all five attempts, but it is the source of truth for the format.
+ */
+public class RegexLineClassifier extends LineClassifier {
+
+    @Override
+    public LineType classify(CharSequence line) {
+        if (matches(BLOCK_START, line)) return LineType.BLOCK_START;
+        if (matches(CONVERSATION_KEY, line)) return LineType.CONVERSATION;
+        if (matches(PLATFORM_KEY, line)) return LineType.PLATFORM;
+        if (matches(DATE_KEY, line)) return LineType.DATE;
+        if (matches(MESSAGE_LINE, line) || matches(MULTILINE_MESSAGE, line)) return LineType.MESSAGE;
+        return LineType.UNRECOGNIZED;
+    }
+
+    private boolean matches(Pattern pattern, CharSequence line) {
+        Matcher matcher = pattern.matcher(line);
+        if (!matcher.matches()) return false;
+
+        for (int group = 1; group <= matcher.groupCount(); group++) {
+            setGroup(group, matcher.start(group), matcher.end(group));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package parser;
+
+/**
+ * Representations of the block timestamp written to {@link model.ChatMessage#timestamp()}.
+ */
+public enum TimestampFormat {
+    /**
+     * The "Date and time" value as found in the evidence, e.g. {@code 10/10/19 4:10:12 PM}.
+     */
+    RAW,
+    /**
+     * ISO-8601 date-time with its offset, e.g. {@code 2019-10-10T16:10:12Z}.
+     */
+    ISO,
+    /**
+     * Milliseconds since the Unix epoch, e.g. {@code 1570723812000}.
+     */
+    EPOCH
+}
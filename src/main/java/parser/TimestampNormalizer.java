@@ -0,0 +1,72 @@
+package parser;
+
+import util.TimestampParser;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Converts block timestamps to a {@link TimestampFormat} while parsing, so that sorting and range
+ * queries downstream do not have to parse them again.
+ * <p>
+ * The value is computed once per block and shared by all of its messages. Consecutive blocks usually
+ * carry the same or a recent date, so the last conversion is also cached. Values that cannot be parsed
+ * are kept raw. Instances are immutable apart from the cache and can be shared by parallel parsers.
+ */
+public class TimestampNormalizer {
+
+    /**
+     * Keeps timestamps as found in the evidence.
+     */
+    public static final TimestampNormalizer RAW = new TimestampNormalizer(TimestampFormat.RAW, ZoneOffset.UTC);
+
+    private record Conversion(String raw, String value) {}
+
+    private final TimestampFormat format;
+    private final ZoneId zone;
+    private volatile Conversion last = new Conversion(null, null);
+
+    /**
+     * @param format The representation to produce.
+     * @param zone   The time zone of the wall-clock times found in the evidence.
+     */
+    public TimestampNormalizer(TimestampFormat format, ZoneId zone) {
+        this.format = format;
+        this.zone = zone;
+    }
+
+    public TimestampFormat format() {
+        return format;
+    }
+
+    /**
+     * @param raw The "Date and time" value of a block, or null.
+     * @return The converted value, or {@code raw} if the format is {@link TimestampFormat#RAW} or the value is invalid.
+     */
+    public String normalize(String raw) {
+        if (raw == null || format == TimestampFormat.RAW) return raw;
+
+        Conversion cached = last;
+        if (raw.equals(cached.raw())) return cached.value();
+
+        String value = convert(raw);
+        last = new Conversion(raw, value);
+        return value;
+    }
+
+    private String convert(String raw) {
+        long localSeconds = TimestampParser.parseLocalSeconds(raw);
+        if (localSeconds == TimestampParser.INVALID) return raw;
+
+        ZoneOffset offset = zone instanceof ZoneOffset fixed
+                ? fixed
+                : zone.getRules().getOffset(LocalDateTime.ofEpochSecond(localSeconds, 0, ZoneOffset.UTC));
+
+        return switch (format) {
+            case ISO -> TimestampParser.formatIso(localSeconds) + offset.getId();
+            case EPOCH -> Long.toString((localSeconds - offset.getTotalSeconds()) * 1000);
+            case RAW -> raw;
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package pipeline;
+
+import exporter.AppendableExporter;
+import exporter.ReportWriter;
+import loader.BlockPartitioner;
+import loader.PartitionLoader;
+import model.ChatMessage;
+import model.Checkpoint;
+import model.FilePartition;
+import parser.DataParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Properties;
+
+/**
+ * Exports a single evidence file one block-aligned range at a time, recording its progress in a
+ * sidecar checkpoint file so that an interrupted run can be resumed instead of restarted.
+ * <p>
+ * After each range the report is synced to disk, and only then is the checkpoint atomically replaced:
+ * a checkpoint never points past data that is not durable. Resuming truncates the report back to the
+ * checkpointed size, which also discards any partial record written after the last checkpoint.
+ */
+public class CheckpointedProcessor {
+
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 64L * 1024 * 1024;
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    private final DataParser parser;
+    private final PartitionLoader<? extends CharSequence> loader;
+    private final BlockPartitioner partitioner;
+
+    public CheckpointedProcessor(DataParser parser, PartitionLoader<? extends CharSequence> loader) {
+        this(parser, loader, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param parser             The parser applied to each range.
+     * @param loader             The loader reading each range.
+     * @param checkpointInterval The approximate number of input bytes exported between two checkpoints.
+     */
+    public CheckpointedProcessor(DataParser parser, PartitionLoader<? extends CharSequence> loader, long checkpointInterval) {
+        this(parser, loader, new BlockPartitioner(checkpointInterval));
+    }
+
+    /**
+     * @param parser      The parser applied to each range.
+     * @param loader      The loader reading each range.
+     * @param partitioner Splits the file at the block starts of the parsed layout, one checkpoint per partition.
+     */
+    public CheckpointedProcessor(DataParser parser, PartitionLoader<? extends CharSequence> loader, BlockPartitioner partitioner) {
+        this.parser = parser;
+        this.loader = loader;
+        this.partitioner = partitioner;
+    }
+
+    /**
+     * @param outputPath The report path.
+     * @return The sidecar file holding the checkpoint of that report.
+     */
+    public static Path checkpointFor(Path outputPath) {
+        return outputPath.resolveSibling(outputPath.getFileName() + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * @param outputPath The report path.
+     * @return The checkpoint left by an interrupted run, or null if there is none.
+     * @throws IOException If the checkpoint exists but cannot be read.
+     */
+    public static Checkpoint readCheckpoint(Path outputPath) throws IOException {
+        Path checkpointFile = checkpointFor(outputPath);
+        var properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        try {
+            return new Checkpoint(
+                    Path.of(required(properties, "input")),
+                    Long.parseLong(required(properties, "inputSize")),
+                    Long.parseLong(required(properties, "inputModified")),
+                    required(properties, "exporter"),
+                    Long.parseLong(required(properties, "inputOffset")),
+                    Long.parseLong(required(properties, "outputSize")),
+                    Long.parseLong(required(properties, "records"))
+            );
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupted checkpoint " + checkpointFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Exports the evidence file, checkpointing after every range. The checkpoint is deleted once
+     * the report is complete.
+     *
+     * @param inputFile  The evidence file.
+     * @param outputPath The report path.
+     * @param exporter   The exporter writing the report.
+     * @param resume     True to continue from the existing checkpoint, false to start a new report.
+     * @return The number of input bytes processed by this call.
+     * @throws IOException If the input or report cannot be accessed, or if the checkpoint is missing
+     *                     or does not match the input and exporter.
+     */
+    public long export(Path inputFile, Path outputPath, AppendableExporter<ChatMessage> exporter, boolean resume)
+            throws IOException {
+        if (Files.isDirectory(inputFile)) throw new IOException("Not a regular file: " + inputFile);
+
+        Path checkpointFile = checkpointFor(outputPath);
+        Checkpoint checkpoint = new Checkpoint(inputFile.toAbsolutePath().normalize(), Files.size(inputFile),
+                Files.getLastModifiedTime(inputFile).toMillis(), exporter.getClass().getName(), 0, 0, 0);
+        ReportWriter<ChatMessage> writer;
+
+        if (resume) {
+            Checkpoint saved = readCheckpoint(outputPath);
+            if (saved == null) throw new IOException("No checkpoint to resume from: " + checkpointFile);
+            verify(saved, checkpoint);
+
+            checkpoint = saved;
+            writer = exporter.resume(outputPath, saved.outputSize(), saved.records());
+        } else {
+            writer = exporter.open(outputPath);
+            // Replaces any stale checkpoint left by another run on the same report.
+            checkpoint = checkpoint.advance(0, writer.sync(), writer.records());
+            write(checkpoint, checkpointFile);
+        }
+
+        long startOffset = checkpoint.inputOffset();
+
+        try (writer) {
+            for (FilePartition partition : partitioner.partition(inputFile, startOffset)) {
+                try (var lines = loader.load(partition); var messages = parser.parse(lines)) {
+                    Iterator<ChatMessage> iterator = messages.iterator();
+                    while (iterator.hasNext()) {
+                        writer.write(iterator.next());
+                    }
+                }
+                checkpoint = checkpoint.advance(partition.end(), writer.sync(), writer.records());
+                write(checkpoint, checkpointFile);
+            }
+        }
+
+        Files.deleteIfExists(checkpointFile);
+        return checkpoint.inputSize() - startOffset;
+    }
+
+    private static void verify(Checkpoint saved, Checkpoint current) throws IOException {
+        if (!saved.input().equals(current.input())) {
+            throw new IOException("Checkpoint was written for " + saved.input() + ", not " + current.input());
+        }
+        if (saved.inputSize() != current.inputSize() || saved.inputModified() != current.inputModified()) {
+            throw new IOException("Evidence file " + current.input() + " changed since the checkpoint was written");
+        }
+        if (!saved.exporter().equals(current.exporter())) {
+            throw new IOException("Checkpoint was written by another report format (" + saved.exporter() + ")");
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file, forces it to disk and moves it over the previous one.
+     */
+    private static void write(Checkpoint checkpoint, Path checkpointFile) throws IOException {
+        var properties = new Properties();
+        properties.setProperty("input", checkpoint.input().toString());
+        properties.setProperty("inputSize", Long.toString(checkpoint.inputSize()));
+        properties.setProperty("inputModified", Long.toString(checkpoint.inputModified()));
+        properties.setProperty("exporter", checkpoint.exporter());
+        properties.setProperty("inputOffset", Long.toString(checkpoint.inputOffset()));
+        properties.setProperty("outputSize", Long.toString(checkpoint.outputSize()));
+        properties.setProperty("records", Long.toString(checkpoint.records()));
+
+        var content = new StringWriter();
+        properties.store(content, "forensic-data-transformer checkpoint");
+
+        Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String required(Properties properties, String key) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null) throw new IOException("Corrupted checkpoint: missing '" + key + "'");
+        return value;
+    }
+}
@@ -0,0 +1,183 @@
+package pipeline;
+
+import exporter.DataExporter;
+import loader.BlockPartitioner;
+import loader.CompressedLoader;
+import loader.PartitionLoader;
+import model.ChatMessage;
+import model.FilePartition;
+import parser.DataParser;
+import parser.ParallelChatParser;
+import util.Compression;
+import util.OrderedTaskStream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Processes many evidence files in a single JVM on a bounded pool of virtual threads.
+ * <p>
+ * Files are either merged into one ordered message stream, or exported one report per source file.
+ * In both modes at most {@code maxConcurrency} units of work are in flight, so a slow exporter
+ * throttles the readers instead of letting parsed data pile up in memory.
+ * <p>
+ * Compressed files cannot be split or read by range: they are streamed whole by a {@link CompressedLoader}.
+ */
+public class MultiFileProcessor {
+
+    private final DataParser parser;
+    private final PartitionLoader<? extends CharSequence> loader;
+    private final ParallelChatParser partitionParser;
+    private final BlockPartitioner partitioner;
+    private final CompressedLoader compressedLoader = new CompressedLoader();
+    private final int maxConcurrency;
+
+    /**
+     * @param parser         The parser applied to each file. Must tolerate concurrent calls.
+     * @param loader         The loader reading each file or partition.
+     * @param maxConcurrency The maximum number of files or partitions processed at the same time.
+     */
+    public MultiFileProcessor(DataParser parser, PartitionLoader<? extends CharSequence> loader, int maxConcurrency) {
+        this(parser, loader, maxConcurrency, new BlockPartitioner());
+    }
+
+    /**
+     * @param parser         The parser applied to each file. Must tolerate concurrent calls.
+     * @param loader         The loader reading each file or partition.
+     * @param maxConcurrency The maximum number of files or partitions processed at the same time.
+     * @param partitioner    Splits large files at the block starts of the parsed layout.
+     */
+    public MultiFileProcessor(DataParser parser, PartitionLoader<? extends CharSequence> loader, int maxConcurrency,
+                              BlockPartitioner partitioner) {
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("Concurrency must be positive: " + maxConcurrency);
+
+        this.parser = parser;
+        this.loader = loader;
+        this.partitionParser = new ParallelChatParser(parser, loader, maxConcurrency, partitioner);
+        this.partitioner = partitioner;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Parses all files into a single stream, in file order then block order.
+     * Large files are split at block boundaries so that they do not serialize the run.
+     *
+     * @param files The evidence files, in the order of the merged report.
+     * @return The merged message stream. It must be closed to release the workers.
+     */
+    public Stream<ChatMessage> parseMerged(List<Path> files) {
+        return runMerged(files, partitionParser::parseTask, Stream::toList);
+    }
+
+    /**
+     * Parses all files and folds them with a collector. Every file or partition is folded into its own
+     * container by the worker parsing it; containers are combined in file order then block order.
+     *
+     * @param files     The evidence files.
+     * @param collector The reduction. Its accumulator is only called by the worker owning the container.
+     * @param <A>       The container type.
+     * @param <R>       The result type.
+     * @return The result of the collector.
+     */
+    public <A, R> R collectMerged(List<Path> files, Collector<ChatMessage, A, R> collector) {
+        try (Stream<A> containers = runMerged(files, partition -> partitionParser.collectTask(partition, collector),
+                messages -> List.of(ParallelChatParser.fold(messages, collector)))) {
+            A container = containers.reduce(collector.combiner()).orElseGet(collector.supplier());
+            return collector.finisher().apply(container);
+        }
+    }
+
+    /**
+     * Runs one task per partition of each file, or per compressed file, and streams their results in order.
+     */
+    private <T> Stream<T> runMerged(List<Path> files, Function<FilePartition, Callable<List<T>>> partitionTask,
+                                    Function<Stream<ChatMessage>, List<T>> wholeFile) {
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrency, Thread.ofVirtual().name("ingest-", 1).factory());
+
+        var tasks = files.stream()
+                .<Callable<List<T>>>mapMulti((file, sink) -> {
+                    if (isCompressed(file)) {
+                        sink.accept(() -> {
+                            try (var lines = compressedLoader.load(file)) {
+                                return wholeFile.apply(parser.parse(lines));
+                            }
+                        });
+                        return;
+                    }
+                    for (FilePartition partition : partitions(file)) {
+                        sink.accept(partitionTask.apply(partition));
+                    }
+                })
+                .iterator();
+
+        return OrderedTaskStream.of(tasks, executor, maxConcurrency)
+                .onClose(executor::shutdownNow);
+    }
+
+    /**
+     * Exports one report per source file. A failing file does not stop the others.
+     *
+     * @param files     The evidence files.
+     * @param outputFor Maps each evidence file to its report path; parent directories are created.
+     * @param exporter  The exporter shared by all workers. Must tolerate concurrent calls.
+     * @return The failures, keyed by evidence file; empty when every report was written.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for a free worker.
+     */
+    public Map<Path, Exception> exportEach(List<Path> files, Function<Path, Path> outputFor,
+                                           DataExporter<ChatMessage> exporter) throws InterruptedException {
+        Map<Path, Exception> failures = new ConcurrentSkipListMap<>();
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path file : files) {
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        exportOne(file, outputFor.apply(file), exporter);
+                    } catch (Exception e) {
+                        failures.put(file, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return failures;
+    }
+
+    private void exportOne(Path file, Path output, DataExporter<ChatMessage> exporter) throws IOException {
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+
+        try (var lines = isCompressed(file) ? compressedLoader.load(file) : loader.load(file)) {
+            exporter.export(parser.parse(lines), output);
+        }
+    }
+
+    private static boolean isCompressed(Path file) {
+        try {
+            return Compression.detect(file) != Compression.NONE;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<FilePartition> partitions(Path file) {
+        try {
+            return partitioner.partition(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
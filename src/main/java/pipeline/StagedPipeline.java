@@ -0,0 +1,297 @@
+package pipeline;
+
+import loader.FileLoader;
+import model.ChatMessage;
+import model.StageMetrics;
+import parser.DataParser;
+import util.Backoff;
+import util.SpscRingBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs loading, parsing and serialization of one evidence file on separate threads.
+ * <p>
+ * A reader thread decodes lines and a parser thread turns them into messages; the thread consuming
+ * the returned stream (typically an exporter) serializes them. Stages exchange batches through bounded
+ * {@link SpscRingBuffer} queues, so disk reads, line recognition and writing overlap while a slow stage
+ * still throttles the faster ones. Every stage records how long it worked, waited for input (starved)
+ * or waited for room downstream (blocked); see {@link #metrics()}.
+ */
+public class StagedPipeline {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 32;
+
+    private final FileLoader<? extends CharSequence> loader;
+    private final DataParser parser;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    private volatile Run current;
+
+    public StagedPipeline(FileLoader<? extends CharSequence> loader, DataParser parser) {
+        this(loader, parser, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param loader        The loader run on the reader thread.
+     * @param parser        The parser run on the parser thread.
+     * @param batchSize     The number of lines or messages per batch.
+     * @param queueCapacity The capacity in batches of each queue, rounded up to a power of two.
+     */
+    public StagedPipeline(FileLoader<? extends CharSequence> loader, DataParser parser, int batchSize, int queueCapacity) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+
+        this.loader = loader;
+        this.parser = parser;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Starts the reader and parser threads on the file.
+     *
+     * @param filePath The evidence file.
+     * @return The ordered message stream. It must be closed to stop the stages early.
+     * @throws IOException If the file cannot be opened.
+     */
+    public Stream<ChatMessage> parse(Path filePath) throws IOException {
+        Stream<? extends CharSequence> lines = loader.load(filePath);
+
+        var run = new Run();
+        current = run;
+        run.start(lines);
+
+        return StreamSupport.stream(run.new BatchSpliterator<>(run.messages, run.serializing, true), false)
+                .onClose(run::cancel);
+    }
+
+    /**
+     * @return The metrics of the reader, parser and serializer stages of the latest run, live while it is running.
+     */
+    public List<StageMetrics> metrics() {
+        Run run = current;
+        return run == null ? List.of() : List.of(run.reading.snapshot(), run.parsing.snapshot(), run.serializing.snapshot());
+    }
+
+    /**
+     * Counters of one stage. Each is written by the stage thread only, hence plain volatile increments.
+     */
+    private static final class Stage {
+        private final String name;
+        private final int queueCapacity;
+
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile long batches;
+        private volatile long records;
+        private volatile long starvedNanos;
+        private volatile long blockedNanos;
+        private volatile long depthSum;
+        private volatile long depthSamples;
+        private volatile int maxDepth;
+
+        Stage(String name, int queueCapacity) {
+            this.name = name;
+            this.queueCapacity = queueCapacity;
+        }
+
+        void begin() {
+            if (startNanos == 0) startNanos = System.nanoTime();
+        }
+
+        void end() {
+            if (endNanos == 0 && startNanos != 0) endNanos = System.nanoTime();
+        }
+
+        void emitted(int size) {
+            batches++;
+            records += size;
+        }
+
+        void sampleDepth(int depth) {
+            depthSum += depth;
+            depthSamples++;
+            if (depth > maxDepth) maxDepth = depth;
+        }
+
+        StageMetrics snapshot() {
+            long start = startNanos;
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            long lifetime = start == 0 ? 0 : end - start;
+            long starved = starvedNanos;
+            long blocked = blockedNanos;
+            long samples = depthSamples;
+
+            return new StageMetrics(name, batches, records, Math.max(0, lifetime - starved - blocked), starved, blocked,
+                    queueCapacity, samples == 0 ? 0 : (double) depthSum / samples, maxDepth);
+        }
+    }
+
+    /**
+     * State of one run: the two queues, the stage counters and the first failure.
+     * An empty batch marks the end of a queue.
+     */
+    private final class Run {
+        private final SpscRingBuffer<List<CharSequence>> lines = new SpscRingBuffer<>(queueCapacity);
+        private final SpscRingBuffer<List<ChatMessage>> messages = new SpscRingBuffer<>(queueCapacity);
+
+        private final Stage reading = new Stage("reader", 0);
+        private final Stage parsing = new Stage("parser", lines.capacity());
+        private final Stage serializing = new Stage("serializer", messages.capacity());
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        void start(Stream<? extends CharSequence> source) {
+            Thread.ofPlatform().daemon().name("pipeline-reader").start(() -> read(source));
+            Thread.ofPlatform().daemon().name("pipeline-parser").start(this::parse);
+        }
+
+        private void read(Stream<? extends CharSequence> source) {
+            reading.begin();
+            try (source) {
+                List<CharSequence> batch = new ArrayList<>(batchSize);
+                Iterator<? extends CharSequence> iterator = source.iterator();
+                while (iterator.hasNext()) {
+                    batch.add(iterator.next());
+                    if (batch.size() == batchSize) {
+                        put(lines, batch, reading);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) put(lines, batch, reading);
+                put(lines, List.of(), reading);
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                reading.end();
+            }
+        }
+
+        private void parse() {
+            parsing.begin();
+            try (var input = StreamSupport.stream(new BatchSpliterator<>(lines, parsing, false), false)) {
+                List<ChatMessage> batch = new ArrayList<>(batchSize);
+                Iterator<ChatMessage> iterator = parser.parse(input).iterator();
+                while (iterator.hasNext()) {
+                    batch.add(iterator.next());
+                    if (batch.size() == batchSize) {
+                        put(messages, batch, parsing);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) put(messages, batch, parsing);
+                put(messages, List.of(), parsing);
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                parsing.end();
+            }
+        }
+
+        private <T> void put(SpscRingBuffer<List<T>> queue, List<T> batch, Stage stage) {
+            checkRunning();
+            if (!queue.offer(batch)) {
+                long waitStart = System.nanoTime();
+                var backoff = new Backoff();
+                while (!queue.offer(batch)) {
+                    checkRunning();
+                    backoff.idle();
+                }
+                stage.blockedNanos += System.nanoTime() - waitStart;
+            }
+            if (!batch.isEmpty()) stage.emitted(batch.size());
+        }
+
+        private <T> List<T> take(SpscRingBuffer<List<T>> queue, Stage stage) {
+            stage.sampleDepth(queue.size());
+
+            List<T> batch = queue.poll();
+            if (batch == null) {
+                long waitStart = System.nanoTime();
+                var backoff = new Backoff();
+                while ((batch = queue.poll()) == null) {
+                    checkRunning();
+                    backoff.idle();
+                }
+                stage.starvedNanos += System.nanoTime() - waitStart;
+            }
+            return batch;
+        }
+
+        private void checkRunning() {
+            Throwable cause = failure.get();
+            if (cause != null) throw propagate(cause);
+            if (cancelled) throw new CancellationException("Pipeline closed");
+        }
+
+        private void fail(Throwable e) {
+            if (!(e instanceof CancellationException)) failure.compareAndSet(null, e);
+        }
+
+        void cancel() {
+            cancelled = true;
+            serializing.end();
+        }
+
+        /**
+         * Flattens the batches of a queue into single elements for the consuming stage.
+         */
+        private final class BatchSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+            private final SpscRingBuffer<List<T>> queue;
+            private final Stage stage;
+            private final boolean countsOutput;
+            private Iterator<T> current = Collections.emptyIterator();
+            private boolean done;
+
+            BatchSpliterator(SpscRingBuffer<List<T>> queue, Stage stage, boolean countsOutput) {
+                super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+                this.queue = queue;
+                this.stage = stage;
+                this.countsOutput = countsOutput;
+            }
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                while (!current.hasNext()) {
+                    if (done) return false;
+                    stage.begin();
+
+                    List<T> batch = take(queue, stage);
+                    if (batch.isEmpty()) {
+                        done = true;
+                        if (countsOutput) stage.end();
+                        return false;
+                    }
+                    if (countsOutput) stage.emitted(batch.size());
+                    current = batch.iterator();
+                }
+                action.accept(current.next());
+                return true;
+            }
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) return runtime;
+        if (cause instanceof IOException io) return new UncheckedIOException(io);
+        if (cause instanceof Error error) throw error;
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,247 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resident server running transformation jobs received on a Unix domain socket.
+ * <p>
+ * A client connects, sends the command-line arguments of one job, one per line, and ends them with an
+ * empty line or by shutting down its output. The request is read on a virtual thread, and the connection
+ * is dropped if it is not complete within the request timeout, so idle clients never hold a worker.
+ * Jobs run on at most {@code parallelism} workers; up to
+ * {@code queueCapacity} more wait for a worker, beyond which new jobs are refused. Everything a job
+ * prints is streamed back to its client, followed by a last line {@code EXIT <code>}. A request
+ * without arguments runs nothing and is answered {@code EXIT 0}, e.g. to check that the daemon is up.
+ * <p>
+ * The JVM, with its loaded classes and JIT profile, and whatever the {@link Job} keeps across calls
+ * are shared by all jobs, so a small file costs little more than its actual processing.
+ */
+public class JobServer implements Closeable {
+
+    public static final String EXIT_PREFIX = "EXIT ";
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * One job, typically a command-line run. Called concurrently by the workers.
+     */
+    @FunctionalInterface
+    public interface Job {
+        /**
+         * @param args The arguments sent by the client.
+         * @param out  The stream sent back to the client, for both output and errors.
+         * @return The exit code.
+         */
+        int run(String[] args, PrintStream out);
+    }
+
+    /**
+     * @param queued    Jobs currently waiting for a worker.
+     * @param completed Jobs run to completion, whatever their exit code.
+     * @param refused   Jobs refused because the queue was full or the daemon was stopping.
+     */
+    public record Stats(int queued, long completed, long refused) {}
+
+    private final Path socket;
+    private final Job job;
+    private final ThreadPoolExecutor workers;
+    private final Duration requestTimeout;
+    private final ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().daemon().name("request-timeout").unstarted(runnable));
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private ServerSocketChannel channel;
+
+    public JobServer(Path socket, Job job, int parallelism) {
+        this(socket, job, parallelism, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public JobServer(Path socket, Job job, int parallelism, int queueCapacity) {
+        this(socket, job, parallelism, queueCapacity, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * @param socket         The path of the socket file.
+     * @param job            Runs the arguments of each request.
+     * @param parallelism    The maximum number of jobs running at the same time.
+     * @param queueCapacity  The maximum number of jobs waiting for a worker.
+     * @param requestTimeout The time a client has to send its arguments after connecting.
+     */
+    public JobServer(Path socket, Job job, int parallelism, int queueCapacity, Duration requestTimeout) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        if (!requestTimeout.isPositive()) throw new IllegalArgumentException("Request timeout must be positive: " + requestTimeout);
+
+        this.socket = socket;
+        this.job = job;
+        this.requestTimeout = requestTimeout;
+        var counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> Thread.ofPlatform().daemon().name("job-" + counter.incrementAndGet()).unstarted(runnable));
+    }
+
+    /**
+     * Binds the socket. A socket file left by a daemon that is no longer running is replaced.
+     *
+     * @throws IOException If another daemon listens on the socket or it cannot be bound.
+     */
+    public void start() throws IOException {
+        var address = UnixDomainSocketAddress.of(socket);
+        if (Files.exists(socket)) {
+            if (isListening(address)) throw new IOException("A daemon is already listening on " + socket);
+            Files.delete(socket);
+        }
+        channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.bind(address);
+    }
+
+    /**
+     * Connects without sending arguments, which a running daemon answers as a ping.
+     */
+    private static boolean isListening(UnixDomainSocketAddress address) {
+        try (var probe = SocketChannel.open(address)) {
+            return probe.isConnected();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Accepts jobs until {@link #close()} is called.
+     *
+     * @throws IOException If the socket fails.
+     */
+    public void serve() throws IOException {
+        if (channel == null) throw new IllegalStateException("Server not started");
+
+        while (true) {
+            SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+
+            Thread.ofVirtual().name("request").start(() -> dispatch(client));
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(workers.getQueue().size(), completed.sum(), refused.sum());
+    }
+
+    /**
+     * Reads a request within the timeout, then queues it for a worker. Runs on its own virtual thread.
+     */
+    private void dispatch(SocketChannel client) {
+        List<String> args;
+        var timeout = timeouts.schedule(() -> closeQuietly(client), requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            args = readArgs(client);
+        } catch (IOException e) {
+            // Timed out, or the client went away.
+            closeQuietly(client);
+            return;
+        } finally {
+            timeout.cancel(false);
+        }
+
+        if (args.isEmpty()) {
+            reply(client, EXIT_PREFIX + 0);
+            return;
+        }
+        try {
+            workers.execute(() -> handle(client, args));
+        } catch (RejectedExecutionException e) {
+            refused.increment();
+            reply(client, workers.isShutdown() ? "Error: The daemon is stopping." : "Error: The job queue is full, retry later.",
+                    EXIT_PREFIX + 1);
+        }
+    }
+
+    private void handle(SocketChannel client, List<String> args) {
+        try (client; var out = new PrintStream(Channels.newOutputStream(client), true, StandardCharsets.UTF_8)) {
+            int exitCode;
+            try {
+                exitCode = job.run(args.toArray(String[]::new), out);
+            } catch (RuntimeException e) {
+                out.println("Error: " + e);
+                exitCode = 2;
+            }
+            out.println(EXIT_PREFIX + exitCode);
+            completed.increment();
+        } catch (IOException e) {
+            // The client went away; nobody is left to tell.
+        }
+    }
+
+    private static void reply(SocketChannel client, String... lines) {
+        try (client; var out = new PrintStream(Channels.newOutputStream(client), true, StandardCharsets.UTF_8)) {
+            for (String line : lines) out.println(line);
+        } catch (IOException e) {
+            // The client went away.
+        }
+    }
+
+    private static void closeQuietly(SocketChannel client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            // Nothing left to release.
+        }
+    }
+
+    private static List<String> readArgs(SocketChannel client) throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+        List<String> args = new ArrayList<>();
+        for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+            args.add(line);
+        }
+        return args;
+    }
+
+    /**
+     * Stops accepting jobs, waits for the queued and running ones, then removes the socket file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+        workers.shutdown();
+        timeouts.shutdownNow();
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Jobs have no time limit.
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            Files.deleteIfExists(socket);
+        }
+    }
+}
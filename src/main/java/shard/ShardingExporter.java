@@ -0,0 +1,315 @@
+package shard;
+
+import exporter.DataExporter;
+import model.ChatMessage;
+import model.ShardManifest;
+import util.BatchPipeline;
+import util.Compression;
+import util.SpscRingBuffer;
+
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Exporter decorator splitting a report into numbered shards written by separate threads.
+ * <p>
+ * The report path {@code report.csv} becomes {@code report-00001.csv}, {@code report-00002.csv}, ... plus
+ * {@code report.csv.manifest.json} listing the row range, size and SHA-256 checksum of each shard. With
+ * {@link Mode#ROWS} and {@link Mode#BYTES} a new shard is started when the current one is full, while the
+ * previous ones are still being written, up to a number of concurrent writers. With {@link Mode#CONVERSATION}
+ * every shard is open for the whole run and receives the conversations hashed to it, so that a conversation
+ * never spans two shards.
+ */
+public class ShardingExporter implements DataExporter<ChatMessage> {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    // Every conversation shard has its own writer thread and open file for the whole run.
+    public static final int MAX_CONVERSATION_SHARDS = 256;
+
+    // Separators, quotes and line break of one record, added to the field lengths by the BYTES estimate.
+    private static final int RECORD_OVERHEAD_BYTES = 16;
+
+    public enum Mode {
+        /** A new shard every {@code limit} messages. */
+        ROWS,
+        /** A new shard once about {@code limit} bytes of message fields were written, estimated from their lengths. */
+        BYTES,
+        /** {@code limit} shards, each receiving the conversations whose identifier hashes to it. */
+        CONVERSATION
+    }
+
+    private final DataExporter<ChatMessage> delegate;
+    private final Mode mode;
+    private final long limit;
+    private final int writers;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public ShardingExporter(DataExporter<ChatMessage> delegate, Mode mode, long limit, int writers) {
+        this(delegate, mode, limit, writers, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param delegate      The exporter writing each shard.
+     * @param mode          How messages are assigned to shards.
+     * @param limit         The rows or bytes per shard, or the number of shards for {@link Mode#CONVERSATION}.
+     * @param writers       The maximum number of shards written concurrently with ROWS and BYTES; CONVERSATION
+     *                      writes its {@code limit} shards concurrently, at most {@link #MAX_CONVERSATION_SHARDS}.
+     * @param batchSize     The number of messages handed to a writer at once.
+     * @param queueCapacity The capacity in batches of each writer queue, rounded up to a power of two.
+     */
+    public ShardingExporter(DataExporter<ChatMessage> delegate, Mode mode, long limit, int writers, int batchSize, int queueCapacity) {
+        if (limit <= 0) throw new IllegalArgumentException("Shard limit must be positive: " + limit);
+        if (mode == Mode.CONVERSATION && limit > MAX_CONVERSATION_SHARDS) throw new IllegalArgumentException("Too many shards: " + limit);
+        if (writers <= 0) throw new IllegalArgumentException("Writers must be positive: " + writers);
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+
+        this.delegate = delegate;
+        this.mode = mode;
+        this.limit = limit;
+        this.writers = writers;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void export(Stream<ChatMessage> input, Path outputPath) throws IOException {
+        if (input == null || outputPath == null) return;
+
+        var run = new Run(outputPath);
+        try {
+            if (mode == Mode.CONVERSATION) {
+                for (int i = 0; i < limit; i++) run.open();
+            }
+
+            Iterator<ChatMessage> iterator = input.iterator();
+            while (iterator.hasNext()) run.route(iterator.next());
+            run.finish();
+        } catch (Throwable e) {
+            run.fail(e);
+        }
+
+        run.joinAll();
+        run.rethrow();
+        run.writeManifest();
+    }
+
+    /**
+     * @param report The report path given to {@link #export(Stream, Path)}.
+     * @param index  The shard number, from 1.
+     * @return The path of that shard, e.g. report-00001.csv.gz for report.csv.gz.
+     */
+    public static Path shardPath(Path report, int index) {
+        String[] parts = split(report);
+        return report.resolveSibling(parts[0] + String.format(Locale.ROOT, "-%05d", index) + parts[1]);
+    }
+
+    /**
+     * @param report The report path given to {@link #export(Stream, Path)}.
+     * @return The path of the manifest, e.g. report.csv.manifest.json for report.csv.
+     */
+    public static Path manifestPath(Path report) {
+        return report.resolveSibling(report.getFileName() + ".manifest.json");
+    }
+
+    /**
+     * Splits a file name into its base and its extensions, the format's and a compression suffix.
+     */
+    private static String[] split(Path report) {
+        String name = report.getFileName().toString();
+        int end = name.length();
+        if (Compression.byExtension(report) != Compression.NONE) end = name.lastIndexOf('.');
+        int dot = name.lastIndexOf('.', end - 1);
+        int cut = dot > 0 ? dot : end;
+        return new String[]{name.substring(0, cut), name.substring(cut)};
+    }
+
+    private static long estimatedBytes(ChatMessage message) {
+        return RECORD_OVERHEAD_BYTES + length(message.id()) + length(message.conversationId()) + length(message.platformId())
+                + length(message.timestamp()) + length(message.sender()) + length(message.message());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * State of one export. Shards are created and fed by the calling thread; each one is written by its own thread.
+     * An empty batch marks the end of a shard queue.
+     */
+    private final class Run {
+        private final Path outputPath;
+        private final List<Shard> shards = new ArrayList<>();
+        private final Deque<Shard> active = new ArrayDeque<>();
+        private final BatchPipeline<ChatMessage> pipeline = new BatchPipeline<>();
+        private long rows;
+
+        Run(Path outputPath) {
+            this.outputPath = outputPath;
+        }
+
+        Shard open() {
+            // Bounds the concurrent writers by waiting for the oldest shard, which is complete.
+            if (mode != Mode.CONVERSATION && active.size() >= writers) active.removeFirst().join();
+
+            var shard = new Shard(shardPath(outputPath, shards.size() + 1));
+            shards.add(shard);
+            active.addLast(shard);
+            shard.start();
+            return shard;
+        }
+
+        void route(ChatMessage message) {
+            Shard shard = switch (mode) {
+                case CONVERSATION -> shards.get(Math.floorMod(spread(message.conversationId()), (int) limit));
+                case ROWS -> current(last -> last.rows >= limit);
+                case BYTES -> current(last -> last.estimatedBytes >= limit);
+            };
+            shard.add(message, rows++);
+        }
+
+        private Shard current(Predicate<Shard> full) {
+            Shard shard = shards.isEmpty() ? null : shards.getLast();
+            if (shard != null && !full.test(shard)) return shard;
+
+            if (shard != null) shard.finish();
+            return open();
+        }
+
+        void finish() {
+            // An empty stream still produces one (empty) shard.
+            if (shards.isEmpty()) open();
+            for (Shard shard : shards) {
+                if (!shard.finished) shard.finish();
+            }
+        }
+
+        void joinAll() {
+            for (Shard shard : shards) shard.join();
+        }
+
+        void fail(Throwable e) {
+            pipeline.fail(e);
+        }
+
+        void rethrow() throws IOException {
+            pipeline.rethrow();
+        }
+
+        void writeManifest() throws IOException {
+            List<ShardManifest.Shard> entries = new ArrayList<>();
+            for (Shard shard : shards) {
+                entries.add(new ShardManifest.Shard(shard.path.getFileName().toString(), shard.firstRow, shard.lastRow,
+                        shard.rows, shard.bytes, shard.sha256));
+            }
+            var manifest = new ShardManifest(mode.name(), limit, rows, entries);
+
+            var mapper = JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build();
+            Files.write(manifestPath(outputPath), mapper.writeValueAsBytes(manifest));
+        }
+
+        /**
+         * One shard file. The counters and the current batch belong to the calling thread;
+         * the size and checksum are set by the writer thread and read after {@link #join()}.
+         */
+        private final class Shard {
+            private final Path path;
+            private final SpscRingBuffer<List<ChatMessage>> queue = new SpscRingBuffer<>(queueCapacity);
+            private List<ChatMessage> batch = new ArrayList<>(batchSize);
+            private Thread thread;
+            private boolean finished;
+
+            private long firstRow = -1;
+            private long lastRow = -1;
+            private long rows;
+            private long estimatedBytes;
+
+            private long bytes;
+            private String sha256;
+
+            Shard(Path path) {
+                this.path = path;
+            }
+
+            void start() {
+                thread = Thread.ofPlatform().daemon().name("shard-" + path.getFileName()).start(this::write);
+            }
+
+            void add(ChatMessage message, long row) {
+                if (firstRow < 0) firstRow = row;
+                lastRow = row;
+                rows++;
+                if (mode == Mode.BYTES) estimatedBytes += estimatedBytes(message);
+
+                batch.add(message);
+                if (batch.size() == batchSize) {
+                    pipeline.put(queue, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+
+            void finish() {
+                if (!batch.isEmpty()) pipeline.put(queue, batch);
+                pipeline.end(queue);
+                batch = null;
+                finished = true;
+            }
+
+            private void write() {
+                var spliterator = pipeline.records(queue);
+                try (var messages = StreamSupport.stream(spliterator, false)) {
+                    delegate.export(messages, path);
+                    if (!spliterator.done()) throw new IOException("Exporter stopped before the end of shard " + path.getFileName());
+                    bytes = Files.size(path);
+                    sha256 = checksum(path);
+                } catch (Throwable e) {
+                    pipeline.fail(e);
+                }
+            }
+
+            void join() {
+                pipeline.join(thread);
+            }
+        }
+    }
+
+    private static int spread(String conversationId) {
+        int hash = conversationId == null ? 0 : conversationId.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static String checksum(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        byte[] buffer = new byte[256 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,385 @@
+package sort;
+
+import model.ChatMessage;
+import util.ColumnarFormat;
+import util.TimestampParser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorts messages by conversation and time, optionally removing duplicates, under a memory budget.
+ * <p>
+ * Messages are buffered until the budget is reached, then sorted and spilled to a temporary run
+ * file. The runs are k-way merged on read (in several passes above {@value #MAX_FAN_IN} runs),
+ * so the input can be far larger than the heap.
+ * <p>
+ * Within a conversation, messages are ordered by block date, then by platform call and position in
+ * their block, which keeps the order of each block. A message is a duplicate of another if both
+ * sit at the same position of a block with the same metadata and have the same sender and text,
+ * as when a conversation is exported twice. Its content hash only brings duplicates together; the
+ * fields themselves are compared before anything is dropped, and the first occurrence is kept.
+ */
+public class ExternalSorter {
+
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
+    static final int MAX_FAN_IN = 64;
+
+    private static final int RUN_BUFFER_SIZE = 64 * 1024;
+    // Entry, record and array slot, plus the header of each String (see StringDictionary).
+    private static final int ENTRY_OVERHEAD_BYTES = 48 + 32 + 8;
+    private static final int STRING_OVERHEAD_BYTES = 24 + 16;
+
+    private static final Comparator<Entry> KEY_ORDER = Comparator
+            .comparing((Entry e) -> e.message.conversationId(), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(e -> e.time)
+            .thenComparing(e -> e.message.timestamp(), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(e -> e.message.platformId(), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(e -> e.position)
+            .thenComparingLong(e -> e.hash);
+
+    // Ties are broken by input order, so that the first occurrence of a duplicate comes first.
+    private static final Comparator<Entry> ORDER = KEY_ORDER.thenComparingLong(e -> e.sequence);
+
+    private final long memoryBudget;
+    private final Path tempDirectory;
+    private final boolean deduplicate;
+
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * @param memoryBudget  The approximate heap, in bytes, that buffered messages may use before a run is spilled.
+     * @param tempDirectory The directory of the run files.
+     * @param deduplicate   True to drop duplicate messages.
+     */
+    public ExternalSorter(long memoryBudget, Path tempDirectory, boolean deduplicate) {
+        if (memoryBudget <= 0) throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Counters accumulated over all sorts.
+     *
+     * @param messages    Messages read.
+     * @param spilledRuns Sorted runs written to disk.
+     * @param duplicates  Duplicates removed.
+     */
+    public record Stats(long messages, long spilledRuns, long duplicates) {}
+
+    public Stats stats() {
+        return new Stats(messages.sum(), runs.sum(), duplicates.sum());
+    }
+
+    /**
+     * Reads the whole input, spilling runs as needed, and returns the merged result.
+     *
+     * @param input The messages in file order, so that positions within blocks are meaningful.
+     * @return The sorted messages. The stream must be closed to delete the run files.
+     * @throws IOException If a run cannot be written.
+     */
+    public Stream<ChatMessage> sort(Stream<ChatMessage> input) throws IOException {
+        List<Run> spilled = new ArrayList<>();
+        try {
+            List<Entry> buffer = new ArrayList<>();
+            long buffered = 0;
+            long sequence = 0;
+
+            String block = null;
+            int position = 0;
+            String lastTimestamp = null;
+            long lastTime = 0;
+
+            Iterator<ChatMessage> iterator = input.iterator();
+            while (iterator.hasNext()) {
+                ChatMessage message = iterator.next();
+
+                position = sequence > 0 && Objects.equals(block, message.id()) ? position + 1 : 0;
+                block = message.id();
+                if (sequence == 0 || !Objects.equals(lastTimestamp, message.timestamp())) {
+                    lastTimestamp = message.timestamp();
+                    lastTime = timeKey(lastTimestamp);
+                }
+
+                buffer.add(new Entry(message, lastTime, position, contentHash(message), sequence++));
+                buffered += estimateSize(message);
+                if (buffered >= memoryBudget) {
+                    spilled.add(spill(buffer));
+                    buffer.clear();
+                    buffered = 0;
+                }
+            }
+            messages.add(sequence);
+
+            buffer.sort(ORDER);
+            if (spilled.isEmpty()) return output(buffer.iterator(), List.of());
+
+            if (!buffer.isEmpty()) spilled.add(spill(buffer));
+            while (spilled.size() > MAX_FAN_IN) {
+                List<Run> batch = new ArrayList<>(spilled.subList(0, MAX_FAN_IN));
+                spilled.subList(0, MAX_FAN_IN).clear();
+                spilled.add(mergeToRun(batch));
+            }
+            return output(new MergeIterator(spilled), spilled);
+        } catch (IOException | RuntimeException e) {
+            delete(spilled);
+            throw e;
+        }
+    }
+
+    private Stream<ChatMessage> output(Iterator<Entry> sorted, List<Run> toDelete) {
+        Iterator<ChatMessage> deduplicated = new Iterator<>() {
+            private Entry previous;
+            private Entry next = advance();
+
+            private Entry advance() {
+                while (sorted.hasNext()) {
+                    Entry entry = sorted.next();
+                    if (deduplicate && previous != null && isDuplicate(previous, entry)) {
+                        duplicates.increment();
+                        continue;
+                    }
+                    previous = entry;
+                    return entry;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ChatMessage next() {
+                if (next == null) throw new NoSuchElementException();
+                ChatMessage message = next.message;
+                next = advance();
+                return message;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(deduplicated, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    if (sorted instanceof MergeIterator merge) merge.close();
+                    delete(toDelete);
+                });
+    }
+
+    private static boolean isDuplicate(Entry previous, Entry entry) {
+        if (KEY_ORDER.compare(previous, entry) != 0) return false;
+        return Objects.equals(previous.message.sender(), entry.message.sender())
+                && Objects.equals(previous.message.message(), entry.message.message());
+    }
+
+    private Run spill(List<Entry> buffer) throws IOException {
+        buffer.sort(ORDER);
+        return writeRun(buffer.iterator(), buffer.size());
+    }
+
+    private Run mergeToRun(List<Run> batch) throws IOException {
+        long count = batch.stream().mapToLong(Run::count).sum();
+        try (var merge = new MergeIterator(batch)) {
+            return writeRun(merge, count);
+        } finally {
+            delete(batch);
+        }
+    }
+
+    private Run writeRun(Iterator<Entry> entries, long count) throws IOException {
+        Path file = Files.createTempFile(tempDirectory, "fdt-run-", ".bin");
+        runs.increment();
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), RUN_BUFFER_SIZE))) {
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                ChatMessage message = entry.message;
+                ColumnarFormat.writeValue(out, message.id());
+                ColumnarFormat.writeValue(out, message.conversationId());
+                ColumnarFormat.writeValue(out, message.platformId());
+                ColumnarFormat.writeValue(out, message.timestamp());
+                ColumnarFormat.writeValue(out, message.sender());
+                ColumnarFormat.writeValue(out, message.message());
+                out.writeLong(entry.time);
+                out.writeInt(entry.position);
+                out.writeLong(entry.hash);
+                out.writeLong(entry.sequence);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new Run(file, count);
+    }
+
+    private static void delete(List<Run> runs) {
+        for (Run run : runs) {
+            try {
+                Files.deleteIfExists(run.file());
+            } catch (IOException ignored) {
+                // Temporary files only; a leftover does not affect the report.
+            }
+        }
+    }
+
+    /**
+     * Milliseconds for raw, ISO or epoch timestamps (see {@link parser.TimestampFormat}); unreadable values sort last.
+     *
+     * @param timestamp The timestamp of a message, or null.
+     * @return The key: {@link Long#MIN_VALUE} for null, {@link Long#MAX_VALUE} for an unreadable value.
+     */
+    public static long timeKey(String timestamp) {
+        if (timestamp == null) return Long.MIN_VALUE;
+
+        long localSeconds = TimestampParser.parseLocalSeconds(timestamp);
+        if (localSeconds != TimestampParser.INVALID) return localSeconds * 1000;
+        try {
+            if (!timestamp.isEmpty() && timestamp.chars().allMatch(Character::isDigit)) return Long.parseLong(timestamp);
+            return OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the sender and text, which are the fields not already part of the sort key.
+     */
+    static long contentHash(ChatMessage message) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, message.sender());
+        hash = (hash ^ 0x1F) * 0x100000001b3L;
+        return mix(hash, message.message());
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) return (hash ^ 0xFFFF) * 0x100000001b3L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long estimateSize(ChatMessage message) {
+        return ENTRY_OVERHEAD_BYTES
+                + stringSize(message.id()) + stringSize(message.conversationId()) + stringSize(message.platformId())
+                + stringSize(message.timestamp()) + stringSize(message.sender()) + stringSize(message.message());
+    }
+
+    private static long stringSize(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+
+    private record Entry(ChatMessage message, long time, int position, long hash, long sequence) {}
+
+    private record Run(Path file, long count) {}
+
+    /**
+     * K-way merge of sorted runs through a heap of their current entries.
+     */
+    private static final class MergeIterator implements Iterator<Entry>, AutoCloseable {
+        private final PriorityQueue<RunReader> heap = new PriorityQueue<>(Comparator.comparing(RunReader::head, ORDER));
+        private final List<RunReader> readers = new ArrayList<>();
+
+        MergeIterator(List<Run> runs) throws IOException {
+            try {
+                for (Run run : runs) {
+                    var reader = new RunReader(run);
+                    readers.add(reader);
+                    if (reader.advance()) heap.add(reader);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public Entry next() {
+            RunReader reader = heap.poll();
+            if (reader == null) throw new NoSuchElementException();
+
+            Entry entry = reader.head();
+            try {
+                if (reader.advance()) heap.add(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return entry;
+        }
+
+        @Override
+        public void close() {
+            for (RunReader reader : readers) reader.close();
+        }
+    }
+
+    private static final class RunReader {
+        private final DataInputStream in;
+        private long remaining;
+        private Entry head;
+
+        RunReader(Run run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file()), RUN_BUFFER_SIZE));
+            this.remaining = run.count();
+        }
+
+        Entry head() {
+            return head;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            remaining--;
+
+            var message = new ChatMessage(
+                    ColumnarFormat.readValue(in),
+                    ColumnarFormat.readValue(in),
+                    ColumnarFormat.readValue(in),
+                    ColumnarFormat.readValue(in),
+                    ColumnarFormat.readValue(in),
+                    ColumnarFormat.readValue(in)
+            );
+            head = new Entry(message, in.readLong(), in.readInt(), in.readLong(), in.readLong());
+            return true;
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // Read-only temporary file.
+            }
+        }
+    }
+}
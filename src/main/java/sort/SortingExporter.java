@@ -0,0 +1,34 @@
+package sort;
+
+import exporter.DataExporter;
+import model.ChatMessage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Exporter decorator writing the messages in {@link ExternalSorter} order, without duplicates if the sorter removes them.
+ */
+public class SortingExporter implements DataExporter<ChatMessage> {
+
+    private final DataExporter<ChatMessage> delegate;
+    private final ExternalSorter sorter;
+
+    public SortingExporter(DataExporter<ChatMessage> delegate, ExternalSorter sorter) {
+        this.delegate = delegate;
+        this.sorter = sorter;
+    }
+
+    @Override
+    public void export(Stream<ChatMessage> input, Path outputPath) throws IOException {
+        if (input == null) {
+            delegate.export(null, outputPath);
+            return;
+        }
+
+        try (var sorted = sorter.sort(input)) {
+            delegate.export(sorted, outputPath);
+        }
+    }
+}
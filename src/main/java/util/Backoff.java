@@ -0,0 +1,22 @@
+package util;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Progressive wait for threads polling a {@link SpscRingBuffer}: spin briefly, then yield, then park
+ * for exponentially longer periods up to 1ms. One instance per wait.
+ */
+public final class Backoff {
+    private int attempts;
+
+    public void idle() {
+        if (attempts < 64) {
+            Thread.onSpinWait();
+        } else if (attempts < 128) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(1_000L << Math.min(10, attempts - 128));
+        }
+        attempts++;
+    }
+}
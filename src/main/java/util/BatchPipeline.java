@@ -0,0 +1,149 @@
+package util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Hand-off of record batches from one producer thread to consumer threads, through one
+ * {@link SpscRingBuffer} per consumer. An empty batch marks the end of a queue.
+ * <p>
+ * The first failure of any thread is shared: the other threads stop waiting on their queues with a
+ * {@link CancellationException}, and the producer rethrows the failure once the consumers are joined.
+ */
+public final class BatchPipeline<T> {
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Adds a batch to a queue, waiting while it is full. Must only be called by the producer thread.
+     *
+     * @throws CancellationException If a failure was recorded.
+     */
+    public void put(SpscRingBuffer<List<T>> queue, List<T> batch) {
+        checkRunning();
+        if (queue.offer(batch)) return;
+
+        var backoff = new Backoff();
+        while (!queue.offer(batch)) {
+            checkRunning();
+            backoff.idle();
+        }
+    }
+
+    /**
+     * Marks the end of a queue. Must only be called by the producer thread.
+     */
+    public void end(SpscRingBuffer<List<T>> queue) {
+        put(queue, List.of());
+    }
+
+    /**
+     * Removes a batch from a queue, waiting while it is empty. Must only be called by the consumer thread.
+     *
+     * @throws CancellationException If a failure was recorded.
+     */
+    public List<T> take(SpscRingBuffer<List<T>> queue) {
+        List<T> batch = queue.poll();
+        if (batch != null) return batch;
+
+        var backoff = new Backoff();
+        while ((batch = queue.poll()) == null) {
+            checkRunning();
+            backoff.idle();
+        }
+        return batch;
+    }
+
+    /**
+     * @return The records of a queue one by one, for a consumer exporting them as a stream.
+     */
+    public Records records(SpscRingBuffer<List<T>> queue) {
+        return new Records(queue);
+    }
+
+    /**
+     * Records the failure of a thread, unless one was already recorded. Cancellations are ignored.
+     */
+    public void fail(Throwable e) {
+        if (!(e instanceof CancellationException)) failure.compareAndSet(null, e);
+    }
+
+    /**
+     * Waits for a consumer thread. An interruption is recorded as a failure, so that the consumer ends.
+     */
+    public void join(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                fail(e);
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Throws the recorded failure, if any.
+     */
+    public void rethrow() throws IOException {
+        Throwable cause = failure.get();
+        if (cause == null) return;
+        if (cause instanceof IOException io) throw io;
+        if (cause instanceof UncheckedIOException unchecked) throw unchecked.getCause();
+        if (cause instanceof RuntimeException runtime) throw runtime;
+        if (cause instanceof Error error) throw error;
+        throw new IOException(cause);
+    }
+
+    private void checkRunning() {
+        if (failure.get() != null) throw new CancellationException("Export cancelled after a failure");
+    }
+
+    /**
+     * Flattens the batches of a queue into single records.
+     */
+    public final class Records extends Spliterators.AbstractSpliterator<T> {
+        private final SpscRingBuffer<List<T>> queue;
+        private Iterator<T> current = Collections.emptyIterator();
+        private boolean done;
+
+        private Records(SpscRingBuffer<List<T>> queue) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (!current.hasNext()) {
+                if (done) return false;
+
+                List<T> batch = take(queue);
+                if (batch.isEmpty()) {
+                    done = true;
+                    return false;
+                }
+                current = batch.iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        /**
+         * @return Whether the end of the queue was reached, i.e. the consumer read every record.
+         */
+        public boolean done() {
+            return done;
+        }
+    }
+}
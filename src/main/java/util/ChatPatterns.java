@@ -42,4 +42,10 @@ public final class ChatPatterns {
      */
     public static final Pattern MESSAGE_LINE = Pattern.compile("^([\\w-\\.]+@[\\w-]+\\.[\\w-]{2,4}),(.*)");
 
+    /**
+     * Matches a message whose quoted text spans several physical lines, as rebuilt by the record reassembler.
+     * Same groups as {@link #MESSAGE_LINE}; Group 2 starts and ends with a quote.
+     */
+    public static final Pattern MULTILINE_MESSAGE = Pattern.compile("^([\\w-\\.]+@[\\w-]+\\.[\\w-]{2,4}),(\".*\")", Pattern.DOTALL);
+
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package util;
+
+import model.ChatMessage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Layout of the columnar binary report, shared by its writer and reader.
+ * <pre>
+ * file      := MAGIC VERSION rowGroup* footer
+ * rowGroup  := rowCount:int chunk{6}
+ * chunk     := encoding:byte uncompressedLength:int compressedLength:int deflate(payload)
+ * payload   := DICTIONARY: size:varint value{size} index:varint{rowCount}
+ *            | PLAIN:      value{rowCount}
+ * value     := 0:varint (null) | (byteLength + 1):varint utf8Bytes
+ * footer    := groupCount:int (offset:long rows:int){groupCount} totalRows:long footerLength:int MAGIC
+ * </pre>
+ * Each column chunk is compressed on its own, so a reader can skip the columns it does not need.
+ */
+public final class ColumnarFormat {
+
+    private ColumnarFormat() {}
+
+    public static final byte[] MAGIC = {'F', 'D', 'T', 'C'};
+    public static final byte VERSION = 1;
+
+    public static final byte PLAIN = 0;
+    public static final byte DICTIONARY = 1;
+
+    /**
+     * Columns in storage order, mirroring the {@link ChatMessage} components.
+     * Metadata and sender values repeat heavily and are dictionary-encoded; message bodies are not.
+     */
+    public enum Column {
+        ID(ChatMessage::id, true),
+        CONVERSATION_ID(ChatMessage::conversationId, true),
+        PLATFORM_ID(ChatMessage::platformId, true),
+        TIMESTAMP(ChatMessage::timestamp, true),
+        SENDER(ChatMessage::sender, true),
+        MESSAGE(ChatMessage::message, false);
+
+        private final Function<ChatMessage, String> accessor;
+        private final boolean dictionaryEncoded;
+
+        Column(Function<ChatMessage, String> accessor, boolean dictionaryEncoded) {
+            this.accessor = accessor;
+            this.dictionaryEncoded = dictionaryEncoded;
+        }
+
+        public String valueOf(ChatMessage message) {
+            return accessor.apply(message);
+        }
+
+        public boolean dictionaryEncoded() {
+            return dictionaryEncoded;
+        }
+    }
+
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeValue(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public static String readValue(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) return null;
+
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
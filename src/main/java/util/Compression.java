@@ -0,0 +1,157 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compression formats of evidence files and reports.
+ * <p>
+ * Inputs are recognized by their magic bytes, reports by their extension. The codecs are the JDK ones;
+ * zstd is recognized so that it can be reported clearly, but the JDK has no pure-Java codec for it.
+ */
+public enum Compression {
+    NONE,
+    GZIP,
+    /**
+     * A zip archive; the entries are read one after the other, in archive order.
+     */
+    ZIP,
+    ZSTD;
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Detects the compression of an input from its first bytes.
+     *
+     * @param file The file to inspect.
+     * @return The compression, or {@link #NONE} for plain or unknown content.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Compression detect(Path file) throws IOException {
+        byte[] magic = new byte[4];
+        int read;
+        try (var in = Files.newInputStream(file)) {
+            read = in.readNBytes(magic, 0, magic.length);
+        }
+
+        if (read >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) return GZIP;
+        if (read == 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) return ZIP;
+        if (read == 4 && (magic[0] & 0xFF) == 0x28 && (magic[1] & 0xFF) == 0xB5
+                && (magic[2] & 0xFF) == 0x2F && (magic[3] & 0xFF) == 0xFD) return ZSTD;
+        return NONE;
+    }
+
+    /**
+     * Chooses the compression of a report from its file name ({@code .gz}, {@code .zip}, {@code .zst}).
+     */
+    public static Compression byExtension(Path report) {
+        String name = report.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) return GZIP;
+        if (name.endsWith(".zip")) return ZIP;
+        if (name.endsWith(".zst")) return ZSTD;
+        return NONE;
+    }
+
+    /**
+     * @param in The compressed stream; it is closed with the returned stream.
+     * @return The decompressed content. Zip entries are separated by a line break so that their lines never merge.
+     * @throws IOException If the format has no codec or the header is invalid.
+     */
+    public InputStream decompress(InputStream in) throws IOException {
+        return switch (this) {
+            case NONE -> in;
+            case GZIP -> new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+            case ZIP -> new ZipEntriesInputStream(new ZipInputStream(in));
+            case ZSTD -> throw unsupported();
+        };
+    }
+
+    /**
+     * @param out       The destination; it is closed with the returned stream.
+     * @param entryName The name of the single entry of a zip report.
+     * @return A stream compressing into {@code out}.
+     * @throws IOException If the format has no codec.
+     */
+    public OutputStream compress(OutputStream out, String entryName) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+            case ZIP -> {
+                var zip = new ZipOutputStream(out);
+                zip.putNextEntry(new ZipEntry(entryName));
+                yield zip;
+            }
+            case ZSTD -> throw unsupported();
+        };
+    }
+
+    private IOException unsupported() {
+        return new IOException("zstd is not supported: no pure-Java codec is available. Decompress with 'zstd -d' or use gzip.");
+    }
+
+    /**
+     * Concatenates the file entries of a zip archive.
+     */
+    private static final class ZipEntriesInputStream extends InputStream {
+        private final ZipInputStream zip;
+        private boolean inEntry;
+        private boolean entryRead;
+        private boolean finished;
+
+        ZipEntriesInputStream(ZipInputStream zip) {
+            this.zip = zip;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (!finished) {
+                if (!inEntry) {
+                    boolean first = !entryRead;
+                    if (!nextEntry()) break;
+                    if (!first) {
+                        b[off] = '\n';
+                        return 1;
+                    }
+                }
+
+                int read = zip.read(b, off, len);
+                if (read >= 0) return read;
+                inEntry = false;
+                entryRead = true;
+            }
+            return -1;
+        }
+
+        private boolean nextEntry() throws IOException {
+            ZipEntry entry;
+            do {
+                entry = zip.getNextEntry();
+            } while (entry != null && entry.isDirectory());
+
+            finished = entry == null;
+            inEntry = !finished;
+            return inEntry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs a sequence of tasks concurrently while exposing their results in submission order.
+ * <p>
+ * At most {@code window} tasks are in flight at any time: a new task is only submitted
+ * once the consumer has drained the oldest result, which bounds memory usage and
+ * provides natural backpressure on the producers.
+ */
+public final class OrderedTaskStream {
+
+    private OrderedTaskStream() {}
+
+    /**
+     * Creates a lazy, ordered stream over the concatenated results of the tasks.
+     * Closing the stream cancels pending tasks; the executor itself is left untouched.
+     *
+     * @param tasks    The tasks to run, each producing one ordered chunk of results.
+     * @param executor The executor running the tasks.
+     * @param window   The maximum number of tasks submitted but not yet consumed.
+     * @param <T>      The element type.
+     * @return A sequential stream of all chunk elements, in task order.
+     */
+    public static <T> Stream<T> of(Iterator<? extends Callable<List<T>>> tasks, ExecutorService executor, int window) {
+        if (window <= 0) throw new IllegalArgumentException("Window must be positive: " + window);
+
+        var spliterator = new OrderedSpliterator<T>(tasks, executor, window);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::cancel);
+    }
+
+    private static final class OrderedSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Iterator<? extends Callable<List<T>>> tasks;
+        private final ExecutorService executor;
+        private final int window;
+        private final Deque<Future<List<T>>> inFlight = new ArrayDeque<>();
+        private Iterator<T> current = Collections.emptyIterator();
+
+        OrderedSpliterator(Iterator<? extends Callable<List<T>>> tasks, ExecutorService executor, int window) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.tasks = tasks;
+            this.executor = executor;
+            this.window = window;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (!current.hasNext()) {
+                fill();
+                if (inFlight.isEmpty()) return false;
+                current = await(inFlight.removeFirst()).iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        private void fill() {
+            while (inFlight.size() < window && tasks.hasNext()) {
+                inFlight.addLast(executor.submit(tasks.next()));
+            }
+        }
+
+        private List<T> await(Future<List<T>> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CancellationException("Interrupted while waiting for a task result");
+            } catch (ExecutionException e) {
+                cancel();
+                throw propagate(e.getCause());
+            }
+        }
+
+        void cancel() {
+            inFlight.forEach(future -> future.cancel(true));
+            inFlight.clear();
+            current = Collections.emptyIterator();
+        }
+
+        private static RuntimeException propagate(Throwable cause) {
+            if (cause instanceof RuntimeException runtime) return runtime;
+            if (cause instanceof IOException io) return new UncheckedIOException(io);
+            if (cause instanceof Error error) throw error;
+            return new IllegalStateException(cause);
+        }
+    }
+}
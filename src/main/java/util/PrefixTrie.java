@@ -0,0 +1,92 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable character trie over a small set of keys, walked one character at a time.
+ * <p>
+ * Nodes are numbered from {@link #ROOT} and stored in flat arrays; the edges of a node are scanned
+ * linearly, which beats hashing for the handful of keys of a line format. Callers drive the walk with
+ * {@link #next(int, char)} so that matching a line allocates nothing and can stop at any point.
+ */
+public final class PrefixTrie<V> {
+
+    public static final int ROOT = 0;
+
+    private final char[][] labels;
+    private final int[][] children;
+    private final Object[] values;
+
+    /**
+     * @param keys The keys, none empty, and the value of each.
+     */
+    public PrefixTrie(Map<String, ? extends V> keys) {
+        List<StringBuilder> nodeLabels = new ArrayList<>();
+        List<List<Integer>> nodeChildren = new ArrayList<>();
+        List<Object> nodeValues = new ArrayList<>();
+        nodeLabels.add(new StringBuilder());
+        nodeChildren.add(new ArrayList<>());
+        nodeValues.add(null);
+
+        keys.forEach((key, value) -> {
+            if (key.isEmpty()) throw new IllegalArgumentException("Keys must not be empty");
+
+            int node = ROOT;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                int edge = nodeLabels.get(node).indexOf(String.valueOf(c));
+                if (edge >= 0) {
+                    node = nodeChildren.get(node).get(edge);
+                    continue;
+                }
+                int child = nodeLabels.size();
+                nodeLabels.get(node).append(c);
+                nodeChildren.get(node).add(child);
+                nodeLabels.add(new StringBuilder());
+                nodeChildren.add(new ArrayList<>());
+                nodeValues.add(null);
+                node = child;
+            }
+            nodeValues.set(node, value);
+        });
+
+        int size = nodeLabels.size();
+        this.labels = new char[size][];
+        this.children = new int[size][];
+        for (int node = 0; node < size; node++) {
+            labels[node] = nodeLabels.get(node).toString().toCharArray();
+            children[node] = nodeChildren.get(node).stream().mapToInt(Integer::intValue).toArray();
+        }
+        this.values = nodeValues.toArray();
+    }
+
+    /**
+     * @param node The current node, {@link #ROOT} for the first character.
+     * @param c    The next character.
+     * @return The node reached through {@code c}, or -1 if no key continues with it.
+     */
+    public int next(int node, char c) {
+        char[] edges = labels[node];
+        for (int i = 0; i < edges.length; i++) {
+            if (edges[i] == c) return children[node][i];
+        }
+        return -1;
+    }
+
+    /**
+     * @return The value of the key ending at this node, or null if no key ends there.
+     */
+    @SuppressWarnings("unchecked")
+    public V value(int node) {
+        return (V) values[node];
+    }
+
+    /**
+     * @return True if some key starts with {@code c}.
+     */
+    public boolean startsKey(char c) {
+        return next(ROOT, c) >= 0;
+    }
+}
@@ -0,0 +1,128 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads a source stream on a dedicated thread, a few chunks ahead of the consumer.
+ * <p>
+ * Used for decompression, so that inflating the next chunks overlaps with parsing the current one.
+ * Chunks are recycled between the two threads; a failure of the source is rethrown to the consumer.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    public static final int DEFAULT_DEPTH = 4;
+
+    private static final class Chunk {
+        final byte[] data;
+        int length;
+
+        Chunk(int size) {
+            data = new byte[size];
+        }
+    }
+
+    private final BlockingQueue<Chunk> filled;
+    private final BlockingQueue<Chunk> free;
+    private final Thread reader;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private Chunk current;
+    private int position;
+    private boolean ended;
+
+    public ReadAheadInputStream(InputStream source, String threadName) {
+        this(source, threadName, DEFAULT_CHUNK_SIZE, DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param source     The stream to read ahead; it is read and closed by the background thread.
+     * @param threadName The name of the background thread.
+     * @param chunkSize  The size of each chunk in bytes.
+     * @param depth      The number of chunks read ahead of the consumer.
+     */
+    public ReadAheadInputStream(InputStream source, String threadName, int chunkSize, int depth) {
+        this.filled = new ArrayBlockingQueue<>(depth + 1);
+        this.free = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i < depth; i++) free.add(new Chunk(chunkSize));
+
+        this.reader = Thread.ofPlatform().name(threadName).daemon().start(() -> fill(source));
+    }
+
+    private void fill(InputStream source) {
+        try (source) {
+            while (!closed) {
+                Chunk chunk = free.take();
+                chunk.length = source.readNBytes(chunk.data, 0, chunk.data.length);
+                filled.put(chunk);
+                if (chunk.length == 0) return;
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            return;
+        }
+        // Wakes the consumer up after a failure; an empty chunk marks the end.
+        filled.offer(new Chunk(0));
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) return -1;
+        return current.data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!ensureData()) return -1;
+
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - position;
+    }
+
+    private boolean ensureData() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        while (current == null || position == current.length) {
+            if (ended) return false;
+            if (current != null) free.offer(current);
+
+            try {
+                current = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for input");
+            }
+            position = 0;
+            if (current.length == 0) {
+                ended = true;
+                if (failure != null) throw failure;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
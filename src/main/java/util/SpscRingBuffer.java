@@ -0,0 +1,87 @@
+package util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, lock-free queue for exactly one producer thread and one consumer thread.
+ * <p>
+ * The producer only writes {@code tail} and the consumer only writes {@code head}, each with a
+ * release store ({@link AtomicLong#lazySet(long)}) that publishes the slot written just before.
+ * Each side caches the other side's counter and only re-reads it when the ring looks full or empty.
+ * Calls never block; waiting strategies are left to the caller.
+ */
+public final class SpscRingBuffer<E> {
+
+    private final Object[] elements;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only read and written by the producer.
+    private long cachedHead;
+    // Only read and written by the consumer.
+    private long cachedTail;
+
+    /**
+     * @param capacity The maximum number of elements, rounded up to a power of two.
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element if there is room. Must only be called by the producer thread.
+     *
+     * @param element The element to add, not null.
+     * @return False if the ring is full.
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element);
+
+        long position = tail.get();
+        if (position - cachedHead >= elements.length) {
+            cachedHead = head.get();
+            if (position - cachedHead >= elements.length) return false;
+        }
+        elements[(int) (position & mask)] = element;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element. Must only be called by the consumer thread.
+     *
+     * @return The element, or null if the ring is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = head.get();
+        if (position >= cachedTail) {
+            cachedTail = tail.get();
+            if (position >= cachedTail) return null;
+        }
+        int index = (int) (position & mask);
+        E element = (E) elements[index];
+        elements[index] = null;
+        head.lazySet(position + 1);
+        return element;
+    }
+
+    /**
+     * @return An estimate of the number of elements, exact when both threads are idle.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(elements.length, size));
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,119 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free dictionary canonicalizing repeated strings such as senders and block metadata.
+ * <p>
+ * Values are looked up directly from a character range, so a hit returns the canonical instance
+ * without allocating anything. The table is 2-way set associative: a miss fills an empty way or
+ * evicts one of the two candidates. Concurrent inserts may race, in which case an entry is simply
+ * replaced; callers always get back a String equal to the requested range.
+ */
+public class StringDictionary {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    // Shallow size of a String plus its byte[] header on a 64-bit JVM with compressed oops.
+    private static final int STRING_OVERHEAD_BYTES = 24 + 16;
+
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    public StringDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The maximum number of entries, rounded up to a power of two (minimum 2).
+     */
+    public StringDictionary(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Snapshot of the dictionary counters.
+     *
+     * @param hits           Lookups served by an existing instance.
+     * @param misses         Lookups that created a new String.
+     * @param evictions      Entries replaced to make room for new values.
+     * @param estimatedBytes Approximate heap saved by the hits, assuming Latin-1 compact strings.
+     */
+    public record Stats(long hits, long misses, long evictions, long estimatedBytes) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * @param value The value to canonicalize; null is returned as is.
+     * @return The canonical instance equal to {@code value}.
+     */
+    public String canonicalize(String value) {
+        if (value == null) return null;
+        return canonicalize(value, 0, value.length());
+    }
+
+    /**
+     * Returns the canonical String for a range of characters, building it only on a miss.
+     *
+     * @param source The characters, e.g. a raw line.
+     * @param start  The start offset of the value, inclusive.
+     * @param end    The end offset of the value, exclusive.
+     * @return The canonical instance equal to {@code source.subSequence(start, end).toString()}.
+     */
+    public String canonicalize(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+
+        int first = spread(hash) & mask & ~1;
+        for (int way = first; way <= first + 1; way++) {
+            String candidate = slots.get(way);
+            if (candidate != null && candidate.hashCode() == hash && contentEquals(candidate, source, start, end)) {
+                hits.increment();
+                savedBytes.add(STRING_OVERHEAD_BYTES + (end - start));
+                return candidate;
+            }
+        }
+
+        String value = source.subSequence(start, end).toString();
+        misses.increment();
+
+        if (slots.compareAndSet(first, null, value) || slots.compareAndSet(first + 1, null, value)) {
+            return value;
+        }
+        // Both ways are taken: evict one, picked from bits not used by the index.
+        slots.set(first + ((hash >>> 16) & 1), value);
+        evictions.increment();
+        return value;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), savedBytes.sum());
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean contentEquals(String candidate, CharSequence source, int start, int end) {
+        if (candidate.length() != end - start) return false;
+        for (int i = start; i < end; i++) {
+            if (candidate.charAt(i - start) != source.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,152 @@
+package util;
+
+/**
+ * Hand-rolled parser for the "Date and time" metadata of collection dumps, e.g. {@code 10/10/19 4:10:12 PM}.
+ * <p>
+ * Follows the {@code M/d/yy h:mm:ss a} layout (two-digit years in 2000-2099, four-digit years accepted)
+ * and rejects impossible dates. It works on local seconds, the seconds since 1970-01-01T00:00 of the
+ * wall-clock time before any time zone is applied, so parsing builds no temporal objects.
+ */
+public final class TimestampParser {
+
+    private TimestampParser() {}
+
+    /**
+     * Returned for text that is not a valid timestamp.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    /**
+     * @param text The timestamp, surrounding whitespace allowed.
+     * @return The local seconds, or {@link #INVALID}.
+     */
+    public static long parseLocalSeconds(CharSequence text) {
+        return parseLocalSeconds(text, 0, text.length());
+    }
+
+    /**
+     * @param text  The characters, e.g. a raw line.
+     * @param start The start offset of the timestamp, inclusive.
+     * @param end   The end offset of the timestamp, exclusive.
+     * @return The local seconds, or {@link #INVALID}.
+     */
+    public static long parseLocalSeconds(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+
+        var cursor = new int[]{start};
+        int month = number(text, cursor, end, 1, 2);
+        if (month < 1 || month > 12 || !expect(text, cursor, end, '/')) return INVALID;
+        int day = number(text, cursor, end, 1, 2);
+        if (day < 1 || !expect(text, cursor, end, '/')) return INVALID;
+
+        int yearStart = cursor[0];
+        int year = number(text, cursor, end, 2, 4);
+        int yearDigits = cursor[0] - yearStart;
+        if (year < 0 || yearDigits == 3) return INVALID;
+        if (yearDigits == 2) year += 2000;
+        if (day > daysInMonth(year, month) || !expect(text, cursor, end, ' ')) return INVALID;
+
+        int hour = number(text, cursor, end, 1, 2);
+        if (hour < 1 || hour > 12 || !expect(text, cursor, end, ':')) return INVALID;
+        int minute = number(text, cursor, end, 2, 2);
+        if (minute < 0 || minute > 59 || !expect(text, cursor, end, ':')) return INVALID;
+        int second = number(text, cursor, end, 2, 2);
+        if (second < 0 || second > 59 || !expect(text, cursor, end, ' ')) return INVALID;
+
+        int i = cursor[0];
+        if (end - i != 2 || text.charAt(i + 1) != 'M') return INVALID;
+        char meridiem = text.charAt(i);
+        if (meridiem != 'A' && meridiem != 'P') return INVALID;
+
+        int hour24 = hour % 12 + (meridiem == 'P' ? 12 : 0);
+        return daysFromCivil(year, month, day) * SECONDS_PER_DAY + hour24 * 3600L + minute * 60L + second;
+    }
+
+    /**
+     * Formats local seconds as an ISO-8601 local date-time, e.g. {@code 2019-10-10T16:10:12}.
+     */
+    public static String formatIso(long localSeconds) {
+        long days = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+        int secondOfDay = Math.floorMod(localSeconds, SECONDS_PER_DAY);
+
+        // Inverse of daysFromCivil, see the reference there.
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        var iso = new char[19];
+        digits(iso, 0, (int) year, 4);
+        iso[4] = '-';
+        digits(iso, 5, month, 2);
+        iso[7] = '-';
+        digits(iso, 8, day, 2);
+        iso[10] = 'T';
+        digits(iso, 11, secondOfDay / 3600, 2);
+        iso[13] = ':';
+        digits(iso, 14, secondOfDay / 60 % 60, 2);
+        iso[16] = ':';
+        digits(iso, 17, secondOfDay % 60, 2);
+        return new String(iso);
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date (H. Hinnant, "chrono-compatible low-level date algorithms").
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Reads between {@code min} and {@code max} digits and advances the cursor.
+     *
+     * @return The value, or -1 if there are fewer than {@code min} digits.
+     */
+    private static int number(CharSequence text, int[] cursor, int end, int min, int max) {
+        int i = cursor[0];
+        int value = 0;
+        while (i < end && i - cursor[0] < max) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') break;
+            value = value * 10 + (c - '0');
+            i++;
+        }
+        if (i - cursor[0] < min) return -1;
+        cursor[0] = i;
+        return value;
+    }
+
+    private static boolean expect(CharSequence text, int[] cursor, int end, char expected) {
+        if (cursor[0] >= end || text.charAt(cursor[0]) != expected) return false;
+        cursor[0]++;
+        return true;
+    }
+
+    private static void digits(char[] target, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
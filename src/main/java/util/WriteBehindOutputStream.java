@@ -0,0 +1,160 @@
+package util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes to a sink stream on a dedicated thread, so that the producer does not wait for it.
+ * <p>
+ * Used for compressed reports: deflating and writing run behind the serializer. {@link #flush()} and
+ * {@link #close()} wait for everything written so far to reach the sink, and rethrow its failures.
+ */
+public class WriteBehindOutputStream extends OutputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    public static final int DEFAULT_DEPTH = 4;
+
+    private enum Command { WRITE, FLUSH, CLOSE }
+
+    private static final class Chunk {
+        final byte[] data;
+        int length;
+        Command command = Command.WRITE;
+
+        Chunk(int size) {
+            data = new byte[size];
+        }
+    }
+
+    private final BlockingQueue<Chunk> filled;
+    private final BlockingQueue<Chunk> free;
+    private final Thread writer;
+    private final Semaphore flushed = new Semaphore(0);
+    private volatile IOException failure;
+    private boolean closed;
+
+    private Chunk current;
+
+    public WriteBehindOutputStream(OutputStream sink, String threadName) {
+        this(sink, threadName, DEFAULT_CHUNK_SIZE, DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param sink       The destination; it is written, flushed and closed by the background thread.
+     * @param threadName The name of the background thread.
+     * @param chunkSize  The size of each chunk in bytes.
+     * @param depth      The number of chunks that can wait for the background thread.
+     */
+    public WriteBehindOutputStream(OutputStream sink, String threadName, int chunkSize, int depth) {
+        this.filled = new ArrayBlockingQueue<>(depth);
+        this.free = new ArrayBlockingQueue<>(depth);
+        for (int i = 0; i < depth; i++) free.add(new Chunk(chunkSize));
+
+        this.current = free.poll();
+        this.writer = Thread.ofPlatform().name(threadName).daemon().start(() -> drain(sink));
+    }
+
+    private void drain(OutputStream sink) {
+        try {
+            while (true) {
+                Chunk chunk = filled.take();
+                try {
+                    // After a failure the remaining data is dropped, but the sink is still closed.
+                    switch (chunk.command) {
+                        case WRITE -> { if (failure == null) sink.write(chunk.data, 0, chunk.length); }
+                        case FLUSH -> { if (failure == null) sink.flush(); }
+                        case CLOSE -> sink.close();
+                    }
+                } catch (IOException e) {
+                    if (failure == null) failure = e;
+                }
+                Command command = chunk.command;
+                chunk.length = 0;
+                chunk.command = Command.WRITE;
+                free.put(chunk);
+                if (command == Command.FLUSH) flushed.release();
+                if (command == Command.CLOSE) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (current.length == current.data.length) submit(Command.WRITE);
+        current.data[current.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (current.length == current.data.length) submit(Command.WRITE);
+            int n = Math.min(len, current.data.length - current.length);
+            System.arraycopy(b, off, current.data, current.length, n);
+            current.length += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (current.length > 0) submit(Command.WRITE);
+        submit(Command.FLUSH);
+        try {
+            flushed.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing the report");
+        }
+        if (failure != null) throw failure;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            // The sink is closed and the writer ended even after a failure, which is rethrown below.
+            if (current.length > 0 && failure == null) enqueue(Command.WRITE);
+            enqueue(Command.CLOSE);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the report");
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Hands the current chunk over with the given command and takes a free one.
+     */
+    private void submit(Command command) throws IOException {
+        try {
+            enqueue(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the report");
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void enqueue(Command command) throws InterruptedException {
+        current.command = command;
+        filled.put(current);
+        current = free.take();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        if (failure != null) throw failure;
+    }
+}
@@ -0,0 +1,70 @@
+package aggregate;
+
+import model.ChatMessage;
+import model.ConversationSummary;
+import model.ConversationSummary.Sender;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversationAggregatorTest {
+
+    @Test
+    @DisplayName("Should count messages, participants, time range and bytes per sender of each conversation")
+    void summaries_ShouldSummarizeEachConversation() {
+        var aggregator = Stream.of(
+                message("UUID-1", "10/10/19 4:10:12 PM", "a@test.com", "Hello"),
+                message("UUID-1", "10/10/19 4:10:12 PM", "b@test.com", "Ça va ?"),
+                message("UUID-2", "10/11/19 9:00:00 AM", "c@test.com", "Other conversation"),
+                message("UUID-1", "10/9/19 11:59:59 PM", "a@test.com", "Earlier block"),
+                message("UUID-1", "not a date", "a@test.com", "😀"),
+                message("UUID-1", "10/12/19 1:00:00 AM", "b@test.com", null)
+        ).collect(ConversationAggregator.collector());
+
+        List<ConversationSummary> summaries = aggregator.summaries();
+
+        assertEquals(2, summaries.size());
+        assertEquals(new ConversationSummary("UUID-1", 5, 2, "10/9/19 11:59:59 PM", "10/12/19 1:00:00 AM", 5 + 8 + 13 + 4,
+                List.of(new Sender("a@test.com", 3, 5 + 13 + 4), new Sender("b@test.com", 2, 8))), summaries.get(0));
+        assertEquals(new ConversationSummary("UUID-2", 1, 1, "10/11/19 9:00:00 AM", "10/11/19 9:00:00 AM", 18,
+                List.of(new Sender("c@test.com", 1, 18))), summaries.get(1));
+    }
+
+    @Test
+    @DisplayName("Should give the same summaries when partial aggregates are merged in order")
+    void merge_ShouldMatchSinglePass() {
+        List<ChatMessage> messages = List.of(
+                message("UUID-1", "2019-10-10T16:10:12Z", "a@test.com", "first"),
+                message("UUID-2", "2019-10-10T16:11:00Z", "b@test.com", "second"),
+                message("UUID-1", "2019-10-10T16:09:00Z", "c@test.com", "third"),
+                message("UUID-3", "2019-10-10T17:00:00Z", "a@test.com", "fourth"),
+                message("UUID-2", "2019-10-10T18:00:00Z", "a@test.com", "fifth")
+        );
+        var whole = messages.stream().collect(ConversationAggregator.collector());
+
+        var first = messages.subList(0, 2).stream().collect(ConversationAggregator.collector());
+        var second = messages.subList(2, 5).stream().collect(ConversationAggregator.collector());
+
+        assertEquals(whole.summaries(), first.merge(second).summaries());
+        assertEquals(List.of("UUID-1", "UUID-2", "UUID-3"),
+                whole.summaries().stream().map(ConversationSummary::conversationId).toList());
+    }
+
+    @Test
+    @DisplayName("Should measure text as UTF-8 bytes without encoding it")
+    void utf8Length_ShouldMatchEncodedSize() {
+        for (String text : List.of("", "ascii", "é", "€uro", "😀", "lone \uD800 surrogate")) {
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, ConversationAccumulator.utf8Length(text), text);
+        }
+        assertEquals(0, ConversationAccumulator.utf8Length(null));
+    }
+
+    private static ChatMessage message(String conversationId, String timestamp, String sender, String text) {
+        return new ChatMessage("APD1", conversationId, "Call-1", timestamp, sender, text);
+    }
+}
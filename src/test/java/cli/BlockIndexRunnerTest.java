@@ -0,0 +1,73 @@
+package cli;
+
+import benchmark.EvidenceGenerator;
+import index.BlockIndex;
+import model.BlockIndexEntry;
+import model.ChatMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockIndexRunnerTest {
+
+    // 10 blocks of one message, over 3 conversations.
+    private static final EvidenceGenerator GENERATOR = new EvidenceGenerator(10, 1, 40, 0.2, 5, 3, 42L);
+    private static final List<ChatMessage> MESSAGES = GENERATOR.messages();
+
+    private final PrintStream out = new PrintStream(new ByteArrayOutputStream());
+
+    @Test
+    @DisplayName("Should scan the evidence instead of writing an index next to it uninvited")
+    void select_ShouldReturnNull_WhenNoIndexExists(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"));
+
+        assertNull(runner(null).select(evidence));
+        assertFalse(Files.exists(BlockIndex.defaultPathFor(evidence)));
+    }
+
+    @Test
+    @DisplayName("Should fall back to scanning when the requested index cannot be written")
+    void select_ShouldReturnNull_WhenIndexCannotBeWritten(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"));
+        // The parent of the index is a regular file, as unwritable as a read-only medium, even for root.
+        Path unwritable = Files.createFile(tempDir.resolve("media")).resolve("evidence.fdti");
+
+        assertNull(runner(unwritable).select(evidence));
+    }
+
+    @Test
+    @DisplayName("Should select the blocks of the conversation through an existing or requested index")
+    void select_ShouldReturnMatchingBlocks_WhenIndexIsAvailable(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"));
+        Path requested = tempDir.resolve("indexes").resolve("evidence.fdti");
+        Files.createDirectories(requested.getParent());
+
+        var selection = runner(requested).select(evidence);
+        assertNotNull(selection);
+        assertEquals(10, selection.total());
+        // Conversation 1 is continued by blocks 1, 4 and 7.
+        assertEquals(List.of(MESSAGES.get(1).platformId(), MESSAGES.get(4).platformId(), MESSAGES.get(7).platformId()),
+                selection.blocks().stream().map(BlockIndexEntry::platformId).toList());
+
+        assertEquals(0, runner(null).build(List.of(evidence)));
+        assertEquals(selection.blocks(), runner(null).select(evidence).blocks());
+    }
+
+    private BlockIndexRunner runner(Path indexFile) {
+        return new BlockIndexRunner(indexFile, List.of(MESSAGES.get(1).conversationId()), null, out, out);
+    }
+
+    private static Path evidence(Path file) throws IOException {
+        GENERATOR.write(file);
+        return file;
+    }
+}
@@ -0,0 +1,127 @@
+package exporter;
+
+import benchmark.EvidenceGenerator;
+import loader.ColumnarChatLoader;
+import model.ChatMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.ColumnarFormat.Column;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarChatExporterTest {
+
+    private DataExporter<ChatMessage> exporter;
+    private ColumnarChatLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new ColumnarChatExporter(100, Deflater.BEST_SPEED);
+        loader = new ColumnarChatLoader();
+    }
+
+    @Test
+    @DisplayName("Should read back every row across several row groups")
+    void export_ShouldRoundTrip_AcrossRowGroups(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("report.fdtc");
+        List<ChatMessage> messages = new EvidenceGenerator(25, 10, 80, 0.2).messages();
+
+        exporter.export(messages.stream(), outputFile);
+
+        try (Stream<ChatMessage> loaded = loader.load(outputFile)) {
+            assertEquals(messages, loaded.toList());
+        }
+        assertEquals(250, loader.count(outputFile));
+    }
+
+    @Test
+    @DisplayName("Should preserve null fields and non-ASCII text")
+    void export_ShouldHandleNullsAndUnicode(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("nulls.fdtc");
+        List<ChatMessage> messages = List.of(
+                new ChatMessage("APD3", null, "P3", null, "me@test.com", null),
+                new ChatMessage("APD3", null, "P3", null, "été@test.com", "Café ☕, \"quoted\"")
+        );
+
+        exporter.export(messages.stream(), outputFile);
+
+        try (Stream<ChatMessage> loaded = loader.load(outputFile)) {
+            assertEquals(messages, loaded.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should scan a single column")
+    void loadColumn_ShouldReturnOnlyRequestedValues(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("scan.fdtc");
+        List<ChatMessage> messages = new EvidenceGenerator(25, 10, 80, 0.2).messages();
+
+        exporter.export(messages.stream(), outputFile);
+
+        try (Stream<String> senders = loader.loadColumn(outputFile, Column.SENDER)) {
+            assertEquals(messages.stream().map(ChatMessage::sender).toList(), senders.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should be much smaller than the CSV report for repetitive metadata")
+    void export_ShouldBeSmallerThanCsv(@TempDir Path tempDir) throws IOException {
+        Path columnar = tempDir.resolve("report.fdtc");
+        Path csv = tempDir.resolve("report.csv");
+        List<ChatMessage> messages = new EvidenceGenerator(250, 20, 40, 0.2, 7, 37, 42L).messages();
+
+        new ColumnarChatExporter().export(messages.stream(), columnar);
+        new CsvChatExporter().export(messages.stream(), csv);
+
+        assertTrue(Files.size(columnar) * 4 < Files.size(csv),
+                "Columnar report (" + Files.size(columnar) + " B) should be a fraction of the CSV (" + Files.size(csv) + " B)");
+    }
+
+    @Test
+    @DisplayName("Should produce a readable empty report for an empty stream")
+    void export_ShouldHandleEmptyStream(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("empty.fdtc");
+
+        exporter.export(Stream.empty(), outputFile);
+
+        try (Stream<ChatMessage> loaded = loader.load(outputFile)) {
+            assertEquals(0, loaded.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse compressed report names, which the loader could not seek into")
+    void export_ShouldThrowIOException_WhenReportNameIsCompressed(@TempDir Path tempDir) throws IOException {
+        Path plain = tempDir.resolve("report.fdtc");
+        List<ChatMessage> messages = new EvidenceGenerator(25, 10, 80, 0.2).messages();
+
+        for (String name : List.of("report.fdtc.gz", "report.fdtc.zip")) {
+            Path compressed = tempDir.resolve(name);
+            assertThrows(IOException.class, () -> exporter.export(messages.stream(), compressed));
+            assertFalse(Files.exists(compressed), name);
+        }
+
+        // The supported name still round-trips.
+        exporter.export(messages.stream(), plain);
+        try (Stream<ChatMessage> loaded = loader.load(plain)) {
+            assertEquals(messages, loaded.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not columnar reports")
+    void load_ShouldThrowIOException_WhenFileIsNotColumnar(@TempDir Path tempDir) throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("report.csv"), "id,conversationId,platformId,timestamp,sender,message\n");
+
+        assertThrows(IOException.class, () -> loader.load(csv));
+    }
+}
@@ -9,8 +9,10 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,7 +22,11 @@ class CsvChatExporterTest {
 
     @BeforeEach
     void setUp() {
-        exporter = new CsvChatExporter();
+        exporter = createExporter();
+    }
+
+    protected DataExporter<ChatMessage> createExporter() {
+        return new CsvChatExporter();
     }
 
     @Test
@@ -87,4 +93,23 @@ class CsvChatExporterTest {
         assertEquals(1, lines.size(), "Should verify exactly 1 line (header)");
         assertTrue(lines.getFirst().startsWith("id"), "Header should start with the first field name");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should gzip the report when its name ends with .gz")
+    void export_ShouldCompress_WhenReportNameEndsWithGz(@TempDir Path tempDir) throws IOException {
+        Path plain = tempDir.resolve("report.csv");
+        Path compressed = tempDir.resolve("report.csv.gz");
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            messages.add(new ChatMessage("APD" + i / 20, "UUID", "Call", "10/10/19 4:10:12 PM", "user@test.com", "Message " + i));
+        }
+
+        exporter.export(messages.stream(), plain);
+        exporter.export(messages.stream(), compressed);
+
+        try (var in = new GZIPInputStream(Files.newInputStream(compressed))) {
+            assertArrayEquals(Files.readAllBytes(plain), in.readAllBytes());
+        }
+        assertTrue(Files.size(compressed) < Files.size(plain) / 4);
+    }
+}
@@ -0,0 +1,80 @@
+package exporter;
+
+import benchmark.EvidenceGenerator;
+import model.ChatMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutExporterTest {
+
+    @Test
+    @DisplayName("Should write every format as if it had been exported alone")
+    void export_ShouldMatchSingleExports(@TempDir Path tempDir) throws IOException {
+        List<ChatMessage> messages = new EvidenceGenerator(250, 20, 80, 0.5).messages();
+        var exporter = new FanOutExporter<>(List.of(
+                new FanOutExporter.Target<>("CSV", new FastCsvChatExporter(), report -> report.resolveSibling("fan.csv")),
+                new FanOutExporter.Target<>("JSON", new JsonChatExporter(), report -> report.resolveSibling("fan.json"))
+        ), 100, 2);
+
+        exporter.export(messages.stream(), tempDir.resolve("fan"));
+        new FastCsvChatExporter().export(messages.stream(), tempDir.resolve("alone.csv"));
+        new JsonChatExporter().export(messages.stream(), tempDir.resolve("alone.json"));
+
+        assertArrayEquals(Files.readAllBytes(tempDir.resolve("alone.csv")), Files.readAllBytes(tempDir.resolve("fan.csv")));
+        assertArrayEquals(Files.readAllBytes(tempDir.resolve("alone.json")), Files.readAllBytes(tempDir.resolve("fan.json")));
+    }
+
+    @Test
+    @DisplayName("Should rethrow the failure of one exporter and cancel the others")
+    void export_ShouldThrowAndCancelOthers_WhenOneExporterFails(@TempDir Path tempDir) {
+        var cancelled = new AtomicBoolean();
+        DataExporter<ChatMessage> failing = (input, path) -> {
+            input.limit(10).forEach(message -> {});
+            throw new IOException("Disk full");
+        };
+        DataExporter<ChatMessage> draining = (input, path) -> {
+            try {
+                input.forEach(message -> {});
+            } catch (RuntimeException e) {
+                cancelled.set(true);
+                throw e;
+            }
+        };
+        var exporter = new FanOutExporter<>(List.of(
+                new FanOutExporter.Target<>("failing", failing, report -> report),
+                new FanOutExporter.Target<>("draining", draining, report -> report)
+        ), 10, 1);
+
+        // Endless input: the export can only end through the failure.
+        ChatMessage message = new EvidenceGenerator(1, 1, 80, 0.5).messages().getFirst();
+        Stream<ChatMessage> endless = Stream.generate(() -> message);
+        var thrown = assertThrows(IOException.class, () -> exporter.export(endless, tempDir.resolve("report")));
+
+        assertEquals("Disk full", thrown.getMessage());
+        assertTrue(cancelled.get(), "The other exporter should have been cancelled");
+    }
+
+    @Test
+    @DisplayName("Should fail when an exporter returns before consuming the whole stream")
+    void export_ShouldThrow_WhenExporterStopsEarly(@TempDir Path tempDir) {
+        DataExporter<ChatMessage> partial = (input, path) -> input.limit(3).forEach(message -> {});
+        var exporter = new FanOutExporter<>(List.of(
+                new FanOutExporter.Target<>("partial", partial, report -> report),
+                new FanOutExporter.Target<>("CSV", new FastCsvChatExporter(), report -> report.resolveSibling("report.csv"))
+        ), 10, 1);
+
+        List<ChatMessage> messages = new EvidenceGenerator(50, 20, 80, 0.2).messages();
+        var thrown = assertThrows(IOException.class, () -> exporter.export(messages.stream(), tempDir.resolve("report")));
+        assertTrue(thrown.getMessage().contains("partial"));
+    }
+}
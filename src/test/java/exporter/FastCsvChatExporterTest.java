@@ -0,0 +1,111 @@
+package exporter;
+
+import model.ChatMessage;
+import parser.ChatParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the CSV exporter suite against the hand-written exporter and compares it byte for byte with the Jackson one.
+ */
+class FastCsvChatExporterTest extends CsvChatExporterTest {
+
+    private static final String ALPHABET = "ab-/:;=_~\"',\\ \t\r\n#!*+é€☕😀";
+
+    @Override
+    protected DataExporter<ChatMessage> createExporter() {
+        return new FastCsvChatExporter();
+    }
+
+    @Test
+    @DisplayName("Should write the same bytes as the Jackson exporter for random values")
+    void export_ShouldMatchJacksonExporter_ForRandomValues(@TempDir Path tempDir) throws IOException {
+        var random = new Random(42);
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            messages.add(new ChatMessage(value(random), value(random), value(random),
+                    value(random), value(random), value(random)));
+        }
+        messages.add(new ChatMessage("APD1", "UUID1", "P1", "10/10/19 4:10:12 PM", "x".repeat(24), "y".repeat(25)));
+        messages.add(new ChatMessage("APD1", "UUID1", "P1", "", "\"", "\"".repeat(200_000)));
+
+        Path expected = tempDir.resolve("jackson.csv");
+        Path actual = tempDir.resolve("fast.csv");
+        new CsvChatExporter().export(messages.stream(), expected);
+        new FastCsvChatExporter().export(messages.stream(), actual);
+
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+    }
+
+    @Test
+    @DisplayName("Should write the same bytes from batches as from records")
+    void exportBatches_ShouldMatchExport(@TempDir Path tempDir) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int block = 0; block < 300; block++) {
+            lines.add("APD" + block + ",");
+            lines.add("Conversation Identifier:," + "uuid-".repeat(block % 40) + block);
+            if (block % 3 != 0) lines.add("Platform Call ID:,P" + block);
+            lines.add("Date and time:,10/10/19 4:10:12 PM");
+            for (int i = 0; i < block % 7; i++) {
+                lines.add("user" + i + "@test.com," + (i % 2 == 0 ? "\"Hi, \"\"" + block + "\"\" é☕\"" : "plain" + i));
+            }
+        }
+        var parser = new ChatParser();
+
+        Path expected = tempDir.resolve("records.csv");
+        Path actual = tempDir.resolve("batches.csv");
+        var exporter = new FastCsvChatExporter();
+        exporter.export(parser.parse(lines.stream()), expected);
+        exporter.exportBatches(parser.parseBatches(lines.stream(), 64), actual);
+
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+    }
+
+    @Test
+    @DisplayName("Should append rows without a second header when resumed")
+    void resume_ShouldAppendRowsWithoutHeader(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("resumed.csv");
+        var exporter = new FastCsvChatExporter();
+
+        long size;
+        try (var writer = exporter.open(outputFile)) {
+            writer.write(new ChatMessage("APD1", "UUID1", "P1", "2023-01-01", "tom@test.com", "Hello"));
+            size = writer.sync();
+            writer.write(new ChatMessage("APD1", "UUID1", "P1", "2023-01-01", "tom@test.com", "Lost"));
+        }
+        try (var writer = exporter.resume(outputFile, size, 1)) {
+            writer.write(new ChatMessage("APD1", "UUID1", "P1", "2023-01-01", "jerry@test.com", "Hi"));
+            assertEquals(2, writer.records());
+        }
+
+        assertEquals(List.of("id,conversationId,platformId,timestamp,sender,message",
+                "APD1,UUID1,P1,2023-01-01,tom@test.com,Hello",
+                "APD1,UUID1,P1,2023-01-01,jerry@test.com,Hi"), Files.readAllLines(outputFile));
+    }
+
+    private static String value(Random random) {
+        int kind = random.nextInt(10);
+        if (kind == 0) return null;
+        if (kind == 1) return "";
+
+        // Lengths around the 24 characters below which Jackson checks for characters needing quotes.
+        int length = random.nextInt(kind < 5 ? 30 : 200);
+        var value = new StringBuilder(length);
+        while (value.length() < length) {
+            int index = random.nextInt(ALPHABET.length() - 1);
+            char c = ALPHABET.charAt(index);
+            value.append(Character.isHighSurrogate(c) ? ALPHABET.substring(index, index + 2) : Character.isLowSurrogate(c) ? "z" : String.valueOf(c));
+        }
+        return value.toString();
+    }
+}
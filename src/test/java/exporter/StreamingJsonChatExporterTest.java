@@ -0,0 +1,90 @@
+package exporter;
+
+import exporter.StreamingJsonChatExporter.Layout;
+import model.ChatMessage;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingJsonChatExporterTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(
+            new ChatMessage("APD1", "UUID1", "Call1", "2023-01-01", "tom@test.com", "Hello"),
+            new ChatMessage("APD1", null, "Call1", null, "jerry@test.com", "She said \"Hi\" \\ \n Café ☕")
+    );
+
+    private JsonMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = JsonMapper.builder().build();
+    }
+
+    @Test
+    @DisplayName("Should write one independently parseable object per line")
+    void export_ShouldWriteOneObjectPerLine_WhenNdjson(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("output.ndjson");
+
+        new StreamingJsonChatExporter(Layout.NDJSON).export(MESSAGES.stream(), outputFile);
+
+        List<String> lines = Files.readAllLines(outputFile);
+        assertEquals(MESSAGES.size(), lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(MESSAGES.get(i), mapper.readValue(lines.get(i), ChatMessage.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Should write the same array as compact databind serialization")
+    void export_ShouldMatchDatabind_WhenCompactArray(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("output.json");
+
+        new StreamingJsonChatExporter(Layout.COMPACT_ARRAY).export(MESSAGES.stream(), outputFile);
+
+        assertEquals(mapper.writeValueAsString(MESSAGES), Files.readString(outputFile));
+    }
+
+    @Test
+    @DisplayName("Should produce an empty array or an empty file for an empty stream")
+    void export_ShouldHandleEmptyStream(@TempDir Path tempDir) throws IOException {
+        Path array = tempDir.resolve("empty.json");
+        Path lines = tempDir.resolve("empty.ndjson");
+
+        new StreamingJsonChatExporter(Layout.COMPACT_ARRAY).export(Stream.empty(), array);
+        new StreamingJsonChatExporter(Layout.NDJSON).export(Stream.empty(), lines);
+
+        assertEquals("[]", Files.readString(array));
+        assertEquals(0, Files.size(lines));
+    }
+
+    @Test
+    @DisplayName("Should continue the array after the synced element when resumed")
+    void resume_ShouldContinueArray_WhenCompactArray(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("resumed.json");
+        var exporter = new StreamingJsonChatExporter(Layout.COMPACT_ARRAY);
+
+        long size;
+        try (var writer = exporter.open(outputFile)) {
+            writer.write(MESSAGES.get(0));
+            size = writer.sync();
+            writer.write(MESSAGES.get(0));
+        }
+        try (var writer = exporter.resume(outputFile, size, 1)) {
+            writer.write(MESSAGES.get(1));
+        }
+
+        assertEquals(mapper.writeValueAsString(MESSAGES), Files.readString(outputFile));
+    }
+}
@@ -0,0 +1,53 @@
+package exporter;
+
+import model.ConversationSummary;
+import model.ConversationSummary.Sender;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummaryExporterTest {
+
+    private static final ConversationSummary SUMMARY = new ConversationSummary("UUID1", 3, 2,
+            "10/10/19 4:10:12 PM", "10/10/19 5:00:00 PM", 17,
+            List.of(new Sender("tom@test.com", 2, 12), new Sender("jerry@test.com", 1, 5)));
+
+    @Test
+    @DisplayName("Should write one CSV row per conversation with the sender volumes in one column")
+    void csvExport_ShouldFlattenSenders(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("summary.csv");
+
+        new CsvSummaryExporter().export(Stream.of(SUMMARY), outputFile);
+
+        assertEquals(List.of(
+                "conversationId,messages,participants,firstTimestamp,lastTimestamp,bytes,bytesPerSender",
+                "UUID1,3,2,\"10/10/19 4:10:12 PM\",\"10/10/19 5:00:00 PM\",17,\"tom@test.com=12;jerry@test.com=5\""
+        ), Files.readAllLines(outputFile));
+    }
+
+    @Test
+    @DisplayName("Should write a JSON array with the sender volumes nested")
+    void jsonExport_ShouldNestSenders(@TempDir Path tempDir) throws IOException {
+        Path outputFile = tempDir.resolve("summary.json");
+
+        new JsonSummaryExporter().export(Stream.of(SUMMARY, SUMMARY), outputFile);
+
+        JsonNode root = JsonMapper.builder().build().readTree(outputFile.toFile());
+        assertEquals(2, root.size());
+        assertEquals("UUID1", root.get(0).get("conversationId").asString());
+        assertEquals(2, root.get(0).get("participants").asInt());
+        assertEquals("jerry@test.com", root.get(0).get("senders").get(1).get("sender").asString());
+        assertEquals(5, root.get(0).get("senders").get(1).get("bytes").asLong());
+    }
+}
@@ -0,0 +1,112 @@
+package index;
+
+import benchmark.EvidenceGenerator;
+import loader.FileRangeLoader;
+import model.BlockIndexEntry;
+import model.ChatMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ChatParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockIndexTest {
+
+    private static final int BLOCKS = 30;
+    private static final int MESSAGES_PER_BLOCK = 3;
+    // 4 conversations, each continued every 4 blocks.
+    private static final EvidenceGenerator GENERATOR = new EvidenceGenerator(BLOCKS, MESSAGES_PER_BLOCK, 40, 0.2, 5, 4, 42L);
+
+    @Test
+    @DisplayName("Should record the offset, length and metadata of every block")
+    void build_ShouldIndexEveryBlock(@TempDir Path tempDir) throws IOException {
+        for (String newline : List.of("\n", "\r\n")) {
+            Path evidence = evidence(tempDir.resolve("evidence" + newline.length() + ".csv"), newline);
+            Path indexFile = BlockIndex.defaultPathFor(evidence);
+
+            assertEquals(BLOCKS, new BlockIndexer().build(evidence, indexFile));
+
+            String content = Files.readString(evidence);
+            try (var index = BlockIndex.open(indexFile, evidence)) {
+                assertEquals(BLOCKS, index.size());
+                List<BlockIndexEntry> entries = index.entries().toList();
+                for (int i = 0; i < BLOCKS; i++) {
+                    BlockIndexEntry entry = entries.get(i);
+                    ChatMessage first = firstMessageOf(i);
+                    assertTrue(content.startsWith(first.id() + ",", (int) entry.offset()), "Block " + i + " must start at its APD line");
+                    assertEquals(first.conversationId(), entry.conversationId());
+                    assertEquals(first.platformId(), entry.platformId());
+                    assertEquals(first.timestamp(), entry.timestamp());
+                }
+                assertEquals(Files.size(evidence), entries.getLast().end());
+                for (int i = 1; i < BLOCKS; i++) {
+                    assertEquals(entries.get(i - 1).end(), entries.get(i).offset(), "Blocks must be contiguous");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should extract exactly the messages a full parse yields for a conversation")
+    void extract_ShouldMatchFilteredFullParse(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"), "\n");
+        Path indexFile = BlockIndex.defaultPathFor(evidence);
+        new BlockIndexer().build(evidence, indexFile);
+
+        List<ChatMessage> all;
+        try (var lines = new FileRangeLoader().load(evidence)) {
+            all = new ChatParser().parse(lines).toList();
+        }
+
+        try (var index = BlockIndex.open(indexFile, evidence)) {
+            String conversation = firstMessageOf(2).conversationId();
+            List<BlockIndexEntry> blocks = index.findByConversation(conversation);
+            assertEquals(7, blocks.size(), "Blocks 2, 6, ..., 26");
+
+            List<ChatMessage> extracted;
+            try (var messages = new BlockExtractor(new ChatParser(), new FileRangeLoader()).extract(evidence, blocks)) {
+                extracted = messages.toList();
+            }
+            assertEquals(all.stream().filter(m -> conversation.equals(m.conversationId())).toList(), extracted);
+
+            assertEquals(1, index.findByPlatform(firstMessageOf(7).platformId()).size());
+            assertTrue(index.findByConversation("unknown").isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse an index built for a different version of the evidence file")
+    void open_ShouldThrowStaleIndexException_WhenEvidenceChanged(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"), "\n");
+        Path indexFile = tempDir.resolve("custom.fdti");
+        new BlockIndexer().build(evidence, indexFile);
+
+        Files.writeString(evidence, "late@test.com,appended\n", StandardOpenOption.APPEND);
+
+        assertThrows(BlockIndex.StaleIndexException.class, () -> BlockIndex.open(indexFile, evidence));
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not block indexes")
+    void open_ShouldThrowIOException_WhenFileIsNotAnIndex(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"), "\n");
+
+        assertThrows(IOException.class, () -> BlockIndex.open(evidence, evidence));
+    }
+
+    private static Path evidence(Path file, String newline) throws IOException {
+        GENERATOR.write(file);
+        return Files.writeString(file, Files.readString(file).replace("\n", newline));
+    }
+
+    private static ChatMessage firstMessageOf(int block) {
+        return GENERATOR.messages().get(block * MESSAGES_PER_BLOCK);
+    }
+}
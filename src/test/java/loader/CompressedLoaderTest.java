@@ -0,0 +1,80 @@
+package loader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedLoaderTest {
+
+    private CompressedLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new CompressedLoader();
+    }
+
+    @Test
+    @DisplayName("Should stream the lines of a gzip file larger than the read-ahead window")
+    void load_ShouldDecompressGzip(@TempDir Path tempDir) throws IOException {
+        List<String> lines = lines(100_000);
+        Path file = tempDir.resolve("evidence.csv.gz");
+        try (var out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (Stream<String> loaded = loader.load(file)) {
+            assertEquals(lines, loaded.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should read every entry of a zip archive in order, skipping directories")
+    void load_ShouldConcatenateZipEntries(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("evidence.zip");
+        try (var out = new ZipOutputStream(Files.newOutputStream(file))) {
+            out.putNextEntry(new ZipEntry("case/"));
+            out.putNextEntry(new ZipEntry("case/part1.csv"));
+            out.write("APD1,\nuser@test.com,no trailing newline".getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new ZipEntry("case/part2.csv"));
+            out.write("APD2,\nuser@test.com,été\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (Stream<String> loaded = loader.load(file)) {
+            assertEquals(List.of("APD1,", "user@test.com,no trailing newline", "APD2,", "user@test.com,été"),
+                    loaded.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should read uncompressed files as is and reject zstd with a clear message")
+    void load_ShouldHandlePlainAndUnsupportedFormats(@TempDir Path tempDir) throws IOException {
+        Path plain = Files.writeString(tempDir.resolve("evidence.csv"), "APD1,\nuser@test.com,hi\n");
+        Path zstd = Files.write(tempDir.resolve("evidence.csv.zst"), new byte[]{0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0, 0});
+
+        try (Stream<String> loaded = loader.load(plain)) {
+            assertEquals(List.of("APD1,", "user@test.com,hi"), loaded.toList());
+        }
+        var e = assertThrows(IOException.class, () -> loader.load(zstd));
+        assertTrue(e.getMessage().contains("zstd"));
+    }
+
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) lines.add("user" + (i % 13) + "@test.com,Message number " + i);
+        return lines;
+    }
+}
@@ -0,0 +1,59 @@
+package loader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputResolverTest {
+
+    private final InputResolver resolver = new InputResolver();
+
+    @Test
+    @DisplayName("Should resolve a single file relative to its parent")
+    void resolve_ShouldReturnFile_WhenInputIsFile(@TempDir Path tempDir) throws IOException {
+        Path file = Files.createFile(tempDir.resolve("evidence.csv"));
+
+        InputResolver.Resolution resolution = resolver.resolve(file.toString());
+
+        assertEquals(List.of(file), resolution.files());
+        assertEquals(tempDir, resolution.root());
+    }
+
+    @Test
+    @DisplayName("Should list directories recursively in a stable order")
+    void resolve_ShouldWalkDirectory(@TempDir Path tempDir) throws IOException {
+        Path b = Files.createFile(tempDir.resolve("b.csv"));
+        Files.createDirectories(tempDir.resolve("sub"));
+        Path a = Files.createFile(tempDir.resolve("sub/a.csv"));
+
+        assertEquals(List.of(b, a), resolver.resolve(tempDir.toString()).files());
+    }
+
+    @Test
+    @DisplayName("Should expand glob patterns below their base directory")
+    void resolve_ShouldExpandGlob(@TempDir Path tempDir) throws IOException {
+        Files.createDirectories(tempDir.resolve("dev1"));
+        Files.createDirectories(tempDir.resolve("dev2"));
+        Path first = Files.createFile(tempDir.resolve("dev1/chat.csv"));
+        Path second = Files.createFile(tempDir.resolve("dev2/chat.csv"));
+        Files.createFile(tempDir.resolve("dev2/notes.txt"));
+
+        InputResolver.Resolution resolution = resolver.resolve(tempDir + "/*/*.csv");
+
+        assertEquals(List.of(first, second), resolution.files());
+    }
+
+    @Test
+    @DisplayName("Should return no file when nothing matches")
+    void resolve_ShouldReturnEmpty_WhenNothingMatches(@TempDir Path tempDir) throws IOException {
+        assertTrue(resolver.resolve(tempDir.resolve("ghost.csv").toString()).files().isEmpty());
+        assertTrue(resolver.resolve(tempDir + "/*.json").files().isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+package loader;
+
+import model.FilePartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ChatParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLineLoaderTest {
+
+    @Test
+    @DisplayName("Should split lines exactly like Files.lines for every terminator")
+    void load_ShouldMatchFilesLines_ForAllTerminators(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("mixed.csv");
+        Files.writeString(file, "APD1,\r\nConversation Identifier:,ID\rx@test.com,Hello\n\nlast line");
+
+        assertEquals(filesLines(file), load(new MappedLineLoader(), file));
+    }
+
+    @Test
+    @DisplayName("Should produce identical lines when the mapping window is smaller than the file")
+    void load_ShouldRemapWindows_AcrossLineBoundaries(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("windows.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("user").append(i).append("@test.com,Message ").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        Files.writeString(file, content);
+
+        assertEquals(filesLines(file), load(new MappedLineLoader(64), file));
+    }
+
+    @Test
+    @DisplayName("Should expose ASCII lines as views and decode UTF-8 lines")
+    void load_ShouldDecodeNonAsciiLines(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("utf8.csv");
+        Files.writeString(file, "plain@test.com,Hello\nété@test.com,Café ☕\n", StandardCharsets.UTF_8);
+
+        try (Stream<CharSequence> lines = new MappedLineLoader().load(file)) {
+            List<CharSequence> result = lines.toList();
+
+            assertInstanceOf(MappedLine.class, result.get(0), "ASCII lines should not be copied");
+            assertEquals("plain@test.com,Hello", result.get(0).toString());
+            assertEquals("été@test.com,Café ☕", result.get(1).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject malformed UTF-8 like Files.lines")
+    void load_ShouldFail_OnMalformedInput(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("malformed.csv");
+        Files.write(file, new byte[]{'o', 'k', '\n', (byte) 0xC3, '(', '\n'});
+
+        try (Stream<CharSequence> lines = new MappedLineLoader().load(file)) {
+            assertThrows(UncheckedIOException.class, lines::toList);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail when a line does not fit in the mapping window")
+    void load_ShouldFail_WhenLineExceedsWindow(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("long.csv");
+        Files.writeString(file, "short\n" + "x".repeat(100) + "\n");
+
+        try (Stream<CharSequence> lines = new MappedLineLoader(32).load(file)) {
+            assertThrows(UncheckedIOException.class, lines::toList);
+        }
+    }
+
+    @Test
+    @DisplayName("Should only read the lines of the requested partition")
+    void load_ShouldRespectPartitionBounds(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("partition.csv");
+        Files.writeString(file, "first\nsecond\nthird\n");
+
+        try (Stream<CharSequence> lines = new MappedLineLoader().load(new FilePartition(file, 6, 7))) {
+            assertEquals(List.of("second"), lines.map(CharSequence::toString).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse mapped lines into the same messages as decoded lines")
+    void parse_ShouldAcceptLineViews(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("evidence.csv");
+        Files.write(file, List.of(
+                "APD93823,",
+                "Conversation Identifier:,8755-UUID",
+                "Platform Call ID:,Call-123",
+                "Date and time:,10/10/19 4:10:12 PM",
+                "anonym@anonym.fr,\"Good luck, \"\"friend\"\"\"",
+                "   "
+        ));
+
+        var parser = new ChatParser();
+        try (var decoded = new CsvLoader().load(file); var mapped = new MappedLineLoader().load(file)) {
+            assertEquals(parser.parse(decoded).toList(), parser.parse(mapped).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw IOException when path is a directory")
+    void load_ShouldThrowIOException_WhenPathIsDirectory(@TempDir Path tempDir) {
+        assertThrows(IOException.class, () -> new MappedLineLoader().load(tempDir));
+    }
+
+    private static List<String> load(MappedLineLoader loader, Path file) throws IOException {
+        try (Stream<CharSequence> lines = loader.load(file)) {
+            return lines.map(CharSequence::toString).toList();
+        }
+    }
+
+    private static List<String> filesLines(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.toList();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package metrics;
+
+import exporter.CsvChatExporter;
+import loader.CsvLoader;
+import loader.FileRangeLoader;
+import model.FilePartition;
+import model.TransformationStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ChatParser;
+import parser.LineClassifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentationTest {
+
+    @Test
+    @DisplayName("Should count lines per rule and messages without changing the report")
+    void instrumentedRun_ShouldCollectMetrics(@TempDir Path tempDir) throws IOException {
+        Path evidence = Files.write(tempDir.resolve("evidence.csv"), List.of(
+                "APD1,",
+                "Conversation Identifier:,UUID-1",
+                "Platform Call ID:,Call",
+                "Date and time:,10/10/19 4:10:12 PM",
+                "first@test.com,Hello",
+                "",
+                "garbage line",
+                "second@test.com,Hi"
+        ));
+        Path expected = tempDir.resolve("expected.csv");
+        Path actual = tempDir.resolve("actual.csv");
+
+        try (var lines = new CsvLoader().load(evidence)) {
+            new CsvChatExporter().export(new ChatParser().parse(lines), expected);
+        }
+
+        var metrics = new TransformationMetrics();
+        var parser = new InstrumentedParser(new ChatParser(metrics.countingClassifiers(LineClassifier::new)), metrics);
+        try (var lines = new InstrumentedLoader<>(new CsvLoader(), metrics).load(evidence)) {
+            new InstrumentedExporter<>(new CsvChatExporter(), metrics).export(parser.parse(lines), actual);
+        }
+
+        assertEquals(Files.readString(expected), Files.readString(actual), "Instrumentation must not change the report");
+
+        TransformationStats stats = metrics.snapshot();
+        assertEquals(8, stats.linesRead());
+        assertEquals(1, stats.unclassifiedLines());
+        assertEquals(1L, stats.lineTypes().get("BLOCK_START"));
+        assertEquals(2L, stats.lineTypes().get("MESSAGE"));
+        assertEquals(1L, stats.lineTypes().get("UNRECOGNIZED"));
+        assertEquals(2, stats.messagesParsed());
+        assertEquals(2, stats.messagesExported());
+        assertEquals(8, stats.loader().samples());
+        assertEquals(2, stats.parser().samples());
+    }
+
+    @Test
+    @DisplayName("Should count the lines of each partition read through a partition loader")
+    void instrumentedPartitionLoader_ShouldCountPartitionLines(@TempDir Path tempDir) throws IOException {
+        Path evidence = Files.write(tempDir.resolve("evidence.csv"), List.of("APD1,", "first@test.com,Hello", "APD2,", "second@test.com,Hi"));
+        var metrics = new TransformationMetrics();
+        var loader = new InstrumentedPartitionLoader<>(new FileRangeLoader(), metrics);
+
+        try (var lines = loader.load(new FilePartition(evidence, 0, 26))) {
+            assertEquals(List.of("APD1,", "first@test.com,Hello"), lines.map(CharSequence::toString).toList());
+        }
+
+        assertEquals(2, metrics.snapshot().linesRead());
+        assertEquals(25, metrics.snapshot().charactersRead());
+    }
+
+    @Test
+    @DisplayName("Should only subtract the loader time from the parser time when both run on the same thread")
+    void snapshot_ShouldKeepRawParserTime_WhenLoaderRunsOnItsOwnThread() {
+        var sequential = new TransformationMetrics(true);
+        var pipelined = new TransformationMetrics(false);
+        for (var metrics : List.of(sequential, pipelined)) {
+            metrics.loaderLatency.record(4_000_000);
+            metrics.parserLatency.record(10_000_000);
+        }
+
+        assertEquals(6, sequential.snapshot().parser().millis());
+        assertTrue(sequential.snapshot().parserExcludesLoader());
+        assertEquals(10, pipelined.snapshot().parser().millis());
+        assertFalse(pipelined.snapshot().parserExcludesLoader());
+    }
+
+    @Test
+    @DisplayName("Should write the snapshot as JSON")
+    void writeJson_ShouldProduceMachineReadableReport() throws IOException {
+        var metrics = new TransformationMetrics();
+        var out = new ByteArrayOutputStream();
+
+        metrics.writeJson(out);
+
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertTrue(json.trim().startsWith("{") && json.trim().endsWith("}"), json);
+        assertTrue(json.contains("\"lineTypes\""), json);
+        assertTrue(json.contains("\"p99Nanos\""), json);
+    }
+}
@@ -0,0 +1,41 @@
+package metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should map every value into a bucket whose bounds contain it")
+    void bucket_ShouldContainValue() {
+        for (long value : new long[]{0, 1, 3, 4, 7, 8, 9, 1_000, 123_456_789, Long.MAX_VALUE / 2, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(LatencyHistogram.lowerBound(bucket) <= value, "Lower bound of " + value);
+            if (value < Long.MAX_VALUE / 2) {
+                assertTrue(LatencyHistogram.lowerBound(bucket + 1) > value, "Upper bound of " + value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should report percentiles within 25% of the recorded values")
+    void percentile_ShouldBeAccurate() {
+        var histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1_000; i++) histogram.record(i * 1_000);
+
+        assertEquals(1_000, histogram.count());
+        assertEquals(1_000_000, histogram.maxNanos());
+        assertEquals(500_500_000, histogram.totalNanos());
+
+        assertBetween(500_000, histogram.percentile(0.50));
+        assertBetween(990_000, histogram.percentile(0.99));
+        assertEquals(1_000_000, histogram.percentile(1.0), "Percentiles are capped by the maximum");
+        assertEquals(0, new LatencyHistogram().percentile(0.5), "An empty histogram reports 0");
+    }
+
+    private static void assertBetween(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.25, "Expected ~" + expected + " but was " + actual);
+    }
+}
@@ -5,7 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -103,4 +105,180 @@ class ChatParserTest {
         assertEquals(1, results.size());
         assertEquals("APD123", results.getFirst().id(), "Should find the correct Block ID despite noise");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should share sender and metadata instances across messages")
+    void parse_ShouldCanonicalizeRepeatedValues() {
+        Stream<String> input = Stream.of(
+                "APD1,",
+                "Conversation Identifier:,UUID-1",
+                "Platform Call ID:,Call-1",
+                "anonym@anonym.fr,Hello",
+                "APD2,",
+                "Conversation Identifier:,UUID-1",
+                "Platform Call ID:,Call-1",
+                "anonym@anonym.fr,Hello again"
+        );
+
+        List<ChatMessage> results = parser.parse(input).toList();
+
+        assertEquals(2, results.size());
+        assertSame(results.get(0).sender(), results.get(1).sender());
+        assertSame(results.get(0).conversationId(), results.get(1).conversationId());
+        assertSame(results.get(0).platformId(), results.get(1).platformId());
+    }
+
+    @Test
+    @DisplayName("Should keep exactly the messages that pass the filter")
+    void parse_ShouldMatchPostFiltering_WhenFilterIsPushedDown() {
+        List<String> input = List.of(
+                "stray@test.com,Before any block",
+                "APD1,",
+                "Conversation Identifier:,UUID-1",
+                "Platform Call ID:,Call-1",
+                "Date and time:,10/10/19 4:10:12 PM",
+                "alice@test.com,Kept",
+                "bob@test.com,Other sender",
+                "Conversation Identifier:,UUID-2",
+                "alice@test.com,Conversation changed mid-block",
+                "APD2,",
+                "Conversation Identifier:,UUID-1",
+                "Platform Call ID:,Call-2",
+                "alice@test.com,No date",
+                "APD3,",
+                "Conversation Identifier:,UUID-1",
+                "Date and time:,12/31/19 11:59:59 PM",
+                "alice@test.com,\"Quoted \"\"late\"\" message\""
+        );
+        var filters = List.of(
+                new MessageFilter(List.of("UUID-1"), null, null, null, null),
+                new MessageFilter(null, null, List.of("alice@test.com"), null, null),
+                new MessageFilter(List.of("UUID-1"), null, List.of("alice@test.com"),
+                        MessageFilter.lowerBound("2019-10-10"), MessageFilter.upperBound("2019-12-31")),
+                new MessageFilter(null, List.of("Call-1", "Call-2"), null, null, MessageFilter.upperBound("2019-10-10T16:10:12"))
+        );
+
+        List<ChatMessage> all = parser.parse(input.stream()).toList();
+        for (MessageFilter filter : filters) {
+            List<ChatMessage> pushedDown = new ChatParser(LineClassifier::new, null, filter).parse(input.stream()).toList();
+
+            assertEquals(all.stream().filter(filter::test).toList(), pushedDown);
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip the message lines of rejected blocks without classifying them")
+    void parse_ShouldNotClassifyMessages_WhenBlockIsRejected() {
+        Stream<String> input = Stream.of(
+                "APD1,",
+                "Conversation Identifier:,UUID-1",
+                "user@test.com,one",
+                "user@test.com,two",
+                "user@test.com,three",
+                "APD2,",
+                "Conversation Identifier:,UUID-2",
+                "user@test.com,kept"
+        );
+        var classified = new int[1];
+        Supplier<LineClassifier> counting = () -> new LineClassifier() {
+            @Override
+            public LineType classify(CharSequence line) {
+                classified[0]++;
+                return super.classify(line);
+            }
+        };
+        var filter = new MessageFilter(List.of("UUID-2"), null, null, null, null);
+
+        List<ChatMessage> results = new ChatParser(counting, null, filter).parse(input).toList();
+
+        assertEquals(List.of("kept"), results.stream().map(ChatMessage::message).toList());
+        assertEquals(5, classified[0], "Only block starts, metadata and the kept message should be classified");
+    }
+
+    @Test
+    @DisplayName("Should normalize block timestamps while filtering on the raw value")
+    void parse_ShouldNormalizeTimestamps_WhenFormatIsSet() {
+        List<String> input = List.of(
+                "APD1,",
+                "Date and time:,10/10/19 4:10:12 PM",
+                "a@test.com,first",
+                "a@test.com,second",
+                "APD2,",
+                "Date and time:,not a date",
+                "a@test.com,third"
+        );
+        var iso = new ChatParser(LineClassifier::new, null, MessageFilter.NONE,
+                new TimestampNormalizer(TimestampFormat.ISO, ZoneOffset.ofHours(2)));
+        var epoch = new ChatParser(LineClassifier::new, null,
+                new MessageFilter(null, null, null, MessageFilter.lowerBound("2019-10-10"), null),
+                new TimestampNormalizer(TimestampFormat.EPOCH, ZoneOffset.UTC));
+
+        List<ChatMessage> isoResults = iso.parse(input.stream()).toList();
+        List<ChatMessage> epochResults = epoch.parse(input.stream()).toList();
+
+        assertEquals(List.of("2019-10-10T16:10:12+02:00", "2019-10-10T16:10:12+02:00", "not a date"),
+                isoResults.stream().map(ChatMessage::timestamp).toList());
+        assertSame(isoResults.get(0).timestamp(), isoResults.get(1).timestamp(), "A block's timestamp should be converted once");
+        assertEquals(List.of("1570723812000", "1570723812000"), epochResults.stream().map(ChatMessage::timestamp).toList());
+    }
+
+    @Test
+    @DisplayName("Should rebuild messages whose quoted text spans several lines")
+    void parse_ShouldReassembleMultiLineMessages_WhenReassemblerIsSet() {
+        List<String> input = List.of(
+                "APD1,",
+                "Conversation Identifier:,UUID-1",
+                "alice@test.com,\"Dear Bob,",
+                "see you \"\"tomorrow\"\"\"",
+                "bob@test.com,Sure"
+        );
+        var reassembling = new ChatParser(LineClassifier::new, null, MessageFilter.NONE, TimestampNormalizer.RAW,
+                new RecordReassembler());
+
+        List<ChatMessage> results = reassembling.parse(input.stream()).toList();
+        List<ChatMessage> batched = reassembling.parseBatches(input.stream(), 1)
+                .flatMap(batch -> batch.messages().toList().stream())
+                .toList();
+
+        assertEquals(2, results.size());
+        assertEquals("Dear Bob,\nsee you \"tomorrow\"", results.get(0).message());
+        assertEquals("Sure", results.get(1).message());
+        assertEquals(results, batched);
+    }
+
+    @Test
+    @DisplayName("Should produce the same rows in batches as in records, across batch boundaries")
+    void parseBatches_ShouldMatchParse_AcrossBatchBoundaries() {
+        List<String> input = List.of(
+                "stray@test.com,Before any block",
+                "APD1,",
+                "Conversation Identifier:,UUID-1",
+                "Platform Call ID:,Call-1",
+                "Date and time:,10/10/19 4:10:12 PM",
+                "alice@test.com,One",
+                "bob@test.com,\"Quoted, \"\"twice\"\"\"",
+                "Conversation Identifier:,UUID-2",
+                "alice@test.com,Conversation changed mid-block",
+                "alice@test.com,\"\"",
+                "APD2,",
+                "bob@test.com,No metadata",
+                "bob@test.com,\"\"\"\"\"\"",
+                "APD3,",
+                "Conversation Identifier:,UUID-1",
+                "alice@test.com,Last"
+        );
+        var filter = new MessageFilter(null, null, List.of("alice@test.com"), null, null);
+
+        for (var chatParser : List.of(parser, new ChatParser(LineClassifier::new, null, filter))) {
+            List<ChatMessage> expected = chatParser.parse(input.stream()).toList();
+            for (int capacity : new int[]{1, 2, 3, 1024}) {
+                // Batches are reused, so rows are materialized before the next batch is requested.
+                List<ChatMessage> batched = chatParser.parseBatches(input.stream(), capacity)
+                        .flatMap(batch -> batch.messages().toList().stream())
+                        .toList();
+
+                assertEquals(expected, batched, "capacity " + capacity);
+            }
+        }
+    }
+}
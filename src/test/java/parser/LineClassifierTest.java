@@ -0,0 +1,98 @@
+package parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineClassifierTest {
+
+    private LineClassifier classifier;
+    private LineClassifier reference;
+
+    @BeforeEach
+    void setUp() {
+        classifier = new LineClassifier();
+        reference = new RegexLineClassifier();
+    }
+
+    @Test
+    @DisplayName("Should classify every line type and expose group offsets")
+    void classify_ShouldRecognizeEachLineType() {
+        assertEquals(LineType.BLOCK_START, classifier.classify("APD93823,"));
+        assertEquals("APD93823", classifier.group("APD93823,", 1));
+
+        assertEquals(LineType.CONVERSATION, classifier.classify("Conversation Identifier:,8755-UUID"));
+        assertEquals("8755-UUID", classifier.group("Conversation Identifier:,8755-UUID", 1));
+
+        assertEquals(LineType.PLATFORM, classifier.classify("Platform Call ID:,Call-123"));
+        assertEquals(LineType.DATE, classifier.classify("Date and time:,10/10/19 4:10:12 PM"));
+
+        String message = "anonym@anonym.fr,\"Hello, world\"";
+        assertEquals(LineType.MESSAGE, classifier.classify(message));
+        assertEquals("anonym@anonym.fr", classifier.group(message, 1));
+        assertEquals("\"Hello, world\"", classifier.group(message, 2));
+
+        assertEquals(LineType.UNRECOGNIZED, classifier.classify("SomeRandomGarbageHeader"));
+    }
+
+    @Test
+    @DisplayName("Should agree with the ChatPatterns cascade on edge cases")
+    void classify_ShouldMatchRegexCascade_OnEdgeCases() {
+        List<String> lines = List.of(
+                "", "A", "APD", "APD,", "APD1", "APDX,", "APD12abc", "APD1 ",
+                "APD1@test.com,hello", "APDx@test.com,hello",
+                "Conversation Identifier:,", "Conversation Identifier:", "Conversation Identifier:,a\rb",
+                "Platform Call ID:,", "Date and time:,x", "Date and time,x",
+                "Copy@test.com,hello", "Date@x.io,hi",
+                "a@b.co,", "a@b.c,x", "a@b.abcde,x", "a@b.abcd,x", "a.b-c_d@x-y.com,hi",
+                "@b.com,x", "a@.com,x", "a@b.com", "a@b.com;x", "a+b@x.com,hi", "a@b.co.uk,hi",
+                "ab@x.com,h i", "ab@x.com,h\u0085i", "été@test.com,hi", "a@b.com,\"\"\"",
+                "APD1,\nAPD2", "a@b.com,\"x\ny\"", "a@b.com,\"x\ny", "a@b.com,\"\n", "a@b.com,x\ny\"",
+                "a@b.com,\"x\ny\"z"
+        );
+
+        for (String line : lines) {
+            assertAgrees(line);
+        }
+    }
+
+    @Test
+    @DisplayName("Should agree with the ChatPatterns cascade on random lines")
+    void classify_ShouldMatchRegexCascade_OnRandomLines() {
+        Random random = new Random(42);
+        String alphabet = "APDCPt@.,-_ :aZ09\"\r é";
+        List<String> prefixes = List.of("", "APD", "APD7", "Conversation Identifier:,", "Platform Call ID:,",
+                "Date and time:,", "user@mail.com,", "user@mail");
+
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder line = new StringBuilder(prefixes.get(random.nextInt(prefixes.size())));
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertAgrees(line.toString());
+        }
+    }
+
+    private void assertAgrees(String line) {
+        LineType expected = reference.classify(line);
+        LineType actual = classifier.classify(line);
+
+        assertEquals(expected, actual, () -> "Classification mismatch for [" + line + "]");
+
+        int groups = switch (expected) {
+            case MESSAGE -> 2;
+            case UNRECOGNIZED -> 0;
+            default -> 1;
+        };
+        for (int group = 1; group <= groups; group++) {
+            assertEquals(reference.start(group), classifier.start(group), "Group start mismatch for [" + line + "]");
+            assertEquals(reference.end(group), classifier.end(group), "Group end mismatch for [" + line + "]");
+        }
+    }
+}
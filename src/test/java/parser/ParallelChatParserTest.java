@@ -0,0 +1,116 @@
+package parser;
+
+import aggregate.ConversationAggregator;
+import benchmark.EvidenceGenerator;
+import loader.BlockPartitioner;
+import loader.CsvLoader;
+import model.ChatMessage;
+import model.FilePartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelChatParserTest {
+
+    @Test
+    @DisplayName("Should produce the same ordered output as the sequential parser")
+    void parse_ShouldMatchSequentialParser(@TempDir Path tempDir) throws IOException {
+        Path file = evidence(tempDir.resolve("evidence.csv"), new EvidenceGenerator(200, 2, 80, 0.2));
+
+        List<ChatMessage> expected;
+        try (var lines = new CsvLoader().load(file)) {
+            expected = new ChatParser().parse(lines).toList();
+        }
+
+        List<ChatMessage> actual;
+        try (var messages = new ParallelChatParser(new ChatParser(), 4, 256).parse(file)) {
+            actual = messages.toList();
+        }
+
+        assertEquals(401, expected.size(), "200 blocks of 2 messages plus the orphan line");
+        assertEquals(expected, actual, "Parallel parsing must not reorder or mix block metadata");
+    }
+
+    @Test
+    @DisplayName("Should merge the per-partition aggregates into the result of a sequential pass")
+    void collect_ShouldMatchSequentialAggregation(@TempDir Path tempDir) throws IOException {
+        // Conversations recur across blocks, so they are spread over several partitions.
+        Path file = evidence(tempDir.resolve("evidence.csv"), new EvidenceGenerator(200, 2, 80, 0.2, 200, 7, 42L));
+
+        ConversationAggregator expected;
+        try (var lines = new CsvLoader().load(file)) {
+            expected = new ChatParser().parse(lines).collect(ConversationAggregator.collector());
+        }
+
+        var actual = new ParallelChatParser(new ChatParser(), 4, 256).collect(file, ConversationAggregator.collector());
+
+        assertEquals(8, actual.size(), "7 conversations plus the messages before any block");
+        assertEquals(expected.summaries(), actual.summaries());
+    }
+
+    @Test
+    @DisplayName("Should split only on block start lines and cover the whole file")
+    void partition_ShouldAlignOnBlockBoundaries(@TempDir Path tempDir) throws IOException {
+        Path file = evidence(tempDir.resolve("evidence.csv"), new EvidenceGenerator(50, 2, 80, 0.2));
+        byte[] content = Files.readAllBytes(file);
+
+        List<FilePartition> partitions = new BlockPartitioner(100).partition(file);
+
+        assertTrue(partitions.size() > 1, "Small target size should produce several partitions");
+        assertEquals(0, partitions.getFirst().offset());
+        assertEquals(content.length, partitions.getLast().end());
+
+        for (int i = 1; i < partitions.size(); i++) {
+            FilePartition partition = partitions.get(i);
+            assertEquals(partitions.get(i - 1).end(), partition.offset(), "Partitions must be contiguous");
+            assertEquals('\n', content[(int) partition.offset() - 1]);
+            assertEquals("APD", new String(content, (int) partition.offset(), 3));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not split on APD appearing inside a message")
+    void partition_ShouldIgnoreBlockPrefixInsideLines(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("evidence.csv");
+        Files.write(file, List.of(
+                "APD1,",
+                "Conversation Identifier:,UUID-1",
+                "a@test.com,see APD2 and APD3",
+                "APDX,not a block",
+                "b@test.com,still block 1",
+                "APD2,",
+                "c@test.com,block 2"
+        ));
+
+        List<FilePartition> partitions = new BlockPartitioner(1).partition(file);
+
+        assertEquals(2, partitions.size());
+        assertEquals("APD2,", new String(Files.readAllBytes(file), (int) partitions.get(1).offset(), 5));
+    }
+
+    @Test
+    @DisplayName("Should return an empty stream for an empty file")
+    void parse_ShouldHandleEmptyFile(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("empty.csv");
+        Files.createFile(file);
+
+        try (var messages = new ParallelChatParser(2).parse(file)) {
+            assertEquals(0, messages.count());
+        }
+    }
+
+    /**
+     * Writes the generated dump behind a header and a message that belong to no block.
+     */
+    private static Path evidence(Path file, EvidenceGenerator generator) throws IOException {
+        generator.write(file);
+        return Files.writeString(file, "SomeRandomGarbageHeader\norphan@test.com,Before any block\n" + Files.readString(file));
+    }
+}
@@ -0,0 +1,102 @@
+package parser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileLineClassifierTest {
+
+    private static final FormatProfile ACME = new FormatProfile("acme", "MSG", "Thread:", "Session:", "Sent:",
+            ';', FormatProfile.SenderFormat.ANY);
+
+    @Test
+    @DisplayName("Should classify exactly as the ChatPatterns cascade when compiled from the default profile")
+    void classify_ShouldMatchRegexCascade_WhenProfileIsDefault() {
+        LineClassifier classifier = ProfileLineClassifier.compile(FormatProfile.DEFAULT).get();
+        LineClassifier reference = new RegexLineClassifier();
+
+        Random random = new Random(7);
+        String alphabet = "APDCPt@.,-_ :aZ09\"\r\né";
+        List<String> prefixes = List.of("", "APD", "APD7", "Conversation Identifier:,", "Platform Call ID:,",
+                "Date and time:,", "user@mail.com,", "user@mail.com,\"", "Copy@x.io,");
+
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder builder = new StringBuilder(prefixes.get(random.nextInt(prefixes.size())));
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String line = builder.toString();
+
+            LineType expected = reference.classify(line);
+            assertEquals(expected, classifier.classify(line), () -> "Classification mismatch for [" + line + "]");
+            if (expected == LineType.UNRECOGNIZED) continue;
+
+            assertEquals(reference.start(1), classifier.start(1), "Group start mismatch for [" + line + "]");
+            assertEquals(reference.end(1), classifier.end(1), "Group end mismatch for [" + line + "]");
+            if (expected == LineType.MESSAGE) assertEquals(reference.end(2), classifier.end(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Should recognize the keys, separator and sender shape of a custom profile")
+    void classify_ShouldRecognizeCustomLayout() {
+        LineClassifier classifier = ProfileLineClassifier.compile(ACME).get();
+
+        assertEquals(LineType.BLOCK_START, classifier.classify("MSG42;x"));
+        assertEquals("MSG42", classifier.group("MSG42;x", 1));
+        assertEquals(LineType.CONVERSATION, classifier.classify("Thread:;T-1"));
+        assertEquals("T-1", classifier.group("Thread:;T-1", 1));
+        assertEquals(LineType.PLATFORM, classifier.classify("Session:;S-1"));
+        assertEquals(LineType.DATE, classifier.classify("Sent:;10/10/19 4:10:12 PM"));
+
+        String message = "Alice Smith;\"Hi; there\"";
+        assertEquals(LineType.MESSAGE, classifier.classify(message));
+        assertEquals("Alice Smith", classifier.group(message, 1));
+        assertEquals("\"Hi; there\"", classifier.group(message, 2));
+
+        assertEquals(LineType.MESSAGE, classifier.classify("MSG;not a block"));
+        assertEquals(LineType.UNRECOGNIZED, classifier.classify("no separator"));
+        assertEquals(LineType.UNRECOGNIZED, classifier.classify(";no sender"));
+        assertTrue(classifier.mayStartMetadata("Thread:;T-1"));
+        assertFalse(classifier.mayStartMetadata("Alice;hi"));
+    }
+
+    @Test
+    @DisplayName("Should parse a custom layout and detect it from the first lines")
+    void detect_ShouldPickMatchingProfile(@TempDir Path tempDir) throws IOException {
+        List<String> acmeLines = List.of("MSG1;", "Thread:;T-1", "Session:;S-1", "Sent:;10/10/19 4:10:12 PM", "Alice;Hello");
+        List<String> apdLines = List.of("APD1,", "Conversation Identifier:,UUID-1", "alice@test.com,Hello");
+
+        var detector = new FormatDetector(List.of(FormatProfile.DEFAULT, ACME));
+        assertEquals(ACME, detector.detect(acmeLines.stream()));
+        assertEquals(FormatProfile.DEFAULT, detector.detect(apdLines.stream()));
+        assertEquals(FormatProfile.DEFAULT, detector.detect(Stream.of("garbage")));
+
+        var parsed = new ChatParser(ACME.classifiers(), null, MessageFilter.NONE, TimestampNormalizer.RAW)
+                .parse(acmeLines.stream())
+                .toList();
+        assertEquals(1, parsed.size());
+        assertEquals("T-1", parsed.getFirst().conversationId());
+        assertEquals("Alice", parsed.getFirst().sender());
+
+        Path file = tempDir.resolve("profiles.json");
+        Files.writeString(file, """
+                [{"name": "acme", "blockPrefix": "MSG", "conversationKey": "Thread:", "platformKey": "Session:",
+                  "dateKey": "Sent:", "separator": ";", "sender": "ANY"}]
+                """);
+        assertEquals(List.of(ACME), FormatProfile.load(file));
+
+        Files.writeString(file, "[{\"name\": \"bad\", \"blockPrefix\": \"MSG\", \"separator\": \";\", \"sender\": \"ANY\"}]");
+        assertThrows(IOException.class, () -> FormatProfile.load(file));
+    }
+}
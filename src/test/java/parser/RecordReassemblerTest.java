@@ -0,0 +1,103 @@
+package parser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReassemblerTest {
+
+    @Test
+    @DisplayName("Should join the lines of a quoted message until its quote closes")
+    void reassemble_ShouldJoinLines_WhenQuoteSpansSeveralLines() {
+        var reassembler = new RecordReassembler();
+
+        List<String> records = reassemble(reassembler,
+                "APD1,",
+                "alice@test.com,\"First line",
+                "",
+                "said \"\"hi\"\", then",
+                "last line\"",
+                "bob@test.com,\"Single, \"\"quoted\"\"\"",
+                "bob@test.com,Plain");
+
+        assertEquals(List.of(
+                "APD1,",
+                "alice@test.com,\"First line\n\nsaid \"\"hi\"\", then\nlast line\"",
+                "bob@test.com,\"Single, \"\"quoted\"\"\"",
+                "bob@test.com,Plain"), records);
+        assertEquals(new RecordReassembler.Stats(1, 0), reassembler.stats());
+    }
+
+    @Test
+    @DisplayName("Should pass the lines on unchanged when a block starts before the quote closes")
+    void reassemble_ShouldAbandonRecord_WhenBlockStarts() {
+        var reassembler = new RecordReassembler();
+        List<String> lines = List.of(
+                "alice@test.com,\"Never closed",
+                "Conversation Identifier:,UUID-1",
+                "APD2,",
+                "bob@test.com,\"Closed",
+                "here\"");
+
+        List<String> records = reassemble(reassembler, lines.toArray(String[]::new));
+
+        assertEquals(List.of(
+                "alice@test.com,\"Never closed",
+                "Conversation Identifier:,UUID-1",
+                "APD2,",
+                "bob@test.com,\"Closed\nhere\""), records);
+        assertEquals(new RecordReassembler.Stats(1, 1), reassembler.stats());
+    }
+
+    @Test
+    @DisplayName("Should still join a valid message that follows an abandoned record")
+    void reassemble_ShouldRetryFollowingLines_WhenRecordIsAbandoned() {
+        var reassembler = new RecordReassembler();
+
+        List<String> records = reassemble(reassembler,
+                "a@x.com,\"broken",
+                "b@x.com,\"real start",
+                "end\"",
+                "c@x.com,Plain");
+
+        assertEquals(List.of(
+                "a@x.com,\"broken",
+                "b@x.com,\"real start\nend\"",
+                "c@x.com,Plain"), records);
+        assertEquals(new RecordReassembler.Stats(1, 1), reassembler.stats());
+    }
+
+    @Test
+    @DisplayName("Should give up on records exceeding the lookahead bounds or the input")
+    void reassemble_ShouldAbandonRecord_WhenBoundsAreExceeded() {
+        var byLines = new RecordReassembler(3, 1024);
+        List<String> lines = List.of("a@test.com,\"1", "2", "3", "4\"", "b@test.com,ok");
+        assertEquals(lines, reassemble(byLines, lines.toArray(String[]::new)));
+
+        var byChars = new RecordReassembler(16, 20);
+        lines = List.of("a@test.com,\"1234567", "89012345\"");
+        assertEquals(lines, reassemble(byChars, lines.toArray(String[]::new)));
+
+        var unterminated = new RecordReassembler();
+        lines = List.of("a@test.com,\"1", "2");
+        assertEquals(lines, reassemble(unterminated, lines.toArray(String[]::new)));
+
+        var trailing = new RecordReassembler();
+        lines = List.of("a@test.com,\"1", "2\" and more");
+        assertEquals(lines, reassemble(trailing, lines.toArray(String[]::new)));
+
+        for (var reassembler : List.of(byLines, byChars, unterminated, trailing)) {
+            assertEquals(new RecordReassembler.Stats(0, 1), reassembler.stats());
+        }
+    }
+
+    private static List<String> reassemble(RecordReassembler reassembler, String... lines) {
+        try (Stream<CharSequence> records = reassembler.reassemble(Stream.of(lines))) {
+            return records.map(CharSequence::toString).toList();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package pipeline;
+
+import benchmark.EvidenceGenerator;
+import exporter.AppendableExporter;
+import exporter.CsvChatExporter;
+import exporter.JsonChatExporter;
+import exporter.ReportWriter;
+import loader.FileRangeLoader;
+import model.ChatMessage;
+import model.Checkpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ChatParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointedProcessorTest {
+
+    private static final int BLOCKS = 50;
+
+    private CheckpointedProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        // Small ranges so that a test file spans many checkpoints.
+        processor = new CheckpointedProcessor(new ChatParser(), new FileRangeLoader(), 512);
+    }
+
+    @Test
+    @DisplayName("Should write the same report as a plain export and remove the checkpoint")
+    void export_ShouldMatchPlainExport(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"));
+
+        for (AppendableExporter<ChatMessage> exporter : List.of(new CsvChatExporter(), new JsonChatExporter())) {
+            Path expected = tempDir.resolve("expected-" + exporter.getClass().getSimpleName());
+            Path actual = tempDir.resolve("actual-" + exporter.getClass().getSimpleName());
+
+            try (var lines = new FileRangeLoader().load(evidence)) {
+                exporter.export(new ChatParser().parse(lines), expected);
+            }
+            long processed = processor.export(evidence, actual, exporter, false);
+
+            assertEquals(Files.size(evidence), processed);
+            assertEquals(Files.readString(expected), Files.readString(actual), "Checkpointing must not change the report");
+            assertFalse(Files.exists(CheckpointedProcessor.checkpointFor(actual)), "A completed run must not leave a checkpoint");
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume an interrupted run and produce the uninterrupted report")
+    void export_ShouldResumeFromCheckpoint(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"));
+
+        for (AppendableExporter<ChatMessage> exporter : List.of(new CsvChatExporter(), new JsonChatExporter())) {
+            Path expected = tempDir.resolve("expected-" + exporter.getClass().getSimpleName());
+            Path actual = tempDir.resolve("actual-" + exporter.getClass().getSimpleName());
+            exporter.export(messagesOf(evidence), expected);
+
+            assertThrows(IOException.class, () -> processor.export(evidence, actual, new FailingExporter(exporter, 57), false));
+
+            Checkpoint checkpoint = CheckpointedProcessor.readCheckpoint(actual);
+            assertNotNull(checkpoint, "An interrupted run must leave its checkpoint");
+            assertTrue(checkpoint.inputOffset() > 0 && checkpoint.inputOffset() < Files.size(evidence));
+            assertTrue(checkpoint.records() > 0 && checkpoint.records() <= 57);
+
+            // Simulates a record torn by the crash after the last checkpoint.
+            Files.writeString(actual, "APD-torn,", StandardOpenOption.APPEND);
+
+            long processed = processor.export(evidence, actual, new FailingExporter(exporter, Long.MAX_VALUE), true);
+
+            assertEquals(Files.size(evidence) - checkpoint.inputOffset(), processed);
+            assertEquals(Files.readString(expected), Files.readString(actual), "The resumed report must match an uninterrupted run");
+            assertFalse(Files.exists(CheckpointedProcessor.checkpointFor(actual)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume from the initial checkpoint, taken before any record was written")
+    void export_ShouldResumeFromInitialCheckpoint(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"));
+
+        for (AppendableExporter<ChatMessage> exporter : List.of(new CsvChatExporter(), new JsonChatExporter())) {
+            Path expected = tempDir.resolve("expected-" + exporter.getClass().getSimpleName());
+            Path actual = tempDir.resolve("actual-" + exporter.getClass().getSimpleName());
+            exporter.export(messagesOf(evidence), expected);
+
+            assertThrows(IOException.class, () -> processor.export(evidence, actual, new FailingExporter(exporter, 0), false));
+            Checkpoint checkpoint = CheckpointedProcessor.readCheckpoint(actual);
+            assertEquals(0, checkpoint.inputOffset());
+            assertEquals(0, checkpoint.records());
+
+            processor.export(evidence, actual, new FailingExporter(exporter, Long.MAX_VALUE), true);
+
+            assertEquals(Files.readString(expected), Files.readString(actual), "The resumed report must keep its header");
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to resume when the evidence file changed")
+    void export_ShouldThrowIOException_WhenInputChanged(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"));
+        Path report = tempDir.resolve("report.csv");
+
+        assertThrows(IOException.class, () -> processor.export(evidence, report, new FailingExporter(new CsvChatExporter(), 10), false));
+        Files.writeString(evidence, "APD999,\n", StandardOpenOption.APPEND);
+
+        assertThrows(IOException.class, () -> processor.export(evidence, report, new FailingExporter(new CsvChatExporter(), Long.MAX_VALUE), true));
+    }
+
+    @Test
+    @DisplayName("Should refuse to resume without a checkpoint")
+    void export_ShouldThrowIOException_WhenCheckpointMissing(@TempDir Path tempDir) throws IOException {
+        Path evidence = evidence(tempDir.resolve("evidence.csv"));
+
+        assertThrows(IOException.class, () -> processor.export(evidence, tempDir.resolve("report.csv"), new CsvChatExporter(), true));
+    }
+
+    private static Stream<ChatMessage> messagesOf(Path evidence) throws IOException {
+        var lines = new FileRangeLoader().load(evidence);
+        return new ChatParser().parse(lines).onClose(lines::close);
+    }
+
+    private static Path evidence(Path file) throws IOException {
+        new EvidenceGenerator(BLOCKS, 2, 40, 0.5).write(file);
+        return file;
+    }
+
+    /**
+     * Delegates to a real exporter and fails like a full disk once a number of records was written.
+     */
+    private record FailingExporter(AppendableExporter<ChatMessage> delegate, long failAfter) implements AppendableExporter<ChatMessage> {
+
+        @Override
+        public ReportWriter<ChatMessage> open(Path outputPath) throws IOException {
+            return failing(delegate.open(outputPath));
+        }
+
+        @Override
+        public ReportWriter<ChatMessage> resume(Path outputPath, long size, long records) throws IOException {
+            return failing(delegate.resume(outputPath, size, records));
+        }
+
+        private ReportWriter<ChatMessage> failing(ReportWriter<ChatMessage> writer) {
+            return new ReportWriter<>() {
+                @Override
+                public void write(ChatMessage record) throws IOException {
+                    if (writer.records() == failAfter) throw new IOException("No space left on device");
+                    writer.write(record);
+                }
+
+                @Override
+                public long sync() throws IOException {
+                    return writer.sync();
+                }
+
+                @Override
+                public long records() {
+                    return writer.records();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writer.close();
+                }
+            };
+        }
+    }
+}
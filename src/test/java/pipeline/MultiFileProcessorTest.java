@@ -0,0 +1,69 @@
+package pipeline;
+
+import benchmark.EvidenceGenerator;
+import exporter.CsvChatExporter;
+import loader.FileRangeLoader;
+import model.ChatMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ChatParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiFileProcessorTest {
+
+    private MultiFileProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new MultiFileProcessor(new ChatParser(), new FileRangeLoader(), 3);
+    }
+
+    @Test
+    @DisplayName("Should merge all files in input order")
+    void parseMerged_ShouldKeepFileOrder(@TempDir Path tempDir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<ChatMessage> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // One block of two messages per device, different for each seed.
+            var generator = new EvidenceGenerator(1, 2, 40, 0.2, 5, i);
+            Path file = tempDir.resolve("device-" + i + ".csv");
+            generator.write(file);
+            files.add(file);
+            expected.addAll(generator.messages());
+        }
+
+        List<ChatMessage> messages;
+        try (Stream<ChatMessage> stream = processor.parseMerged(files)) {
+            messages = stream.toList();
+        }
+
+        assertEquals(20, messages.size());
+        assertEquals(expected, messages, "Messages must follow the file order");
+    }
+
+    @Test
+    @DisplayName("Should export one report per file and report failures individually")
+    void exportEach_ShouldWriteOneReportPerFile(@TempDir Path tempDir) throws Exception {
+        Path good = tempDir.resolve("good.csv");
+        new EvidenceGenerator(1, 2, 40, 0.2).write(good);
+        Path missing = tempDir.resolve("missing.csv");
+        Path outputDir = tempDir.resolve("out");
+
+        Map<Path, Exception> failures = processor.exportEach(List.of(good, missing),
+                file -> outputDir.resolve(file.getFileName()), new CsvChatExporter());
+
+        assertEquals(List.of(missing), List.copyOf(failures.keySet()), "Only the missing file should fail");
+        assertEquals(3, Files.readAllLines(outputDir.resolve("good.csv")).size(), "Header plus 2 messages");
+    }
+}
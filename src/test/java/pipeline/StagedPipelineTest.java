@@ -0,0 +1,88 @@
+package pipeline;
+
+import benchmark.EvidenceGenerator;
+import loader.CsvLoader;
+import loader.MappedLineLoader;
+import model.ChatMessage;
+import model.StageMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.ChatParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedPipelineTest {
+
+    @Test
+    @DisplayName("Should produce the same messages as a sequential parse")
+    void parse_ShouldMatchSequentialParse(@TempDir Path tempDir) throws IOException {
+        Path evidence = tempDir.resolve("evidence.csv");
+        new EvidenceGenerator(300, 2, 80, 0.2).write(evidence);
+
+        List<ChatMessage> expected;
+        try (var lines = new CsvLoader().load(evidence)) {
+            expected = new ChatParser().parse(lines).toList();
+        }
+
+        // Tiny batches and queues so that every stage has to wait on the others.
+        var pipeline = new StagedPipeline(new MappedLineLoader(), new ChatParser(), 7, 2);
+        List<ChatMessage> actual;
+        try (Stream<ChatMessage> messages = pipeline.parse(evidence)) {
+            actual = messages.toList();
+        }
+
+        assertEquals(expected, actual);
+
+        List<StageMetrics> metrics = pipeline.metrics();
+        assertEquals(List.of("reader", "parser", "serializer"), metrics.stream().map(StageMetrics::stage).toList());
+        assertEquals(Files.readAllLines(evidence).size(), metrics.get(0).records(), "The reader should hand over every line");
+        assertEquals(expected.size(), metrics.get(1).records());
+        assertEquals(expected.size(), metrics.get(2).records());
+        assertEquals(2, metrics.get(1).queueCapacity());
+        assertTrue(metrics.get(1).maxQueueDepth() <= 2);
+        metrics.forEach(stage -> assertTrue(stage.utilization() >= 0 && stage.utilization() <= 1, stage.toString()));
+    }
+
+    @Test
+    @DisplayName("Should surface a loader failure to the consumer")
+    void parse_ShouldPropagateReaderFailure(@TempDir Path tempDir) throws IOException {
+        Path evidence = tempDir.resolve("evidence.csv");
+        new EvidenceGenerator(10, 2, 80, 0.2).write(evidence);
+
+        var pipeline = new StagedPipeline(file -> Stream.concat(Files.lines(file),
+                Stream.generate(() -> { throw new UncheckedIOException(new IOException("Device unplugged")); })),
+                new ChatParser());
+
+        try (Stream<ChatMessage> messages = pipeline.parse(evidence)) {
+            var e = assertThrows(UncheckedIOException.class, messages::toList);
+            assertEquals("Device unplugged", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop the stages when the stream is closed early")
+    void parse_ShouldStop_WhenClosedEarly(@TempDir Path tempDir) throws IOException {
+        Path evidence = tempDir.resolve("evidence.csv");
+        new EvidenceGenerator(2_000, 2, 80, 0.2).write(evidence);
+        var pipeline = new StagedPipeline(new CsvLoader(), new ChatParser(), 16, 2);
+
+        try (Stream<ChatMessage> messages = pipeline.parse(evidence)) {
+            assertEquals(10, messages.limit(10).count());
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (Thread.getAllStackTraces().keySet().stream().anyMatch(t -> t.getName().startsWith("pipeline-"))) {
+                Thread.sleep(10);
+            }
+        }, "Stage threads must exit once the stream is closed");
+    }
+}
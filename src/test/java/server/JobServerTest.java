@@ -0,0 +1,150 @@
+package server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobServerTest {
+
+    @Test
+    @DisplayName("Should run the arguments of a request and stream its output and exit code back")
+    void serve_ShouldRunJob_AndReturnOutput(@TempDir Path tempDir) throws Exception {
+        Path socket = tempDir.resolve("fdt.sock");
+        JobServer.Job job = (args, out) -> {
+            out.println("args=" + String.join("|", args));
+            return args.length;
+        };
+
+        try (var server = start(new JobServer(socket, job, 2))) {
+            assertEquals("args=in.csv|out file.csv|-f\nEXIT 3\n", request(socket, "in.csv", "out file.csv", "-f"));
+            assertEquals("EXIT 0\n", request(socket));
+            assertEquals(1, server.stats().completed());
+        }
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    @DisplayName("Should run jobs concurrently and refuse them once the queue is full")
+    void serve_ShouldBoundConcurrency_AndQueue(@TempDir Path tempDir) throws Exception {
+        Path socket = tempDir.resolve("fdt.sock");
+        var started = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+        JobServer.Job job = (args, out) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        };
+
+        var server = start(new JobServer(socket, job, 2, 1));
+        try {
+            List<Thread> clients = new ArrayList<>();
+            List<String> responses = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < 3; i++) {
+                clients.add(Thread.ofPlatform().start(() -> responses.add(uncheckedRequest(socket, "job"))));
+            }
+            // Both workers are busy at the same time; the third job waits in the queue, the next is refused.
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (server.stats().queued() == 0 && System.nanoTime() < deadline) Thread.sleep(10);
+            assertEquals(1, server.stats().queued());
+
+            String refused = request(socket, "job");
+            assertTrue(refused.startsWith("Error: The job queue is full"), refused);
+            assertTrue(refused.endsWith("EXIT 1\n"), refused);
+            assertEquals(1, server.stats().refused());
+
+            release.countDown();
+            for (Thread client : clients) client.join();
+            assertEquals(List.of("EXIT 0\n", "EXIT 0\n", "EXIT 0\n"), responses);
+        } finally {
+            release.countDown();
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep workers free while clients are connected without sending their request, and drop them after the timeout")
+    void serve_ShouldNotBlockWorkers_WhenClientsStayIdle(@TempDir Path tempDir) throws Exception {
+        Path socket = tempDir.resolve("fdt.sock");
+
+        try (var server = start(new JobServer(socket, (args, out) -> 0, 1, 1, Duration.ofMillis(300)));
+             var idle = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+             var alsoIdle = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            assertEquals("EXIT 0\n", request(socket, "job"));
+            assertEquals(1, server.stats().completed());
+
+            // The idle connections are closed by the daemon without an answer.
+            assertEquals(0, Channels.newInputStream(idle).readAllBytes().length);
+            assertEquals(0, Channels.newInputStream(alsoIdle).readAllBytes().length);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to start while another daemon listens on the socket")
+    void start_ShouldFail_WhenSocketIsInUse(@TempDir Path tempDir) throws Exception {
+        Path socket = tempDir.resolve("fdt.sock");
+
+        try (var ignored = start(new JobServer(socket, (args, out) -> 0, 1))) {
+            var second = new JobServer(socket, (args, out) -> 0, 1);
+            assertThrows(IOException.class, second::start);
+        }
+
+        // A socket file left behind is replaced.
+        Files.createFile(socket);
+        try (var server = start(new JobServer(socket, (args, out) -> 0, 1))) {
+            assertEquals("EXIT 0\n", request(socket, "job"));
+        }
+    }
+
+    private static JobServer start(JobServer server) throws IOException {
+        server.start();
+        Thread.ofPlatform().daemon().start(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return server;
+    }
+
+    private static String request(Path socket, String... args) throws IOException {
+        try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            StringBuilder request = new StringBuilder();
+            for (String arg : args) request.append(arg).append('\n');
+            channel.write(StandardCharsets.UTF_8.encode(request.append('\n').toString()));
+
+            InputStream in = Channels.newInputStream(channel);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String uncheckedRequest(Path socket, String... args) {
+        try {
+            return request(socket, args);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
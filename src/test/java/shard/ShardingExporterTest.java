@@ -0,0 +1,140 @@
+package shard;
+
+import benchmark.EvidenceGenerator;
+import exporter.ColumnarChatExporter;
+import exporter.FastCsvChatExporter;
+import loader.ColumnarChatLoader;
+import model.ChatMessage;
+import model.ShardManifest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardingExporterTest {
+
+    private static final String HEADER = "id,conversationId,platformId,timestamp,sender,message";
+
+    @Test
+    @DisplayName("Should split rows into consecutive shards described by the manifest")
+    void export_ShouldWriteConsecutiveShards_WhenShardingByRows(@TempDir Path tempDir) throws Exception {
+        List<ChatMessage> messages = new EvidenceGenerator(125, 20, 80, 0.2).messages();
+        Path report = tempDir.resolve("report.csv");
+
+        new ShardingExporter(new FastCsvChatExporter(), ShardingExporter.Mode.ROWS, 1_000, 2, 100, 2)
+                .export(messages.stream(), report);
+
+        ShardManifest manifest = readManifest(ShardingExporter.manifestPath(report));
+        assertEquals(2_500, manifest.totalRows());
+        assertEquals(List.of("report-00001.csv", "report-00002.csv", "report-00003.csv"),
+                manifest.shards().stream().map(ShardManifest.Shard::file).toList());
+
+        List<String> rows = new ArrayList<>();
+        long expectedFirst = 0;
+        for (ShardManifest.Shard shard : manifest.shards()) {
+            Path file = tempDir.resolve(shard.file());
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(HEADER, lines.getFirst());
+            assertEquals(shard.rows(), lines.size() - 1);
+            assertEquals(expectedFirst, shard.firstRow());
+            assertEquals(shard.firstRow() + shard.rows() - 1, shard.lastRow());
+            assertEquals(Files.size(file), shard.bytes());
+            assertEquals(sha256(file), shard.sha256());
+
+            rows.addAll(lines.subList(1, lines.size()));
+            expectedFirst += shard.rows();
+        }
+
+        Path single = tempDir.resolve("single.csv");
+        new FastCsvChatExporter().export(messages.stream(), single);
+        List<String> expected = Files.readAllLines(single);
+        assertEquals(expected.subList(1, expected.size()), rows);
+    }
+
+    @Test
+    @DisplayName("Should keep every conversation in a single shard")
+    void export_ShouldNotSplitConversations_WhenShardingByConversation(@TempDir Path tempDir) throws IOException {
+        // 37 conversations, each continued over several blocks.
+        List<ChatMessage> messages = new EvidenceGenerator(150, 20, 80, 0.2, 7, 37, 42L).messages();
+        Path report = tempDir.resolve("report.fdtc");
+
+        new ShardingExporter(new ColumnarChatExporter(), ShardingExporter.Mode.CONVERSATION, 4, 1, 64, 1)
+                .export(messages.stream(), report);
+
+        ShardManifest manifest = readManifest(ShardingExporter.manifestPath(report));
+        assertEquals(4, manifest.shards().size());
+
+        Map<String, String> shardOfConversation = new HashMap<>();
+        List<ChatMessage> exported = new ArrayList<>();
+        var loader = new ColumnarChatLoader();
+        for (ShardManifest.Shard shard : manifest.shards()) {
+            try (Stream<ChatMessage> loaded = loader.load(tempDir.resolve(shard.file()))) {
+                for (ChatMessage message : loaded.toList()) {
+                    String previous = shardOfConversation.putIfAbsent(message.conversationId(), shard.file());
+                    assertTrue(previous == null || previous.equals(shard.file()), message.conversationId() + " spans two shards");
+                    exported.add(message);
+                }
+            }
+        }
+        assertEquals(messages.size(), exported.size());
+        assertTrue(exported.containsAll(messages));
+    }
+
+    @Test
+    @DisplayName("Should start a new shard once the estimated size is reached")
+    void export_ShouldRollOver_WhenShardingByBytes(@TempDir Path tempDir) throws IOException {
+        Path report = tempDir.resolve("report.csv.gz");
+
+        new ShardingExporter(new FastCsvChatExporter(), ShardingExporter.Mode.BYTES, 50_000, 1, 100, 2)
+                .export(new EvidenceGenerator(100, 20, 80, 0.2).messages().stream(), report);
+
+        ShardManifest manifest = readManifest(ShardingExporter.manifestPath(report));
+        assertTrue(manifest.shards().size() > 1);
+        assertEquals("report-00001.csv.gz", manifest.shards().getFirst().file());
+        assertEquals(2_000, manifest.shards().stream().mapToLong(ShardManifest.Shard::rows).sum());
+    }
+
+    @Test
+    @DisplayName("Should write a single empty shard for an empty stream")
+    void export_ShouldWriteEmptyShard_WhenStreamIsEmpty(@TempDir Path tempDir) throws IOException {
+        Path report = tempDir.resolve("report.csv");
+
+        new ShardingExporter(new FastCsvChatExporter(), ShardingExporter.Mode.ROWS, 10, 1)
+                .export(Stream.empty(), report);
+
+        ShardManifest manifest = readManifest(ShardingExporter.manifestPath(report));
+        assertEquals(1, manifest.shards().size());
+        assertEquals(-1, manifest.shards().getFirst().firstRow());
+        assertEquals(List.of(HEADER), Files.readAllLines(tempDir.resolve("report-00001.csv")));
+    }
+
+    @Test
+    @DisplayName("Should refuse more conversation shards than threads it can keep open")
+    void constructor_ShouldThrow_WhenConversationShardsExceedLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardingExporter(new FastCsvChatExporter(),
+                ShardingExporter.Mode.CONVERSATION, ShardingExporter.MAX_CONVERSATION_SHARDS + 1, 1));
+    }
+
+    private static ShardManifest readManifest(Path path) {
+        return JsonMapper.builder().build().readValue(path.toFile(), ShardManifest.class);
+    }
+
+    private static String sha256(Path file) throws IOException, NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+    }
+}
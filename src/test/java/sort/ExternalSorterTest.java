@@ -0,0 +1,91 @@
+package sort;
+
+import benchmark.EvidenceGenerator;
+import model.ChatMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSorterTest {
+
+    @Test
+    @DisplayName("Should order by conversation then date while keeping the order of each block")
+    void sort_ShouldOrderByConversationAndTime(@TempDir Path tempDir) throws IOException {
+        List<ChatMessage> input = List.of(
+                new ChatMessage("APD1", "B", "P1", "10/10/19 4:10:12 PM", "a@test.com", "b-late-1"),
+                new ChatMessage("APD1", "B", "P1", "10/10/19 4:10:12 PM", "a@test.com", "b-late-2"),
+                new ChatMessage("APD2", "A", "P2", "10/11/19 9:00:00 AM", "z@test.com", "a-late"),
+                new ChatMessage("APD3", "B", "P3", "10/10/19 9:59:59 AM", "z@test.com", "b-early"),
+                new ChatMessage("APD4", "A", "P4", "1/2/19 1:00:00 PM", "a@test.com", "a-early")
+        );
+
+        List<ChatMessage> sorted;
+        try (var messages = new ExternalSorter(1024, tempDir, false).sort(input.stream())) {
+            sorted = messages.toList();
+        }
+
+        assertEquals(List.of("a-early", "a-late", "b-early", "b-late-1", "b-late-2"),
+                sorted.stream().map(ChatMessage::message).toList());
+    }
+
+    @Test
+    @DisplayName("Should produce the same result whether runs are spilled or not, and delete the runs")
+    void sort_ShouldSpillAndMerge_WhenBudgetIsExceeded(@TempDir Path tempDir) throws IOException {
+        // Every block is exported twice, 250 blocks apart.
+        List<ChatMessage> blocks = new EvidenceGenerator(250, 10, 20, 0.2, 3, 17, 42L).messages();
+        List<ChatMessage> input = new ArrayList<>(blocks);
+        for (ChatMessage m : blocks) {
+            input.add(new ChatMessage(m.id() + "-copy", m.conversationId(), m.platformId(), m.timestamp(), m.sender(), m.message()));
+        }
+
+        var inMemory = new ExternalSorter(Long.MAX_VALUE, tempDir, true);
+        // A few dozen messages per run: more runs than the merge fan-in, so intermediate merges happen too.
+        var spilling = new ExternalSorter(4 * 1024, tempDir, true);
+
+        List<ChatMessage> expected;
+        try (var messages = inMemory.sort(input.stream())) {
+            expected = messages.toList();
+        }
+        try (var messages = spilling.sort(input.stream())) {
+            assertEquals(expected, messages.toList());
+        }
+
+        assertEquals(0, inMemory.stats().spilledRuns());
+        assertTrue(spilling.stats().spilledRuns() > ExternalSorter.MAX_FAN_IN);
+        assertEquals(2_500, inMemory.stats().duplicates());
+        assertEquals(2_500, spilling.stats().duplicates());
+        try (Stream<Path> leftovers = Files.list(tempDir)) {
+            assertEquals(0, leftovers.count(), "Run files must be deleted once the stream is closed");
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a block exported twice but keep identical messages within a block")
+    void sort_ShouldRemoveDuplicateBlocks(@TempDir Path tempDir) throws IOException {
+        List<ChatMessage> block = List.of(
+                new ChatMessage("APD1", "C", "P1", "10/10/19 4:10:12 PM", "a@test.com", "ok"),
+                new ChatMessage("APD1", "C", "P1", "10/10/19 4:10:12 PM", "a@test.com", "ok"),
+                new ChatMessage("APD1", "C", "P1", "10/10/19 4:10:12 PM", "b@test.com", "bye")
+        );
+        List<ChatMessage> copy = block.stream()
+                .map(m -> new ChatMessage("APD9", m.conversationId(), m.platformId(), m.timestamp(), m.sender(), m.message()))
+                .toList();
+        List<ChatMessage> input = new ArrayList<>(block);
+        input.addAll(copy);
+
+        var sorter = new ExternalSorter(ExternalSorter.DEFAULT_MEMORY_BUDGET, tempDir, true);
+        try (var messages = sorter.sort(input.stream())) {
+            assertEquals(block, messages.toList());
+        }
+        assertEquals(3, sorter.stats().duplicates());
+    }
+}
@@ -0,0 +1,50 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPipelineTest {
+
+    @Test
+    @DisplayName("Should flatten the batches of a queue into records up to the end marker")
+    void records_ShouldFlattenBatches_UntilEnd() throws IOException {
+        var pipeline = new BatchPipeline<Integer>();
+        var queue = new SpscRingBuffer<List<Integer>>(4);
+        List<Integer> received = new ArrayList<>();
+
+        var records = pipeline.records(queue);
+        var consumer = Thread.ofPlatform().start(() -> StreamSupport.stream(records, false).forEach(received::add));
+        pipeline.put(queue, List.of(1, 2));
+        pipeline.put(queue, List.of(3));
+        pipeline.end(queue);
+        pipeline.join(consumer);
+
+        pipeline.rethrow();
+        assertEquals(List.of(1, 2, 3), received);
+        assertTrue(records.done(), "The consumer must have reached the end marker");
+    }
+
+    @Test
+    @DisplayName("Should cancel a producer waiting on a full queue and rethrow the first failure")
+    void put_ShouldCancel_WhenConsumerFailed() {
+        var pipeline = new BatchPipeline<Integer>();
+        var queue = new SpscRingBuffer<List<Integer>>(1);
+        pipeline.put(queue, List.of(1));
+
+        var failure = new IOException("disk full");
+        var consumer = Thread.ofPlatform().start(() -> pipeline.fail(failure));
+        assertThrows(CancellationException.class, () -> pipeline.put(queue, List.of(2)));
+        pipeline.join(consumer);
+        pipeline.fail(new IllegalStateException("later failure"));
+
+        assertSame(failure, assertThrows(IOException.class, pipeline::rethrow));
+    }
+}
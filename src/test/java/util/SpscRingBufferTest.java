@@ -0,0 +1,45 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpscRingBufferTest {
+
+    @Test
+    @DisplayName("Should reject offers when full and return elements in FIFO order")
+    void offer_ShouldRespectCapacity() {
+        var ring = new SpscRingBuffer<Integer>(3);
+
+        assertEquals(4, ring.capacity(), "Capacity is rounded up to a power of two");
+        for (int i = 0; i < 4; i++) assertTrue(ring.offer(i));
+        assertFalse(ring.offer(4), "A full ring must reject new elements");
+        assertEquals(4, ring.size());
+
+        for (int i = 0; i < 4; i++) assertEquals(i, ring.poll());
+        assertNull(ring.poll(), "An empty ring must return null");
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    @DisplayName("Should transfer every element in order between two threads")
+    void pollAndOffer_ShouldPreserveOrder_AcrossThreads() throws InterruptedException {
+        var ring = new SpscRingBuffer<Integer>(16);
+        int count = 100_000;
+
+        var producer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!ring.offer(i)) Thread.yield();
+            }
+        });
+
+        for (int expected = 0; expected < count; expected++) {
+            Integer value;
+            while ((value = ring.poll()) == null) Thread.yield();
+            assertEquals(expected, value, "Elements must be received in the order they were offered");
+        }
+        producer.join();
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,78 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    @Test
+    @DisplayName("Should return the same instance for equal values and count hits")
+    void canonicalize_ShouldShareInstances() {
+        var dictionary = new StringDictionary(16);
+
+        String first = dictionary.canonicalize("anonym@anonym.fr,Hello", 0, 16);
+        String second = dictionary.canonicalize("anonym@anonym.fr,Bye", 0, 16);
+
+        assertEquals("anonym@anonym.fr", first);
+        assertSame(first, second, "Equal ranges should map to the canonical instance");
+        assertEquals(1, dictionary.stats().hits());
+        assertEquals(1, dictionary.stats().misses());
+        assertTrue(dictionary.stats().estimatedBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Should stay bounded and evict entries when full")
+    void canonicalize_ShouldEvict_WhenCapacityIsExceeded() {
+        var dictionary = new StringDictionary(4);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("user" + i, dictionary.canonicalize("user" + i));
+        }
+
+        assertEquals(100, dictionary.stats().misses());
+        assertTrue(dictionary.stats().evictions() >= 96, "At most 4 entries fit in the table");
+    }
+
+    @Test
+    @DisplayName("Should pass null through")
+    void canonicalize_ShouldReturnNull_ForNull() {
+        assertNull(new StringDictionary().canonicalize(null));
+    }
+
+    @Test
+    @DisplayName("Should always return equal values under concurrent use")
+    void canonicalize_ShouldBeSafe_UnderConcurrency() throws Exception {
+        var dictionary = new StringDictionary(64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        String expected = "sender" + (i % 200) + "@test.com";
+                        if (!expected.equals(dictionary.canonicalize(expected))) return false;
+                    }
+                    return true;
+                });
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var stats = dictionary.stats();
+        assertEquals(40_000, stats.hits() + stats.misses());
+    }
+}
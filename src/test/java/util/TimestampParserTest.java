@@ -0,0 +1,53 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampParserTest {
+
+    private static final DateTimeFormatter EVIDENCE_FORMAT = DateTimeFormatter.ofPattern("M/d/yy h:mm:ss a", Locale.US);
+
+    @Test
+    @DisplayName("Should agree with java.time on the evidence format")
+    void parseLocalSeconds_ShouldMatchDateTimeFormatter() {
+        var random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            var date = LocalDateTime.ofEpochSecond(946_684_800L + random.nextLong(3_155_760_000L), 0, ZoneOffset.UTC);
+            String text = EVIDENCE_FORMAT.format(date);
+
+            assertEquals(date.toEpochSecond(ZoneOffset.UTC), TimestampParser.parseLocalSeconds(text), text);
+            assertEquals(date.toString().length() == 19 ? date.toString() : date + ":00",
+                    TimestampParser.formatIso(date.toEpochSecond(ZoneOffset.UTC)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle 12 AM/PM, leap days and surrounding whitespace")
+    void parseLocalSeconds_ShouldHandleEdgeCases() {
+        assertEquals(LocalDateTime.of(2019, 10, 10, 0, 5, 0).toEpochSecond(ZoneOffset.UTC),
+                TimestampParser.parseLocalSeconds("10/10/19 12:05:00 AM"));
+        assertEquals(LocalDateTime.of(2019, 10, 10, 12, 5, 0).toEpochSecond(ZoneOffset.UTC),
+                TimestampParser.parseLocalSeconds("10/10/19 12:05:00 PM"));
+        assertEquals(LocalDateTime.of(2020, 2, 29, 23, 59, 59).toEpochSecond(ZoneOffset.UTC),
+                TimestampParser.parseLocalSeconds(" 2/29/2020 11:59:59 PM "));
+        assertEquals("1969-12-31T23:59:59", TimestampParser.formatIso(-1));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed or impossible dates")
+    void parseLocalSeconds_ShouldReturnInvalid_WhenTextIsNotATimestamp() {
+        for (String text : List.of("", "unknown", "2/29/19 1:00:00 PM", "13/1/19 1:00:00 PM", "1/1/19 0:00:00 AM",
+                "1/1/19 1:60:00 PM", "1/1/19 1:00:00", "1/1/19 1:00:00 XM", "1/1/190 1:00:00 PM", "1/1/19 1:0:00 PM")) {
+            assertEquals(TimestampParser.INVALID, TimestampParser.parseLocalSeconds(text), text);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindOutputStreamTest {
+
+    @Test
+    @DisplayName("Should deliver every byte to the sink in order")
+    void write_ShouldReachSink_WhenClosed() throws IOException {
+        var sink = new ByteArrayOutputStream();
+        byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) i;
+
+        try (var out = new WriteBehindOutputStream(sink, "write-behind-test", 64, 2)) {
+            out.write(data, 0, 5_000);
+            out.flush();
+            out.write(data, 5_000, 5_000);
+        }
+
+        assertArrayEquals(data, sink.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should rethrow a write failure and still close the sink")
+    void close_ShouldCloseSink_WhenWriteFailed() {
+        var sinkClosed = new AtomicBoolean();
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("No space left on device");
+            }
+
+            @Override
+            public void close() {
+                sinkClosed.set(true);
+            }
+        };
+
+        var out = new WriteBehindOutputStream(sink, "write-behind-test", 64, 2);
+        var thrown = assertThrows(IOException.class, () -> {
+            for (int i = 0; i < 1_000; i++) out.write(new byte[64]);
+            out.flush();
+        });
+        assertEquals("No space left on device", thrown.getMessage());
+
+        thrown = assertThrows(IOException.class, out::close);
+        assertEquals("No space left on device", thrown.getMessage());
+        assertTrue(sinkClosed.get(), "The sink must be closed, and its writer ended, after a failure");
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+}